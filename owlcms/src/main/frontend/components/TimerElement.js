@@ -22,13 +22,44 @@ class TimerElement extends LitElement {
   connectedCallback() {
     super.connectedCallback();
     document.addEventListener('initSounds', this.initSounds);
+    // a few quick exchanges to get a good first estimate, then an occasional refresh
+    this._clockSamples = [];
+    for (var i = 0; i < 4; i++) {
+      setTimeout(this._syncClock, 200 + i * 500);
+    }
+    this._clockSyncInterval = setInterval(this._syncClock, 60000);
   }
 
   disconnectedCallback() {
     document.removeEventListener('initSounds', this.initSounds);
+    clearInterval(this._clockSyncInterval);
     super.disconnectedCallback();
   }
 
+  /*
+    Estimate the offset between the local monotonic clock and the server clock.
+    offset = serverTime - (sent + received) / 2 ; the error is at most half the round trip,
+    so among the recent exchanges the one with the shortest round trip is kept.
+  */
+  _syncClock() {
+    if (this.$server == null || this.$server.clientClockPing == null) return;
+    var sent = performance.now();
+    this.$server.clientClockPing().then((serverMillis) => {
+      var received = performance.now();
+      this._clockSamples.push({ rtt: received - sent, offset: serverMillis - (sent + received) / 2 });
+      if (this._clockSamples.length > 8) {
+        this._clockSamples.shift();
+      }
+      var best = this._clockSamples.reduce((a, b) => (b.rtt < a.rtt ? b : a));
+      this._clockOffset = best.offset;
+      this._clockRtt = best.rtt;
+    });
+  }
+
+  _serverNow() {
+    return performance.now() + this._clockOffset;
+  }
+
   static get properties() {
     return {
       _formattedTime: {
@@ -78,23 +109,30 @@ class TimerElement extends LitElement {
     this.renderRoot.querySelector('#timeOver').play();
   }
 
-  start(seconds, indefinite, silent, element, serverMillis, from) {
+  start(seconds, indefinite, silent, element, deadline, from) {
     if (indefinite) {
       console.warn("timer indefinite " + seconds);
+      this._deadline = null;
       this._indefinite();
       return;
     }
 
     var lateMillis = 0;
-    if (this.isIOS()) {
-      // iPad devices can react several seconds late; catch up with time
-      // this assumes that iPad is in sync with NTP time (it should be)
-      var localMillis = Date.now();
-      lateMillis = localMillis - parseInt(serverMillis, 10);
-      if (lateMillis < 0) {
-        lateMillis = 0;
+    this._deadline = parseInt(deadline, 10);
+    if (this._clockOffset != null) {
+      // count down to the server deadline, all displays reach 0 together
+      lateMillis = seconds * 1000 - (this._deadline - this._serverNow());
+    } else {
+      this._deadline = null;
+      if (this.isIOS()) {
+        // clock not synchronized yet, iPad devices can react several seconds late; catch up with time.
+        // the server clock starts from the wall clock; this assumes that iPad is in sync with NTP time (it should be)
+        lateMillis = Date.now() - (parseInt(deadline, 10) - seconds * 1000);
       }
     }
+    if (lateMillis < 0) {
+      lateMillis = 0;
+    }
 
     console.warn("timer start " + seconds + " late = " + lateMillis + "ms");
     this.$server.clientTimerStarting(
@@ -131,6 +169,7 @@ class TimerElement extends LitElement {
     }
 
     this.running = false;
+    this._deadline = null;
     console.warn("paused" + " running=false");
     // if (this.$server != null) {
     this.$server.clientTimerStopped(
@@ -149,6 +188,7 @@ class TimerElement extends LitElement {
 
   display(seconds, indefinite, silent, element) {
     this.running = false;
+    this._deadline = null;
     console.warn("display " + indefinite + " " + seconds + " running=false");
     if (indefinite) {
       this.currentTime = seconds;
@@ -227,11 +267,16 @@ class TimerElement extends LitElement {
     }
 
     var now = timestamp / 1000;
-    // Compute the relative progress based on the time spent running
-    var progress = now - this._elapsed;
-    this.currentTime = this.countUp
-      ? this.currentTime + progress
-      : this.currentTime - progress;
+    if (this._deadline != null && this._clockOffset != null && !this.countUp) {
+      // no accumulated drift, the offset estimate is refined while running
+      this.currentTime = (this._deadline - this._serverNow()) / 1000;
+    } else {
+      // Compute the relative progress based on the time spent running
+      var progress = now - this._elapsed;
+      this.currentTime = this.countUp
+        ? this.currentTime + progress
+        : this.currentTime - progress;
+    }
 
     if (this.currentTime <= 0.05 && !this._timeOverWarningGiven) {
       console.warn("calling play " + this.currentTime);
@@ -306,6 +351,10 @@ class TimerElement extends LitElement {
   constructor() {
     super();
     this._decreaseTimer = this._decreaseTimer.bind(this);
+    this._syncClock = this._syncClock.bind(this);
+    this._clockSamples = [];
+    this._clockOffset = null;
+    this._deadline = null;
     this.startTime = 60;
     this.running = false;
     console.warn("constructor" + " running=false");
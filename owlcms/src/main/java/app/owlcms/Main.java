@@ -29,6 +29,7 @@ import app.owlcms.data.agegroup.AgeGroup;
 import app.owlcms.data.agegroup.AgeGroupRepository;
 import app.owlcms.data.agegroup.ChampionshipType;
 import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.athlete.AthleteWriteBehind;
 import app.owlcms.data.category.Category;
 import app.owlcms.data.category.CategoryRepository;
 import app.owlcms.data.competition.Competition;
@@ -88,6 +89,8 @@ public class Main {
 	private final static Logger logger = (Logger) LoggerFactory.getLogger(Main.class);
 	protected static boolean demoData;
 	protected static boolean demoMode;
+	protected static boolean exitAfterStartup;
+	protected static boolean fastStartup;
 	protected static boolean masters;
 	protected static boolean memoryMode;
 	protected static String productionMode;
@@ -114,6 +117,8 @@ public class Main {
 		}
 		// check for database override of resource files
 		Config.initConfig();
+		// lift results journaled but not written before a crash
+		AthleteWriteBehind.recover();
 	}
 
 	/**
@@ -130,13 +135,25 @@ public class Main {
 		overrideTimeZone();
 		logger.info("Initialized data ({} ms)", System.currentTimeMillis() - now);
 
+		// records are only needed once a session is started, the fields of play are created empty.
+		// the queries on records wait until they are loaded.
+		RecordDefinitionReader.loadRecordsInBackground();
+
 		if (demoResetDelay == null) {
 			startMQTT();
 		}
 		// initialization, don't push out to browsers
+		now = System.currentTimeMillis();
 		OwlcmsFactory.initDefaultFOP();
-		
+		logger.info("Initialized platforms ({} ms)", System.currentTimeMillis() - now);
+
 		signalDatabaseReady();
+
+		if (exitAfterStartup) {
+			// used to record the classes loaded at startup in a class data sharing archive (see Dockerfile)
+			logger.info("exiting after startup");
+			System.exit(0);
+		}
 	}
 
 	private static void signalDatabaseReady() {
@@ -180,7 +197,10 @@ public class Main {
 			EmbeddedJetty embeddedJetty = new EmbeddedJetty(null, "owlcms")
 			        .setStartLogger(logger)
 			        .setInitConfig(Main::initConfig)
-			        .setInitData(Main::initData);
+			        .setInitData(Main::initData)
+			        .setParallelInit(fastStartup)
+			        .addWarmUp("translations", () -> Translator.getKeys())
+			        .addWarmUp("local files", () -> ResourceWalker.initLocalDir());
 			Thread server = new Thread(() -> {
 				try {
 					embeddedJetty.run(serverPort, "/");
@@ -325,7 +345,6 @@ public class Main {
 
 				PlatformRepository.checkPlatforms();
 			}
-			RecordDefinitionReader.loadRecords();
 		} finally {
 			Translator.setForcedLocale(locale);
 		}
@@ -413,6 +432,10 @@ public class Main {
 		}
 
 		masters = StartupUtils.getBooleanParam("masters");
+
+		// start the web server while the database is opened
+		fastStartup = StartupUtils.getBooleanParam("fastStartup");
+		exitAfterStartup = StartupUtils.getBooleanParam("exitAfterStartup");
 	}
 
 	@SuppressWarnings("deprecation")
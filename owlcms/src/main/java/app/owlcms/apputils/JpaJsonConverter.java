@@ -22,6 +22,10 @@ public class JpaJsonConverter implements AttributeConverter<Object, String> {
 
 	@Override
 	public Object convertToEntityAttribute(String dbData) {
+		if (dbData == null) {
+			// column added to an existing table
+			return null;
+		}
 		try {
 			return om.readValue(dbData, Object.class);
 		} catch (IOException ex) {
@@ -214,7 +214,7 @@ public class AthleteTimerElement extends TimerElement {
 		        this.getOrigin(), e.getOrigin());
 		Integer milliseconds = e.getTimeRemaining();
 		uiEventLogger.debug(">>> start received {} {}", e, milliseconds);
-		doStartTimer(milliseconds, e.isServerSound());
+		doStartTimer(milliseconds, e.isServerSound(), e.getEnd());
 	}
 
 	@Subscribe
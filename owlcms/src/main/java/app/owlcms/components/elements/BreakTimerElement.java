@@ -189,7 +189,8 @@ public class BreakTimerElement extends TimerElement {
 		if (Boolean.TRUE.equals(e.getPaused())) {
 			doSetTimer(tr);
 		} else {
-			doStartTimer(tr, true); // true means "silent".
+			// true means "silent".
+			doStartTimer(tr, true, tr != null ? e.getServerTime() + tr : 0L);
 		}
 	}
 
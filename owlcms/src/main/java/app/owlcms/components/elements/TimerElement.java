@@ -30,11 +30,16 @@ import app.owlcms.init.OwlcmsSession;
 import app.owlcms.nui.lifting.UIEventProcessor;
 import app.owlcms.nui.shared.SafeEventBusRegistration;
 import app.owlcms.utils.LoggerUtils;
+import app.owlcms.utils.ServerClock;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 
 /**
  * Countdown timer element.
+ *
+ * A running timer is sent to the browser as a deadline on the {@link ServerClock} rather than as a duration. Each
+ * browser estimates the offset between its clock and the server clock (see {@link #clientClockPing()}), so all the
+ * displays reach zero at the same time regardless of how late the start message was delivered.
  */
 @SuppressWarnings({ "serial", "deprecation" })
 @Tag("timer-element")
@@ -65,6 +70,18 @@ public abstract class TimerElement extends LitTemplate
 	public TimerElement() {
 	}
 
+	/**
+	 * Clock synchronization. The browser notes the time before and after the call; the offset to the server clock is
+	 * estimated from the exchange with the shortest round trip, the error being at most half that round trip.
+	 *
+	 * @return the current time on the server clock
+	 */
+	@AllowInert
+	@ClientCallable
+	public double clientClockPing() {
+		return ServerClock.now();
+	}
+
 	@AllowInert
 	@ClientCallable
 	abstract public void clientFinalWarning(String fopName);
@@ -138,6 +155,15 @@ public abstract class TimerElement extends LitTemplate
 	}
 
 	protected void doStartTimer(Integer milliseconds, boolean serverSound) {
+		doStartTimer(milliseconds, serverSound, ServerClock.deadline(milliseconds));
+	}
+
+	/**
+	 * @param milliseconds time remaining when the timer was started, null if indefinite
+	 * @param serverSound
+	 * @param deadline     the instant the time is over, on the {@link ServerClock}
+	 */
+	protected void doStartTimer(Integer milliseconds, boolean serverSound, long deadline) {
 		this.logger.debug("====== {} doStartTimer {}", this.getClass().getSimpleName(), milliseconds);
 		setServerSound(serverSound);
 		// String trace = LoggerUtils.stackTrace();
@@ -150,7 +176,7 @@ public abstract class TimerElement extends LitTemplate
 				this.logger.debug("server starting timer {}, {}, {}", parent, milliseconds, this.lastStartMillis);
 			}
 			getElement().setProperty("silent", isSilent());
-			start(milliseconds, isIndefinite(), isSilent(), parent);
+			start(milliseconds, isIndefinite(), isSilent(), parent, deadline);
 			UI.getCurrent().push(); // should not be required...
 		});
 	}
@@ -251,7 +277,7 @@ public abstract class TimerElement extends LitTemplate
 		this.timerElement = timerElement;
 	}
 
-	protected void start(Integer milliseconds, Boolean indefinite, Boolean silent, String from) {
+	protected void start(Integer milliseconds, Boolean indefinite, Boolean silent, String from, long deadline) {
 		Element timerElement2 = getTimerElement();
 		if (timerElement2 != null && (indefinite || milliseconds != null)) {
 			double seconds = (indefinite) ? 0.0D : milliseconds / 1000.0D;
@@ -261,7 +287,7 @@ public abstract class TimerElement extends LitTemplate
 				}
 			}
 			timerElement2.callJsFunction("start", seconds, indefinite, silent, timerElement2,
-			        Long.toString(System.currentTimeMillis()), from);
+			        Long.toString(deadline), from);
 		}
 	}
 
@@ -28,7 +28,9 @@ import org.slf4j.LoggerFactory;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.athlete.AthleteRepository;
 import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.athleteSort.Leaderboard;
 import app.owlcms.data.category.Category;
+import app.owlcms.data.category.CategoryIndex;
 import app.owlcms.data.category.Participation;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.group.Group;
@@ -62,6 +64,7 @@ public class AgeGroupRepository {
 			}
 			return null;
 		});
+		CategoryIndex.invalidate();
 		return nAgeGroup;
 	}
 
@@ -272,6 +275,7 @@ public class AgeGroupRepository {
 			}
 			return null;
 		});
+		CategoryIndex.invalidate();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -429,6 +433,8 @@ public class AgeGroupRepository {
 			AgeGroupDefinitionReader.doInsertRobiAndAgeGroups(forcedInsertion, localizedName);
 		} catch (FileNotFoundException e1) {
 			// ignore
+		} finally {
+			CategoryIndex.invalidate();
 		}
 	}
 
@@ -438,18 +444,24 @@ public class AgeGroupRepository {
 			AgeGroupDefinitionReader.doInsertRobiAndAgeGroups(forcedInsertion, localizedName);
 		} catch (FileNotFoundException e1) {
 			throw new RuntimeException(e1);
+		} finally {
+			CategoryIndex.invalidate();
 		}
 	}
 
 	public static void reloadDefinitions(InputStream inputStream) {
 		cleanUpExisting();
 		AgeGroupDefinitionReader.doInsertRobiAndAgeGroups(inputStream);
+		// participations are recomputed using the new definitions
+		CategoryIndex.invalidate();
 		AthleteRepository.resetParticipations();
 	}
 
 	public static void reloadDefinitions(String localizedFileName) {
 		cleanUpExisting();
 		AgeGroupDefinitionReader.doInsertRobiAndAgeGroups(null, "/agegroups/" + localizedFileName);
+		// participations are recomputed using the new definitions
+		CategoryIndex.invalidate();
 		AthleteRepository.resetParticipations();
 	}
 
@@ -470,6 +482,7 @@ public class AgeGroupRepository {
 			}
 			return null;
 		});
+		CategoryIndex.invalidate();
 
 		return nAgeGroup;
 	}
@@ -590,6 +603,7 @@ public class AgeGroupRepository {
 			Competition.getCurrent().setRankingsInvalid(true);
 			return null;
 		});
+		Leaderboard.getCurrent().invalidate();
 		JPAService.runInTransaction(em -> {
 			try {
 				Query upd = em.createQuery("delete from Category");
@@ -615,11 +629,13 @@ public class AgeGroupRepository {
 			em.flush();
 			return null;
 		});
+		CategoryIndex.invalidate();
 	}
 
 	@SuppressWarnings("unchecked")
 	private static List<AgeGroup> doFindAll(EntityManager em) {
-		return em.createQuery("select c from AgeGroup c order by c.ageDivision,c.minAge,c.maxAge").getResultList();
+		return JPAService.cacheable(
+		        em.createQuery("select c from AgeGroup c order by c.ageDivision,c.minAge,c.maxAge")).getResultList();
 	}
 
 	private static String filteringSelection(String name, Gender gender, Championship championship, Integer age,
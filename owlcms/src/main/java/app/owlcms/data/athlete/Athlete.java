@@ -29,9 +29,11 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 
 import org.apache.commons.codec.binary.StringUtils;
@@ -66,8 +68,8 @@ import app.owlcms.data.scoring.QPoints;
 import app.owlcms.data.scoring.SinclairCoefficients;
 import app.owlcms.fieldofplay.FOPState;
 import app.owlcms.fieldofplay.FieldOfPlay;
+import app.owlcms.fieldofplay.LiftOrderHistory;
 import app.owlcms.fieldofplay.LiftOrderInfo;
-import app.owlcms.fieldofplay.LiftOrderReconstruction;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsSession;
 import app.owlcms.spreadsheet.JXLSWorkbookStreamSource;
@@ -103,8 +105,13 @@ import ch.qos.logback.classic.Logger;
  */
 
 // must be listed in app.owlcms.data.jpa.JPAService.entityClassNames()
+// changes on every lift, not kept in the second-level cache
+// indexes for the session queries (athletes of a group, weighed-in or not) and category lookups
 @Entity
-@Cacheable
+@Cacheable(false)
+@Table(indexes = {
+        @Index(name = "ix_athlete_group_bw", columnList = "fk_group,bodyWeight"),
+        @Index(name = "ix_athlete_categ", columnList = "fk_categ") })
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @JsonIgnoreProperties(ignoreUnknown = true, value = { "hibernateLazyInitializer", "logger" })
 @JsonPropertyOrder({ "id", "participations", "category" })
@@ -5121,7 +5128,7 @@ public class Athlete {
 			// program has just been started, or first athlete in group, or moving down to
 			// clock value
 			// compare with what the lifting order rules say.
-			LiftOrderReconstruction pastOrder = new LiftOrderReconstruction(getFop());
+			LiftOrderHistory pastOrder = getFop().getLiftOrderHistory();
 			LiftOrderInfo reference = null;
 
 			Athlete clockOwner = getFop().getClockOwner();
@@ -5129,10 +5136,8 @@ public class Athlete {
 				// if clock is running, reference becomes the clock owner instead of last
 				// good/bad lift.
 				reference = clockOwner.getRunningLiftOrderInfo();
-				pastOrder.shortDump("lastLift info clock running", getLogger());
 			} else {
 				reference = pastOrder.getLastLift();
-				pastOrder.shortDump("lastLift info no clock", getLogger());
 			}
 
 			if (reference != null) {
@@ -6,10 +6,13 @@
  *******************************************************************************/
 package app.owlcms.data.athlete;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -22,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import app.owlcms.data.agegroup.AgeGroup;
 import app.owlcms.data.agegroup.Championship;
 import app.owlcms.data.athleteSort.AthleteSorter;
+import app.owlcms.data.athleteSort.Leaderboard;
 import app.owlcms.data.category.Category;
 import app.owlcms.data.category.Participation;
 import app.owlcms.data.competition.Competition;
@@ -36,6 +40,11 @@ import ch.qos.logback.classic.Logger;
  */
 public class AthleteRepository {
 
+	/** bound on the size of "in" lists in queries */
+	private static final int IN_LIST_MAX = 500;
+	/** athletes with a participation in a category; public so that QueryPlanTest explains the same text */
+	public static final String ATHLETES_FOR_CATEGORY_QUERY = "select distinct a from Athlete a join a.participations p join p.category c where c.id = :catId";
+	private static final String CATEGORIES_FROM_CURRENT_GROUP_QUERY = "select distinct c2 from Athlete b join b.group g join b.participations p join p.category c2 where g.id = :groupId";
 	final private static Logger logger = (Logger) LoggerFactory.getLogger(AthleteRepository.class);
 	static {
 		logger.setLevel(Level.INFO);
@@ -43,11 +52,8 @@ public class AthleteRepository {
 
 	public static void assignCategoryRanks() {
 		JPAService.runInTransaction(em -> {
-			// assign ranks to all groups.
-			List<Athlete> l = AthleteSorter.assignCategoryRanks(null);
-			for (Athlete a : l) {
-				em.merge(a);
-			}
+			// assign ranks to all groups; the athletes are managed, only changed ranks are written.
+			AthleteSorter.assignCategoryRanks(em, null);
 			em.flush();
 			return null;
 		});
@@ -71,22 +77,95 @@ public class AthleteRepository {
 	 * @param athletes
 	 */
 	public static void assignStartNumbers(List<Athlete> athletes) {
+		List<Athlete> nList = AthleteSorter.registrationOrderCopy(athletes);
+		AthleteSorter.doAssignStartNumbers(nList);
+		Map<Long, Integer> startNumbers = new HashMap<>();
+		for (Athlete a : athletes) {
+			// defensive, not expected to happen.
+			Athlete realAthlete = a instanceof PAthlete ? ((PAthlete) a)._getAthlete() : a;
+			if (realAthlete.getId() != null) {
+				startNumbers.put(realAthlete.getId(), realAthlete.getStartNumber());
+			}
+		}
 		JPAService.runInTransaction((em) -> {
-			List<Athlete> nList = AthleteSorter.registrationOrderCopy(athletes);
-			AthleteSorter.doAssignStartNumbers(nList);
-			for (Athlete a : athletes) {
-				if (a instanceof PAthlete) {
-					// defensive, not expected to happen.
-					Athlete realAthlete = ((PAthlete) a)._getAthlete();
-					em.merge(realAthlete);
-				} else {
-					em.merge(a);
-				}
+			// load in one query and let the changed start numbers be written as a batch
+			for (Athlete a : findByIds(em, startNumbers.keySet())) {
+				a.setStartNumber(startNumbers.get(a.getId()));
 			}
 			return null;
 		});
 	}
 
+	/**
+	 * Clear the lifts of athletes, keeping the first snatch and clean&jerk declarations (same as
+	 * {@link Athlete#clearLifts()}), with update statements instead of loading the athletes.
+	 *
+	 * @param ids the athletes to clear, all athletes if null.
+	 * @return the number of athletes updated
+	 */
+	public static int clearLifts(Collection<Long> ids) {
+		List<String> assignments = new ArrayList<>();
+		for (String lift : List.of("snatch", "cleanJerk")) {
+			for (int i = 1; i <= 3; i++) {
+				String prefix = "a." + lift + i;
+				if (i > 1) {
+					assignments.add(prefix + "Declaration = ''");
+				}
+				assignments.add(prefix + "Change1 = ''");
+				assignments.add(prefix + "Change2 = ''");
+				assignments.add(prefix + "ActualLift = null");
+				assignments.add(prefix + "LiftTime = null");
+			}
+		}
+		String update = "update Athlete a set " + String.join(", ", assignments);
+		// lift results not yet written by write-behind must not come back over the cleared lifts
+		int count = AthleteWriteBehind.supersede(ids, () -> JPAService.runInTransaction(em -> {
+			if (ids == null) {
+				return em.createQuery(update).executeUpdate();
+			}
+			int n = 0;
+			for (List<Long> chunk : chunks(ids)) {
+				n += em.createQuery(update + " where a.id in :ids").setParameter("ids", chunk).executeUpdate();
+			}
+			return n;
+		}));
+		Competition.getCurrent().setRankingsInvalid(true);
+		Leaderboard.getCurrent().invalidate();
+		return count;
+	}
+
+	/**
+	 * Set the start numbers of a group to 0, with one update statement.
+	 *
+	 * @param group
+	 * @return the number of athletes updated
+	 */
+	public static int resetStartNumbers(Group group) {
+		return JPAService.runInTransaction(em -> em
+		        .createQuery("update Athlete a set a.startNumber = 0 where a.group = :group")
+		        .setParameter("group", group)
+		        .executeUpdate());
+	}
+
+	private static List<List<Long>> chunks(Collection<Long> ids) {
+		List<Long> all = new ArrayList<>(ids);
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int i = 0; i < all.size(); i += IN_LIST_MAX) {
+			chunks.add(all.subList(i, Math.min(all.size(), i + IN_LIST_MAX)));
+		}
+		return chunks;
+	}
+
+	private static List<Athlete> findByIds(EntityManager em, Collection<Long> ids) {
+		List<Athlete> athletes = new ArrayList<>();
+		for (List<Long> chunk : chunks(ids)) {
+			athletes.addAll(em.createQuery("select a from Athlete a where a.id in :ids", Athlete.class)
+			        .setParameter("ids", chunk)
+			        .getResultList());
+		}
+		return athletes;
+	}
+
 	/**
 	 * Count filtered.
 	 *
@@ -124,6 +203,8 @@ public class AthleteRepository {
 			Competition.getCurrent().setRankingsInvalid(true);
 			return null;
 		});
+		// after the commit, so that the leaderboard is not reloaded without the change
+		Leaderboard.getCurrent().invalidate();
 	}
 
 	public static Integer doCountFiltered(String lastName, Group group, Category category, AgeGroup ageGroup,
@@ -174,9 +255,7 @@ public class AthleteRepository {
 			group = null;
 		}
 		// REVIEW this does not appear to work with ageDivision/Championship
-		String qlString = "select a from Athlete a"
-		        + filteringSelection(lastName, group, category, ageGroup, ageDivision, gender, weighedIn, team)
-		        + " order by a.category";
+		String qlString = filteredQuery(lastName, group, category, ageGroup, ageDivision, gender, weighedIn, team);
 		// logger.trace("find query = {}", qlString);
 		Query query = em.createQuery(qlString);
 		setFilteringParameters(lastName, group, category, ageGroup, ageDivision, gender, team, query);
@@ -188,9 +267,22 @@ public class AthleteRepository {
 		}
 		@SuppressWarnings("unchecked")
 		List<Athlete> resultList = query.getResultList();
+		AthleteWriteBehind.overlay(resultList, em);
 		return resultList;
 	}
 
+	/**
+	 * The query run by {@link #doFindFiltered}. Public so that QueryPlanTest explains the same text.
+	 *
+	 * @return the JPQL; the parameters are those set by setFilteringParameters
+	 */
+	public static String filteredQuery(String lastName, Group group, Category category, AgeGroup ageGroup,
+	        Championship ageDivision, Gender gender, Boolean weighedIn, String team) {
+		return "select a from Athlete a"
+		        + filteringSelection(lastName, group, category, ageGroup, ageDivision, gender, weighedIn, team)
+		        + " order by a.category";
+	}
+
 	/**
 	 * @return the list of all athletes
 	 */
@@ -239,9 +331,7 @@ public class AthleteRepository {
 	 */
 	public static List<Athlete> findAthletesForCategory(Category c) {
 		return JPAService.runInTransaction((em) -> {
-			TypedQuery<Athlete> q = em.createQuery(
-			        "select distinct a from Athlete a join a.participations p join p.category c where c.id = :catId",
-			        Athlete.class);
+			TypedQuery<Athlete> q = em.createQuery(ATHLETES_FOR_CATEGORY_QUERY, Athlete.class);
 			q.setParameter("catId", c.getId());
 			return q.getResultList();
 		});
@@ -275,6 +365,26 @@ public class AthleteRepository {
 		});
 	}
 
+	/**
+	 * The query run by {@link #findAthletesForGlobalRanking(Group, boolean)}. Public so that QueryPlanTest explains the
+	 * same text.
+	 *
+	 * @param forGroup true if only the categories present in a group are wanted; the query then takes a groupId
+	 *                 parameter
+	 * @return the JPQL
+	 */
+	public static String globalRankingQuery(boolean forGroup) {
+		String onlyCategoriesFromCurrentGroup = "";
+		// only consider weighed-in athletes from the current session.
+		// once we have the categories from that query, we will find other athetes in other sessions, and
+		// we will use the onlyWeighedIn flag on that second result.
+		if (forGroup) {
+			onlyCategoriesFromCurrentGroup = " join p.category c where exists (" + CATEGORIES_FROM_CURRENT_GROUP_QUERY
+			        + " and c2.code = c.code and b.bodyWeight > 0.01)";
+		}
+		return "select distinct a, p from Athlete a join fetch a.participations p" + onlyCategoriesFromCurrentGroup;
+	}
+
 	public static Athlete findById(long id) {
 		return JPAService.runInTransaction(em -> {
 			return getById(id, em);
@@ -326,27 +436,42 @@ public class AthleteRepository {
 				// do not clear category, required if no body weight
 				// a.setCategory(null);
 				a.setEligibleCategories(null);
-				em.merge(a);
 			}
+			// managed athletes, changes are written in batches
 			em.flush();
 			Competition.getCurrent().setRankingsInvalid(true);
 			return null;
 		});
+		Leaderboard.getCurrent().invalidate();
 		// logger.debug("recomputing main cat");
 		JPAService.runInTransaction(em -> {
 			List<Athlete> athletes = AthleteRepository.doFindAll(em);
 			for (Athlete a : athletes) {
 				a.computeMainAndEligibleCategories();
 				a.getParticipations().stream().forEach(p -> p.setTeamMember(true));
-				em.merge(a);
 			}
 			em.flush();
 			Competition.getCurrent().setRankingsInvalid(true);
 			return null;
 		});
+		Leaderboard.getCurrent().invalidate();
 		assignCategoryRanks();
 	}
 
+	/**
+	 * Save an athlete after a decision, a weight change or a withdrawal. When write-behind is enabled, only the lift
+	 * results are saved, to the local journal, and the database is updated in the background.
+	 *
+	 * @param athlete
+	 */
+	public static void saveLiftResults(Athlete athlete) {
+		if (athlete != null && athlete.getId() != null && AthleteWriteBehind.isEnabled()) {
+			AthleteWriteBehind.save(athlete);
+		} else {
+			save(athlete);
+		}
+	}
+
 	/**
 	 * Save an athlete
 	 *
@@ -357,33 +482,26 @@ public class AthleteRepository {
 		if (athlete == null) {
 			return athlete;
 		}
-		return JPAService.runInTransaction((em) -> {
+		// the athlete as edited replaces the lift results not yet written by write-behind
+		Collection<Long> ids = athlete.getId() != null ? List.of(athlete.getId()) : List.of();
+		Athlete merged = AthleteWriteBehind.supersede(ids, () -> JPAService.runInTransaction((em) -> {
 			Competition.getCurrent().setRankingsInvalid(true);
-			Athlete merged = em.merge(athlete);
-			return merged;
-		});
+			return em.merge(athlete);
+		}));
+		// after the commit, so that the leaderboard is not reloaded without the change
+		Leaderboard.getCurrent().invalidate(athlete);
+		return merged;
 	}
 
 	private static List<Athlete> doFindAthletesForGlobalRanking(Group g, EntityManager em, boolean onlyWeighedIn) {
-		String onlyCategoriesFromCurrentGroup = "";
-		
-		// only consider weighed-in athletes from the current session.
-		// once we have the categories from that query, we will find other athetes in other sessions, and 
-		// we will use the onlyWeighedIn flag on that second result.
 		if (g != null) {
-			String categoriesFromCurrentGroup = "select distinct c2 from Athlete b join b.group g join b.participations p join p.category c2 where g.id = :groupId";
-			onlyCategoriesFromCurrentGroup = " join p.category c where exists (" + categoriesFromCurrentGroup
-			        + " and c2.code = c.code and b.bodyWeight > 0.01)";
-
 			 // following 4 lines are a trace, disable when confirmed.
-			 TypedQuery<Category> q2 = em.createQuery(categoriesFromCurrentGroup, Category.class);
+			 TypedQuery<Category> q2 = em.createQuery(CATEGORIES_FROM_CURRENT_GROUP_QUERY, Category.class);
 			 q2.setParameter("groupId", g.getId());
 			 List<Category> q2Results = q2.getResultList();
 			 logger.debug("categories for currentGroup {}",q2Results);
 		}
-		Query q = em.createQuery(
-		        "select distinct a, p from Athlete a join fetch a.participations p"
-		                + onlyCategoriesFromCurrentGroup);
+		Query q = em.createQuery(globalRankingQuery(g != null));
 		if (g != null) {
 			q.setParameter("groupId", g.getId());
 		}
@@ -401,6 +519,7 @@ public class AthleteRepository {
 			List<Athlete> r = q.getResultList();
 			resultList = r;
 		}
+		AthleteWriteBehind.overlay(resultList, em);
 		logger.debug("athletes in categories from group {} {}", g, resultList);
 		return resultList;
 	}
@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athlete;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.athleteSort.AthleteSorter;
+import app.owlcms.data.competition.Competition;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.group.Group;
+import app.owlcms.data.jpa.JPAService;
+import app.owlcms.monitors.Metrics;
+import app.owlcms.utils.LoggerUtils;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Optional write-behind persistence of lift results (feature switch "writeBehind").
+ *
+ * During a session, the athletes held by the field of play are authoritative. A decision or weight change appends the
+ * lift results to a local journal forced to disk, and returns; a background thread writes them to the database in
+ * batches, in the order received, and recomputes the stored ranks. Until the end of the session, the pending results
+ * are applied to the athletes read from the database, so rankings and results pages see the latest lifts.
+ *
+ * {@link #barrier()} waits until everything has been written; it is called when a session ends or another group is
+ * loaded. {@link #recover()} writes the entries left in the journal by a crash, at startup.
+ *
+ * Saving a whole athlete (registration, athlete card) or clearing lifts goes through {@link #supersede(Collection, Supplier)},
+ * so results journaled earlier for that athlete are dropped instead of overwriting the newer edit. A batch that cannot
+ * be written after a few attempts is written one athlete at a time; the results that still fail are logged and set
+ * aside in a separate file, so they do not block the lifts that follow.
+ *
+ * @author Jean-François Lamy
+ */
+public class AthleteWriteBehind {
+
+	private record Pending(long seq, LiftResults results) {
+	}
+
+	private static final long BARRIER_TIMEOUT_MS = 30000;
+	private static final String JOURNAL = "lifts.journal";
+	private static final int MAX_ATTEMPTS = 6;
+	private static final int MAX_BATCH = 100;
+	private static final String REJECTED = "lifts.rejected";
+	private static final long RETRY_DELAY_MS = 100;
+
+	private static long flushedSeq;
+	private static Thread flusher;
+	private static LiftJournal journal = new LiftJournal(Path.of("database", JOURNAL));
+	private static long lastSeq;
+	private static final Object lock = new Object();
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(AthleteWriteBehind.class);
+	/** latest lift results of each athlete changed during the session */
+	private static final Map<Long, Pending> overlay = new ConcurrentHashMap<>();
+	private static final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+	private static LiftJournal rejected = new LiftJournal(Path.of("database", REJECTED));
+	/** results journaled up to this sequence number are older than a save of the athlete */
+	private static final Map<Long, Long> superseded = new ConcurrentHashMap<>();
+	/** the thread writing a batch does not see the pending results */
+	private static final ThreadLocal<Boolean> writing = ThreadLocal.withInitial(() -> false);
+	/** held while a batch is written, and while an athlete is saved over its pending results */
+	private static final Object writeLock = new Object();
+
+	static {
+		logger.setLevel(Level.INFO);
+		Metrics.gauge("owlcms_writebehind_pending", "Lift results not yet written to the database",
+		        () -> queue.size());
+	}
+
+	/**
+	 * Wait until all the lift results saved so far are in the database, then stop overriding the database values.
+	 */
+	public static void barrier() {
+		long target;
+		synchronized (lock) {
+			target = lastSeq;
+			if (flushedSeq >= target) {
+				clearFlushed();
+				return;
+			}
+			long deadline = System.currentTimeMillis() + BARRIER_TIMEOUT_MS;
+			long start = System.currentTimeMillis();
+			while (flushedSeq < target) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					logger.warn("write-behind barrier timed out, {} lift results still pending", target - flushedSeq);
+					return;
+				}
+				try {
+					lock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			clearFlushed();
+			logger.info("write-behind barrier reached after {} ms", System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * @return true if lift results are written to the database in the background
+	 */
+	public static boolean isEnabled() {
+		return Config.getCurrent().featureSwitch("writeBehind");
+	}
+
+	/**
+	 * Apply the lift results saved during the session to athletes read from the database. The athletes that get results
+	 * are detached first, so the pending results are not flushed with the transaction of the caller; they are written
+	 * in order by the background thread.
+	 *
+	 * @param athletes athletes just read from the database
+	 * @param em       the entity manager that read them
+	 */
+	public static void overlay(List<Athlete> athletes, EntityManager em) {
+		if (overlay.isEmpty() || athletes == null || writing.get()) {
+			return;
+		}
+		for (Athlete a : athletes) {
+			Pending p = a.getId() != null ? overlay.get(a.getId()) : null;
+			if (p != null && !p.results().isAppliedTo(a)) {
+				if (em != null && em.contains(a)) {
+					em.detach(a);
+				}
+				p.results().applyTo(a);
+			}
+		}
+	}
+
+	/**
+	 * Write the lift results left in the journal by a previous run to the database. Called at startup, whether or not
+	 * write-behind is enabled.
+	 */
+	public static void recover() {
+		List<LiftJournal.Entry> entries;
+		try {
+			entries = journal.readAll();
+		} catch (IOException e) {
+			logger.error("cannot read lift journal {}: {}", journal.getPath(), e.toString());
+			return;
+		}
+		if (entries.isEmpty()) {
+			return;
+		}
+		Map<Long, LiftResults> latest = new LinkedHashMap<>();
+		for (LiftJournal.Entry e : entries) {
+			latest.remove(e.results().id());
+			latest.put(e.results().id(), e.results());
+		}
+		List<Pending> recovered = new ArrayList<>();
+		synchronized (lock) {
+			for (LiftResults r : latest.values()) {
+				recovered.add(new Pending(++lastSeq, r));
+			}
+		}
+		if (!write(recovered)) {
+			// keep the journal, the background thread retries.
+			logger.warn("cannot write the {} lift results recovered from {}, retrying in the background",
+			        recovered.size(), journal.getPath());
+			synchronized (lock) {
+				for (Pending p : recovered) {
+					if (!p.results().fields().isEmpty()) {
+						overlay.put(p.results().id(), p);
+					}
+					queue.add(p);
+				}
+				startFlusher();
+			}
+			return;
+		}
+		synchronized (lock) {
+			flushedSeq = recovered.get(recovered.size() - 1).seq();
+			try {
+				journal.truncateIfUpTo(flushedSeq);
+			} catch (IOException e) {
+				logger.error("cannot empty lift journal {}: {}", journal.getPath(), e.toString());
+			}
+		}
+		logger.info("recovered {} lift results for {} athletes from {}", entries.size(), latest.size(),
+		        journal.getPath());
+	}
+
+	/**
+	 * Journal the lift results of the athlete and queue them for writing. Returns once the journal is on disk.
+	 *
+	 * @param a the athlete
+	 */
+	public static void save(Athlete a) {
+		LiftResults results = LiftResults.of(a);
+		synchronized (lock) {
+			long seq = ++lastSeq;
+			try {
+				journal.append(seq, results);
+			} catch (IOException e) {
+				// still written to the database, only the crash protection is lost.
+				logger.error("cannot append to lift journal {}: {}", journal.getPath(), e.toString());
+			}
+			Pending p = new Pending(seq, results);
+			overlay.put(results.id(), p);
+			queue.add(p);
+			startFlusher();
+		}
+		Competition.getCurrent().setRankingsInvalid(true);
+	}
+
+	/**
+	 * Keep the journal files in another directory. Used by tests.
+	 *
+	 * @param dir the directory
+	 */
+	public static void setJournalDirectory(Path dir) {
+		synchronized (lock) {
+			journal.close();
+			rejected.close();
+			journal = new LiftJournal(dir.resolve(JOURNAL));
+			rejected = new LiftJournal(dir.resolve(REJECTED));
+		}
+	}
+
+	/**
+	 * Save athletes over the lift results still pending for them. The pending results are dropped, in memory and in
+	 * the journal, so neither the background thread nor a recovery after a crash overwrites the save.
+	 *
+	 * @param <T>  the result of the save
+	 * @param ids  the athletes saved, null for all athletes
+	 * @param save the database update
+	 * @return the result of the save
+	 */
+	public static <T> T supersede(Collection<Long> ids, Supplier<T> save) {
+		if (overlay.isEmpty()) {
+			return save.get();
+		}
+		List<Long> pendingIds = new ArrayList<>(overlay.keySet());
+		if (ids != null) {
+			pendingIds.retainAll(ids);
+		}
+		if (pendingIds.isEmpty()) {
+			return save.get();
+		}
+		synchronized (writeLock) {
+			synchronized (lock) {
+				for (Long athleteId : pendingIds) {
+					long seq = ++lastSeq;
+					LiftResults none = new LiftResults(athleteId, Map.of());
+					try {
+						// replaces the earlier entries if the journal is read after a crash
+						journal.append(seq, none);
+					} catch (IOException e) {
+						logger.error("cannot append to lift journal {}: {}", journal.getPath(), e.toString());
+					}
+					superseded.put(athleteId, seq);
+					overlay.remove(athleteId);
+					queue.add(new Pending(seq, none));
+				}
+				startFlusher();
+			}
+			return save.get();
+		}
+	}
+
+	private static void clearFlushed() {
+		overlay.values().removeIf(p -> p.seq() <= flushedSeq);
+		superseded.values().removeIf(seq -> seq <= flushedSeq);
+	}
+
+	private static void flushLoop() {
+		List<Pending> batch = new ArrayList<>();
+		while (true) {
+			try {
+				batch.add(queue.take());
+				queue.drainTo(batch, MAX_BATCH - 1);
+			} catch (InterruptedException e) {
+				return;
+			}
+			// keep the latest results of each athlete, in order.
+			Map<Long, Pending> latest = new LinkedHashMap<>();
+			for (Pending p : batch) {
+				latest.remove(p.results().id());
+				latest.put(p.results().id(), p);
+			}
+			long batchSeq = batch.get(batch.size() - 1).seq();
+			List<Pending> toWrite = new ArrayList<>(latest.values());
+
+			try {
+				if (!writeWithRetries(toWrite)) {
+					// something in the batch cannot be written: do one athlete at a time.
+					for (Pending p : toWrite) {
+						if (!write(List.of(p))) {
+							setAside(p);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			synchronized (lock) {
+				flushedSeq = batchSeq;
+				try {
+					journal.truncateIfUpTo(batchSeq);
+				} catch (IOException e) {
+					logger.error("cannot empty lift journal {}: {}", journal.getPath(), e.toString());
+				}
+				lock.notifyAll();
+			}
+			batch.clear();
+		}
+	}
+
+	private static void setAside(Pending p) {
+		logger.error("lift results for athlete {} could not be written to the database, set aside in {}: {}",
+		        p.results().id(), rejected.getPath(), p.results().fields());
+		try {
+			rejected.append(p.seq(), p.results());
+		} catch (IOException e) {
+			logger.error("cannot append to {}: {}", rejected.getPath(), e.toString());
+		}
+	}
+
+	private static void startFlusher() {
+		if (flusher == null) {
+			flusher = new Thread(AthleteWriteBehind::flushLoop, "writeBehind");
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+	}
+
+	/**
+	 * Write lift results and recompute the stored ranks of the categories involved, in one transaction. Results older
+	 * than a save of the athlete are skipped.
+	 *
+	 * @return true if committed
+	 */
+	private static boolean write(List<Pending> pending) {
+		long start = System.nanoTime();
+		synchronized (writeLock) {
+			List<LiftResults> results = new ArrayList<>();
+			for (Pending p : pending) {
+				if (!p.results().fields().isEmpty() && p.seq() > superseded.getOrDefault(p.results().id(), 0L)) {
+					results.add(p.results());
+				}
+			}
+			if (results.isEmpty()) {
+				return true;
+			}
+			writing.set(true);
+			try {
+				JPAService.runInTransaction(em -> {
+					Set<Group> groups = new LinkedHashSet<>();
+					for (LiftResults r : results) {
+						Athlete a = em.find(Athlete.class, r.id());
+						if (a == null) {
+							logger.warn("athlete {} no longer exists, lift results ignored", r.id());
+							continue;
+						}
+						r.applyTo(a);
+						if (a.getGroup() != null) {
+							groups.add(a.getGroup());
+						}
+					}
+					rank(em, groups);
+					return null;
+				});
+				Metrics.timer("owlcms_writebehind_batch_seconds", "Time to write a batch of lift results").stop(start);
+				logger.debug("wrote {} lift results in {} ms", results.size(),
+				        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				return true;
+			} catch (Exception e) {
+				logger.error("cannot write lift results {}", LoggerUtils.stackTrace(e));
+				return false;
+			} finally {
+				writing.set(false);
+			}
+		}
+	}
+
+	/**
+	 * @return false if the batch could not be written after {@link #MAX_ATTEMPTS} attempts
+	 * @throws InterruptedException
+	 */
+	private static boolean writeWithRetries(List<Pending> pending) throws InterruptedException {
+		long delay = RETRY_DELAY_MS;
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			if (write(pending)) {
+				return true;
+			}
+			if (attempt < MAX_ATTEMPTS) {
+				logger.warn("writing {} lift results failed (attempt {}/{}), retrying in {} ms", pending.size(), attempt,
+				        MAX_ATTEMPTS, delay);
+				Thread.sleep(delay);
+				delay *= 2;
+			}
+		}
+		return false;
+	}
+
+	private static void rank(EntityManager em, Set<Group> groups) {
+		for (Group g : groups) {
+			AthleteSorter.assignCategoryRanks(em, g);
+		}
+		if (!groups.isEmpty() && Competition.getCurrent().isDisplayScoreRanks()) {
+			Competition.getCurrent().scoringSystemRankings(em);
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athlete;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Append-only file of lift results not yet written to the database.
+ *
+ * Each entry is one line of JSON with a sequence number. The file is forced to disk after each append, so an entry
+ * survives a crash as soon as {@link #append(long, LiftResults)} returns. A line cut short by a crash is ignored when
+ * reading. The file is emptied once everything it contains has been written to the database.
+ *
+ * @author Jean-François Lamy
+ */
+public class LiftJournal {
+
+	public record Entry(long seq, LiftResults results) {
+	}
+
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(LiftJournal.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private FileChannel channel;
+	private long lastAppended;
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final Path path;
+
+	public LiftJournal(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Append an entry and force it to disk.
+	 *
+	 * @param seq     sequence number, increasing
+	 * @param results the lift results
+	 * @throws IOException
+	 */
+	public synchronized void append(long seq, LiftResults results) throws IOException {
+		Map<String, Object> line = new LinkedHashMap<>();
+		line.put("seq", seq);
+		line.put("id", results.id());
+		line.put("fields", results.fields());
+		byte[] bytes = (this.mapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+		FileChannel c = channel();
+		ByteBuffer buf = ByteBuffer.wrap(bytes);
+		while (buf.hasRemaining()) {
+			c.write(buf);
+		}
+		c.force(false);
+		this.lastAppended = seq;
+	}
+
+	/**
+	 * Close the file.
+	 */
+	public synchronized void close() {
+		if (this.channel != null) {
+			try {
+				this.channel.close();
+			} catch (IOException e) {
+				// ignored
+			}
+			this.channel = null;
+		}
+	}
+
+	/**
+	 * @return the path of the journal file
+	 */
+	public Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * @return the entries in the file, in order; empty if there is no file.
+	 * @throws IOException
+	 */
+	public synchronized List<Entry> readAll() throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		if (!Files.exists(this.path)) {
+			return entries;
+		}
+		for (String line : Files.readAllLines(this.path, StandardCharsets.UTF_8)) {
+			if (line.isBlank()) {
+				continue;
+			}
+			try {
+				Map<String, Object> m = this.mapper.readValue(line, new TypeReference<Map<String, Object>>() {
+				});
+				@SuppressWarnings("unchecked")
+				Map<String, String> fields = (Map<String, String>) m.get("fields");
+				entries.add(new Entry(((Number) m.get("seq")).longValue(),
+				        new LiftResults(((Number) m.get("id")).longValue(), fields)));
+			} catch (Exception e) {
+				// last line cut short by a crash
+				logger.warn("ignoring unreadable journal entry {}", line);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Empty the file if nothing was appended after the given entry.
+	 *
+	 * @param seq the last entry written to the database
+	 * @return true if the file was emptied
+	 * @throws IOException
+	 */
+	public synchronized boolean truncateIfUpTo(long seq) throws IOException {
+		if (seq < this.lastAppended) {
+			return false;
+		}
+		truncate();
+		return true;
+	}
+
+	/**
+	 * Empty the file.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void truncate() throws IOException {
+		if (this.channel == null && !Files.exists(this.path)) {
+			return;
+		}
+		FileChannel c = channel();
+		c.truncate(0);
+		c.force(true);
+	}
+
+	private FileChannel channel() throws IOException {
+		if (this.channel == null) {
+			Path parent = this.path.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			        StandardOpenOption.APPEND);
+		}
+		return this.channel;
+	}
+
+}
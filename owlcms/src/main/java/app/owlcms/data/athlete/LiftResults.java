@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athlete;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * The fields of an athlete that change during a session: declarations, changes, actual lifts and lift times for the
+ * six attempts, and the forced-as-current flag.
+ *
+ * A copy is taken when the athlete is saved, so it can be written to the journal and to the database later without
+ * sharing the athlete object with the field of play.
+ *
+ * @author Jean-François Lamy
+ */
+public record LiftResults(long id, Map<String, String> fields) {
+
+	private record Attribute(Function<Athlete, String> getter, BiConsumer<Athlete, String> setter) {
+	}
+
+	private static final Map<String, Attribute> ATTRIBUTES = new LinkedHashMap<>();
+
+	static {
+		attr("snatch1Declaration", Athlete::getSnatch1Declaration, Athlete::setSnatch1Declaration);
+		attr("snatch1Change1", Athlete::getSnatch1Change1, Athlete::setSnatch1Change1);
+		attr("snatch1Change2", Athlete::getSnatch1Change2, Athlete::setSnatch1Change2);
+		attr("snatch1ActualLift", Athlete::getSnatch1ActualLift, Athlete::setSnatch1ActualLift);
+		time("snatch1LiftTime", Athlete::getSnatch1LiftTime, Athlete::setSnatch1LiftTime);
+		attr("snatch2Declaration", Athlete::getSnatch2Declaration, Athlete::setSnatch2Declaration);
+		attr("snatch2Change1", Athlete::getSnatch2Change1, Athlete::setSnatch2Change1);
+		attr("snatch2Change2", Athlete::getSnatch2Change2, Athlete::setSnatch2Change2);
+		attr("snatch2ActualLift", Athlete::getSnatch2ActualLift, Athlete::setSnatch2ActualLift);
+		time("snatch2LiftTime", Athlete::getSnatch2LiftTime, Athlete::setSnatch2LiftTime);
+		attr("snatch3Declaration", Athlete::getSnatch3Declaration, Athlete::setSnatch3Declaration);
+		attr("snatch3Change1", Athlete::getSnatch3Change1, Athlete::setSnatch3Change1);
+		attr("snatch3Change2", Athlete::getSnatch3Change2, Athlete::setSnatch3Change2);
+		attr("snatch3ActualLift", Athlete::getSnatch3ActualLift, Athlete::setSnatch3ActualLift);
+		time("snatch3LiftTime", Athlete::getSnatch3LiftTime, Athlete::setSnatch3LiftTime);
+		attr("cleanJerk1Declaration", Athlete::getCleanJerk1Declaration, Athlete::setCleanJerk1Declaration);
+		attr("cleanJerk1Change1", Athlete::getCleanJerk1Change1, Athlete::setCleanJerk1Change1);
+		attr("cleanJerk1Change2", Athlete::getCleanJerk1Change2, Athlete::setCleanJerk1Change2);
+		attr("cleanJerk1ActualLift", Athlete::getCleanJerk1ActualLift, Athlete::setCleanJerk1ActualLift);
+		time("cleanJerk1LiftTime", Athlete::getCleanJerk1LiftTime, Athlete::setCleanJerk1LiftTime);
+		attr("cleanJerk2Declaration", Athlete::getCleanJerk2Declaration, Athlete::setCleanJerk2Declaration);
+		attr("cleanJerk2Change1", Athlete::getCleanJerk2Change1, Athlete::setCleanJerk2Change1);
+		attr("cleanJerk2Change2", Athlete::getCleanJerk2Change2, Athlete::setCleanJerk2Change2);
+		attr("cleanJerk2ActualLift", Athlete::getCleanJerk2ActualLift, Athlete::setCleanJerk2ActualLift);
+		time("cleanJerk2LiftTime", Athlete::getCleanJerk2LiftTime, Athlete::setCleanJerk2LiftTime);
+		attr("cleanJerk3Declaration", Athlete::getCleanJerk3Declaration, Athlete::setCleanJerk3Declaration);
+		attr("cleanJerk3Change1", Athlete::getCleanJerk3Change1, Athlete::setCleanJerk3Change1);
+		attr("cleanJerk3Change2", Athlete::getCleanJerk3Change2, Athlete::setCleanJerk3Change2);
+		attr("cleanJerk3ActualLift", Athlete::getCleanJerk3ActualLift, Athlete::setCleanJerk3ActualLift);
+		time("cleanJerk3LiftTime", Athlete::getCleanJerk3LiftTime, Athlete::setCleanJerk3LiftTime);
+		attr("forcedAsCurrent", (a) -> Boolean.toString(a.isForcedAsCurrent()),
+		        (a, v) -> a.setForcedAsCurrent(Boolean.parseBoolean(v)));
+	}
+
+	/**
+	 * @param a the athlete
+	 * @return a copy of the lift results
+	 */
+	public static LiftResults of(Athlete a) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (Entry<String, Attribute> e : ATTRIBUTES.entrySet()) {
+			fields.put(e.getKey(), e.getValue().getter().apply(a));
+		}
+		return new LiftResults(a.getId(), Collections.unmodifiableMap(fields));
+	}
+
+	private static void attr(String name, Function<Athlete, String> getter, BiConsumer<Athlete, String> setter) {
+		ATTRIBUTES.put(name, new Attribute(getter, setter));
+	}
+
+	private static void time(String name, Function<Athlete, LocalDateTime> getter,
+	        BiConsumer<Athlete, LocalDateTime> setter) {
+		attr(name, (a) -> {
+			LocalDateTime t = getter.apply(a);
+			return t != null ? t.toString() : null;
+		}, (a, v) -> setter.accept(a, v != null ? LocalDateTime.parse(v) : null));
+	}
+
+	/**
+	 * Copy the lift results to an athlete (normally one loaded from the database). Validations are skipped, the values
+	 * were validated when first entered.
+	 *
+	 * @param a the athlete to update
+	 */
+	public void applyTo(Athlete a) {
+		boolean validation = a.isValidation();
+		Level prevLevel = a.getLogger().getLevel();
+		try {
+			a.setValidation(false);
+			a.setLoggerLevel(Level.OFF);
+			for (Entry<String, String> e : this.fields.entrySet()) {
+				Attribute attribute = ATTRIBUTES.get(e.getKey());
+				if (attribute != null) {
+					attribute.setter().accept(a, e.getValue());
+				}
+			}
+		} finally {
+			a.setValidation(validation);
+			a.setLoggerLevel(prevLevel);
+		}
+	}
+
+	/**
+	 * @param a an athlete
+	 * @return true if the athlete already has these lift results
+	 */
+	public boolean isAppliedTo(Athlete a) {
+		return of(a).fields().equals(this.fields);
+	}
+
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athleteSort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.agegroup.AgeGroupRepository;
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.competition.Competition;
+import app.owlcms.fieldofplay.FieldOfPlay;
+import app.owlcms.init.OwlcmsFactory;
+import app.owlcms.spreadsheet.PAthlete;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Best scores of the competition, for the scoring system of the competition, by gender.
+ *
+ * Loaded from the database on first use, then updated from the athletes of the sessions being lifted each time a
+ * platform recomputes its lifting order, so the top displays read the top athletes without recomputing the global
+ * rankings. Saving an athlete that is not in a session on a platform reloads on next use.
+ *
+ * @author Jean-François Lamy
+ */
+public class Leaderboard {
+
+	private record Entry(Long id, Gender gender, double score, Athlete athlete) {
+	}
+
+	private static final Leaderboard current = new Leaderboard();
+	private static final Comparator<Entry> bestFirst = Comparator.comparingDouble(Entry::score).reversed()
+	        .thenComparing(Entry::id);
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(Leaderboard.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * @return the leaderboard of the current competition
+	 */
+	public static Leaderboard getCurrent() {
+		return current;
+	}
+
+	private final Map<Long, Entry> entryById = new HashMap<>();
+	private final Map<Gender, TreeSet<Entry>> entriesByGender = new EnumMap<>(Gender.class);
+	private Competition loadedCompetition;
+	private Ranking loadedScoringSystem;
+
+	private Leaderboard() {
+	}
+
+	/**
+	 * Reload on next use.
+	 */
+	public synchronized void invalidate() {
+		this.loadedCompetition = null;
+	}
+
+	/**
+	 * Reload on next use, unless the athlete is in a session on a platform; such athletes are updated when the lifting
+	 * order is recomputed.
+	 *
+	 * @param a the athlete being saved
+	 */
+	public void invalidate(Athlete a) {
+		if (a == null || a.getGroup() == null) {
+			invalidate();
+			return;
+		}
+		for (FieldOfPlay fop : OwlcmsFactory.getFOPs()) {
+			if (a.getGroup().equals(fop.getGroup())) {
+				return;
+			}
+		}
+		invalidate();
+	}
+
+	/**
+	 * @param gender     the gender
+	 * @param nbAthletes the maximum number of athletes
+	 * @return the best score and the athletes with the best scores, best first
+	 */
+	public synchronized AthleteSorter.TopScore topScore(Gender gender, int nbAthletes) {
+		checkLoaded();
+		TreeSet<Entry> entries = this.entriesByGender.get(gender);
+		if (entries == null || entries.isEmpty()) {
+			return new AthleteSorter.TopScore(0.0D, List.of());
+		}
+		List<Athlete> top = new ArrayList<>(nbAthletes);
+		for (Entry e : entries) {
+			if (top.size() >= nbAthletes) {
+				break;
+			}
+			top.add(e.athlete());
+		}
+		return new AthleteSorter.TopScore(entries.first().score(), top);
+	}
+
+	/**
+	 * Replace the athletes whose score changed.
+	 *
+	 * @param athletes the athletes of a session
+	 */
+	public synchronized void update(Collection<Athlete> athletes) {
+		if (!isLoaded() || athletes == null) {
+			// everything will be read on next use
+			return;
+		}
+		int changed = 0;
+		for (Athlete a : athletes) {
+			if (put(a)) {
+				changed++;
+			}
+		}
+		logger.trace("leaderboard updated, {} changed", changed);
+	}
+
+	private void checkLoaded() {
+		if (isLoaded()) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		Competition competition = Competition.getCurrent();
+		this.entryById.clear();
+		this.entriesByGender.clear();
+		this.loadedCompetition = competition;
+		this.loadedScoringSystem = competition.getScoringSystem();
+		for (Athlete a : AgeGroupRepository.allWeighedInPAthletesForAgeGroupAgeDivision(null, null)) {
+			put(a);
+		}
+		logger.debug("leaderboard loaded, {} athletes {}ms", this.entryById.size(),
+		        System.currentTimeMillis() - start);
+	}
+
+	private boolean isLoaded() {
+		Competition competition = Competition.getCurrent();
+		return this.loadedCompetition != null && this.loadedCompetition == competition
+		        && this.loadedScoringSystem == competition.getScoringSystem();
+	}
+
+	/**
+	 * @return true if the entry for the athlete changed
+	 */
+	private boolean put(Athlete a) {
+		if (a instanceof PAthlete) {
+			// same athlete in several age groups
+			a = ((PAthlete) a)._getAthlete();
+		}
+		Entry old = this.entryById.get(a.getId());
+		double score = Ranking.getRankingValue(a, this.loadedScoringSystem);
+		boolean ranked = score > 0 && a.getGender() != null && a.getGroup() != null
+		        && a.getBodyWeight() != null && a.getBodyWeight() > 0.1;
+		Entry e = ranked ? new Entry(a.getId(), a.getGender(), score, a) : null;
+		if (old != null) {
+			this.entriesByGender.get(old.gender()).remove(old);
+			this.entryById.remove(a.getId());
+		}
+		if (e != null) {
+			this.entriesByGender.computeIfAbsent(e.gender(), g -> new TreeSet<>(bestFirst)).add(e);
+			this.entryById.put(e.id(), e);
+		}
+		if (old != null && e != null) {
+			// same place if the score did not change; the entry holds the current copy of the athlete
+			return old.score() != e.score() || old.gender() != e.gender();
+		}
+		return old != null || ranked;
+	}
+
+}
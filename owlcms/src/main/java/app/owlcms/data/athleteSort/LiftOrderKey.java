@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athleteSort;
+
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.competition.Competition;
+
+/**
+ * Position of an athlete in the lifting order, packed in two longs. Comparing keys gives the same order as
+ * {@link LiftOrderComparator}; the index (position in the list being ordered) breaks the remaining ties, as a stable
+ * sort would.
+ *
+ * The first long has, from the most significant bits: forced as current, done lifting, descending total (done
+ * athletes only), lift type, attempts done (round-robin), gender (gender order), lot number (fixed order), requested
+ * weight, attempts done. The second long has the weights of the earlier attempts that decide who lifted first at the
+ * same weight, then the start number.
+ *
+ * @author Jean-François Lamy
+ */
+public record LiftOrderKey(long order, long progression, int index) implements Comparable<LiftOrderKey> {
+
+	private static final int MAX12 = (1 << 12) - 1;
+	private static final int MAX16 = (1 << 16) - 1;
+	private static final int NO_WEIGHT = 999;
+
+	/**
+	 * @param a     an athlete
+	 * @param index position of the athlete in the list being ordered
+	 * @param comp  the competition, for the order options
+	 * @return the key for the weight requested by the athlete
+	 */
+	public static LiftOrderKey of(Athlete a, int index, Competition comp) {
+		return of(a, a.getNextAttemptRequestedWeight(), index, comp);
+	}
+
+	/**
+	 * @param a               an athlete
+	 * @param requestedWeight the weight for the next attempt, possibly different from the one requested
+	 * @param index           position of the athlete in the list being ordered
+	 * @param comp            the competition, for the order options
+	 * @return the key
+	 */
+	public static LiftOrderKey of(Athlete a, Integer requestedWeight, int index, Competition comp) {
+		int attemptsDone = a.getAttemptsDone();
+		boolean done = attemptsDone >= 6;
+		boolean roundRobin = comp.isRoundRobinOrder();
+
+		long order = a.isForcedAsCurrent() ? 0 : 1;
+		order = (order << 1) | (done ? 1 : 0);
+		order = (order << 12) | (done ? MAX12 - clamp(a.getTotal(), MAX12) : 0);
+		order = (order << 1) | (attemptsDone < 3 ? 0 : 1);
+		order = (order << 3) | (roundRobin ? attemptsDone : 0);
+		order = (order << 2) | (comp.isGenderOrder() ? gender(a.getGender()) : 0);
+		order = (order << 12) | (comp.isFixedOrder() ? nullFirst(a.getLotNumber(), MAX12) : 0);
+		order = (order << 12) | weight(requestedWeight);
+		order = (order << 3) | (roundRobin ? 0 : attemptsDone);
+
+		// same weight and same attempt: smaller previous attempts were lifted first
+		int currentTry = attemptsDone + 1;
+		int first = 0;
+		int second = 0;
+		if (currentTry > 3) {
+			if (currentTry == 6) {
+				first = lifted(a.getCleanJerk2ActualLift());
+				second = lifted(a.getCleanJerk1ActualLift());
+			} else if (currentTry >= 5) {
+				first = lifted(a.getCleanJerk1ActualLift());
+			}
+		} else {
+			if (currentTry == 3) {
+				first = lifted(a.getSnatch2ActualLift());
+				second = lifted(a.getSnatch1ActualLift());
+			} else if (currentTry >= 2) {
+				first = lifted(a.getSnatch1ActualLift());
+			}
+		}
+		long progression = first;
+		progression = (progression << 12) | second;
+		progression = (progression << 16) | nullFirst(a.getStartNumber(), MAX16);
+
+		return new LiftOrderKey(order, progression, index);
+	}
+
+	private static int clamp(Integer value, int max) {
+		return value == null ? 0 : Math.max(0, Math.min(value, max));
+	}
+
+	private static int gender(Gender g) {
+		// null comes last
+		return g == null ? 3 : g.ordinal();
+	}
+
+	private static int lifted(String actualLift) {
+		return Math.min(Math.abs(Athlete.zeroIfInvalid(actualLift)), MAX12);
+	}
+
+	private static int nullFirst(Integer value, int max) {
+		return value == null ? 0 : clamp(value + 1, max);
+	}
+
+	private static int weight(Integer requestedWeight) {
+		// athletes without a declared weight come last
+		return requestedWeight == null || requestedWeight == 0 ? NO_WEIGHT : clamp(requestedWeight, MAX12);
+	}
+
+	@Override
+	public int compareTo(LiftOrderKey o) {
+		int compare = Long.compare(this.order, o.order);
+		if (compare != 0) {
+			return compare;
+		}
+		compare = Long.compare(this.progression, o.progression);
+		if (compare != 0) {
+			return compare;
+		}
+		return Integer.compare(this.index, o.index);
+	}
+
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.athleteSort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.competition.Competition;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Lifting order of a session, kept sorted on {@link LiftOrderKey}.
+ *
+ * When the athletes are updated, only those whose key has changed are moved. The order can be queried for a weight
+ * that an athlete has not requested yet (what position the athlete would have, who would lift next) without changing
+ * the athlete or the database.
+ *
+ * @author Jean-François Lamy
+ */
+public class LiftingOrderProjection {
+
+	/**
+	 * Outcome of a proposed weight.
+	 *
+	 * @param position   0 if the athlete would lift next
+	 * @param next       the athlete who would lift next
+	 * @param twoMinutes true if the athlete who would lift next is the one who lifted last, and gets two minutes
+	 *                   unless the clock was started for someone else
+	 */
+	public record Projection(int position, Athlete next, boolean twoMinutes) {
+	}
+
+	private record Entry(LiftOrderKey key, Athlete athlete) {
+	}
+
+	private static final Comparator<Entry> byKey = Comparator.comparing(Entry::key);
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(LiftingOrderProjection.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private final List<Entry> order = new ArrayList<>();
+	private final Map<Long, LiftOrderKey> keyById = new HashMap<>();
+
+	/**
+	 * @return the current lifting order
+	 */
+	public synchronized List<Athlete> getLiftingOrder() {
+		List<Athlete> l = new ArrayList<>(this.order.size());
+		for (Entry e : this.order) {
+			l.add(e.athlete());
+		}
+		return l;
+	}
+
+	/**
+	 * Where the athlete would be if the next attempt was at another weight.
+	 *
+	 * @param athleteId       an athlete of the session
+	 * @param weight          proposed weight for the next attempt
+	 * @param previousAthlete the athlete who lifted last, null if none
+	 * @return the projection, null if the athlete is not in the session
+	 */
+	public synchronized Projection project(Long athleteId, int weight, Athlete previousAthlete) {
+		LiftOrderKey current = this.keyById.get(athleteId);
+		if (current == null) {
+			return null;
+		}
+		int currentPos = indexOf(current, athleteId);
+		Athlete athlete = this.order.get(currentPos).athlete();
+		LiftOrderKey proposed = LiftOrderKey.of(athlete, weight, current.index(), Competition.getCurrent());
+
+		int position = insertionPoint(proposed);
+		if (currentPos < position) {
+			// the athlete is no longer before that point
+			position--;
+		}
+		Athlete next;
+		if (position == 0) {
+			next = athlete;
+		} else {
+			next = this.order.get(currentPos == 0 ? 1 : 0).athlete();
+		}
+		boolean twoMinutes = previousAthlete != null && next.getId().equals(previousAthlete.getId())
+		        && next.getAttemptNumber() != 1;
+		return new Projection(position, next, twoMinutes);
+	}
+
+	/**
+	 * Bring the order up to date. Sets the lift order rank of the athletes.
+	 *
+	 * @param athletes the athletes of the session; at equal keys, this order is kept
+	 * @return the lifting order
+	 */
+	public synchronized List<Athlete> update(List<Athlete> athletes) {
+		Competition comp = Competition.getCurrent();
+		Set<Long> present = new HashSet<>();
+		int moved = 0;
+		int index = 0;
+		for (Athlete a : athletes) {
+			LiftOrderKey key = LiftOrderKey.of(a, index++, comp);
+			present.add(a.getId());
+			LiftOrderKey old = this.keyById.put(a.getId(), key);
+			if (old != null) {
+				int i = indexOf(old, a.getId());
+				if (old.equals(key)) {
+					// same place, newer copy of the athlete
+					this.order.set(i, new Entry(key, a));
+					continue;
+				}
+				this.order.remove(i);
+			}
+			this.order.add(insertionPoint(key), new Entry(key, a));
+			moved++;
+		}
+		if (this.keyById.size() > present.size()) {
+			// athletes no longer in the session
+			this.keyById.keySet().retainAll(present);
+			this.order.removeIf(e -> !present.contains(e.athlete().getId()));
+		}
+		logger.trace("lifting order updated, {} moved", moved);
+
+		List<Athlete> liftingOrder = getLiftingOrder();
+		int liftOrder = 1;
+		for (Athlete curLifter : liftingOrder) {
+			curLifter.setLiftOrderRank(liftOrder++);
+		}
+		return liftingOrder;
+	}
+
+	private int find(LiftOrderKey key) {
+		return Collections.binarySearch(this.order, new Entry(key, null), byKey);
+	}
+
+	/**
+	 * Position of the entry of an athlete. While the order is being updated, the key of another athlete can be equal
+	 * (same values, and an index that has shifted), so the athlete is checked among the equal keys.
+	 */
+	private int indexOf(LiftOrderKey key, Long athleteId) {
+		int i = find(key);
+		if (i < 0) {
+			throw new IllegalStateException("athlete " + athleteId + " missing from lifting order");
+		}
+		for (int j = i; j >= 0 && this.order.get(j).key().equals(key); j--) {
+			if (this.order.get(j).athlete().getId().equals(athleteId)) {
+				return j;
+			}
+		}
+		for (int j = i + 1; j < this.order.size() && this.order.get(j).key().equals(key); j++) {
+			if (this.order.get(j).athlete().getId().equals(athleteId)) {
+				return j;
+			}
+		}
+		throw new IllegalStateException("athlete " + athleteId + " missing from lifting order");
+	}
+
+	private int insertionPoint(LiftOrderKey key) {
+		int i = find(key);
+		return i >= 0 ? i : -i - 1;
+	}
+
+}
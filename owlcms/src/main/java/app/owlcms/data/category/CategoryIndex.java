@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.agegroup.AgeGroup;
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.jpa.JPAService;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Immutable in-memory index of the active categories, used to find the categories for a gender, age and body weight
+ * without going to the database.
+ *
+ * The index is organized by gender, then by age interval, then by body weight interval. Each interval holds the
+ * categories that cover it entirely, already sorted in registration preference order, so a lookup is two
+ * {@link NavigableMap} searches and a copy of the (short) result list.
+ *
+ * The current index is built lazily from the database and discarded by {@link #invalidate()} whenever age groups or
+ * categories are edited or reloaded.
+ *
+ * @author Jean-François Lamy
+ */
+public class CategoryIndex {
+
+	/**
+	 * Categories that cover a range of ages, with a sub-index by body weight.
+	 */
+	private record AgeSlot(List<Category> categories, NavigableMap<Double, List<Category>> byBodyWeight) {
+	}
+
+	/**
+	 * Categories for one gender.
+	 */
+	private record GenderSlot(List<Category> categories, NavigableMap<Double, List<Category>> byBodyWeight,
+	        NavigableMap<Integer, AgeSlot> byAge) {
+	}
+
+	final private static Logger logger = (Logger) LoggerFactory.getLogger(CategoryIndex.class);
+	private static volatile CategoryIndex current;
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * @return the index for the current age group definitions, building it if needed.
+	 */
+	public static CategoryIndex get() {
+		CategoryIndex index = current;
+		if (index == null) {
+			synchronized (CategoryIndex.class) {
+				index = current;
+				if (index == null) {
+					long start = System.currentTimeMillis();
+					index = new CategoryIndex(findActiveCategories());
+					current = index;
+					logger.debug("category index built in {} ms, {} categories", System.currentTimeMillis() - start,
+					        index.allCategories.size());
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Discard the current index. Must be called after age groups or categories are created, edited or deleted.
+	 * Waits for an index being built to complete, so that an index built from outdated definitions is not kept.
+	 */
+	public static void invalidate() {
+		synchronized (CategoryIndex.class) {
+			current = null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Category> findActiveCategories() {
+		return JPAService.runInTransaction(em -> em
+		        .createQuery("select c from Category c join fetch c.ageGroup ag where ag.active = true"
+		                + " order by ag.ageDivision, c.gender, ag.minAge, ag.maxAge, ag, c.maximumWeight")
+		        .getResultList());
+	}
+
+	private static NavigableMap<Double, List<Category>> indexByBodyWeight(List<Category> sorted) {
+		// elementary intervals (b[i], b[i+1]] between consecutive weight limits; the value for key b[i] lists
+		// the categories that include the interval.
+		TreeSet<Double> limits = new TreeSet<>();
+		for (Category c : sorted) {
+			if (c.getMinimumWeight() != null && c.getMaximumWeight() != null) {
+				limits.add(c.getMinimumWeight());
+				limits.add(c.getMaximumWeight());
+			}
+		}
+		NavigableMap<Double, List<Category>> byBodyWeight = new TreeMap<>();
+		Double lower = null;
+		for (Double upper : limits) {
+			if (lower != null) {
+				double l = lower;
+				double u = upper;
+				byBodyWeight.put(lower, filter(sorted, c -> c.getMinimumWeight() != null && c.getMaximumWeight() != null
+				        && c.getMinimumWeight() <= l && c.getMaximumWeight() >= u));
+			}
+			lower = upper;
+		}
+		if (lower != null) {
+			// above all the limits
+			byBodyWeight.put(lower, List.of());
+		}
+		return byBodyWeight;
+	}
+
+	private static NavigableMap<Integer, AgeSlot> indexByAge(List<Category> sorted) {
+		// elementary intervals [a[i], a[i+1]) between consecutive age limits (maximum ages are inclusive)
+		TreeSet<Integer> limits = new TreeSet<>();
+		for (Category c : sorted) {
+			AgeGroup ag = c.getAgeGroup();
+			if (ag.getMinAge() != null && ag.getMaxAge() != null) {
+				limits.add(ag.getMinAge());
+				if (ag.getMaxAge() < Integer.MAX_VALUE) {
+					limits.add(ag.getMaxAge() + 1);
+				}
+			}
+		}
+		NavigableMap<Integer, AgeSlot> byAge = new TreeMap<>();
+		Integer lower = null;
+		for (Integer upper : limits) {
+			if (lower != null) {
+				putAgeSlot(sorted, byAge, lower, upper - 1);
+			}
+			lower = upper;
+		}
+		if (lower != null) {
+			putAgeSlot(sorted, byAge, lower, Integer.MAX_VALUE);
+		}
+		return byAge;
+	}
+
+	private static void putAgeSlot(List<Category> sorted, NavigableMap<Integer, AgeSlot> byAge, int from, int to) {
+		List<Category> slotCategories = filter(sorted, c -> {
+			AgeGroup ag = c.getAgeGroup();
+			return ag.getMinAge() != null && ag.getMaxAge() != null && ag.getMinAge() <= from && ag.getMaxAge() >= to;
+		});
+		byAge.put(from, new AgeSlot(slotCategories, indexByBodyWeight(slotCategories)));
+	}
+
+	private static List<Category> filter(List<Category> sorted, Predicate<Category> predicate) {
+		return sorted.stream().filter(predicate).collect(Collectors.toUnmodifiableList());
+	}
+
+	private static List<Category> lookupBodyWeight(NavigableMap<Double, List<Category>> byBodyWeight, Double bw) {
+		Entry<Double, List<Category>> e = byBodyWeight.lowerEntry(bw);
+		return e != null ? e.getValue() : List.of();
+	}
+
+	private final List<Category> allCategories;
+
+	private final Map<Gender, GenderSlot> byGender = new EnumMap<>(Gender.class);
+
+	CategoryIndex(List<Category> activeCategories) {
+		List<Category> sorted = new ArrayList<>(activeCategories);
+		sorted.sort(new RegistrationPreferenceComparator());
+		this.allCategories = Collections.unmodifiableList(sorted);
+		for (Gender g : Gender.values()) {
+			List<Category> genderCategories = filter(sorted, c -> c.getGender() == g);
+			this.byGender.put(g,
+			        new GenderSlot(genderCategories, indexByBodyWeight(genderCategories), indexByAge(genderCategories)));
+		}
+	}
+
+	/**
+	 * Same result as the database query in {@link CategoryRepository#findFiltered}, for active categories.
+	 *
+	 * @param gender     null for any gender
+	 * @param age        null for any age
+	 * @param bodyWeight null for any body weight
+	 * @return a new modifiable list, in registration preference order
+	 */
+	public List<Category> find(Gender gender, Integer age, Double bodyWeight) {
+		if (gender == null) {
+			return this.allCategories.stream()
+			        .filter(c -> age == null || (c.getAgeGroup().getMinAge() != null
+			                && c.getAgeGroup().getMaxAge() != null
+			                && c.getAgeGroup().getMinAge() <= age && c.getAgeGroup().getMaxAge() >= age))
+			        .filter(c -> bodyWeight == null || (c.getMinimumWeight() != null && c.getMaximumWeight() != null
+			                && c.getMinimumWeight() < bodyWeight && c.getMaximumWeight() >= bodyWeight))
+			        .collect(Collectors.toCollection(ArrayList::new));
+		}
+		GenderSlot genderSlot = this.byGender.get(gender);
+		if (age == null) {
+			return new ArrayList<>(bodyWeight == null ? genderSlot.categories()
+			        : lookupBodyWeight(genderSlot.byBodyWeight(), bodyWeight));
+		}
+		Entry<Integer, AgeSlot> ageEntry = genderSlot.byAge().floorEntry(age);
+		if (ageEntry == null) {
+			return new ArrayList<>();
+		}
+		AgeSlot ageSlot = ageEntry.getValue();
+		return new ArrayList<>(bodyWeight == null ? ageSlot.categories()
+		        : lookupBodyWeight(ageSlot.byBodyWeight(), bodyWeight));
+	}
+
+	/**
+	 * @return all the active categories, in registration preference order.
+	 */
+	public List<Category> findAll() {
+		return new ArrayList<>(this.allCategories);
+	}
+
+}
@@ -76,6 +76,7 @@ public class CategoryRepository {
 			em.remove(getById(Category.getId(), em));
 			return null;
 		});
+		CategoryIndex.invalidate();
 	}
 
 	public static Integer doCountFiltered(String name, Gender gender, Championship ageDivision, AgeGroup ageGroup,
@@ -170,25 +171,14 @@ public class CategoryRepository {
 	 * @return active categories
 	 */
 	public static List<Category> findActive() {
-
-		List<Category> findFiltered = findFiltered((String) null, (Gender) null, (Championship) null, (AgeGroup) null,
-		        (Integer) null, (Double) null,
-		        true, -1, -1);
-		
-		//logger.debug("findActive **** {} {}", findFiltered.size(), LoggerUtils.stackTrace());
-		findFiltered.sort(new RegistrationPreferenceComparator());
-		return findFiltered;
+		// index is already sorted in registration preference order
+		return CategoryIndex.get().findAll();
 	}
 
 	public static Collection<Category> findActive(Gender gender, Double bodyWeight) {
-		List<Category> findFiltered = findFiltered((String) null, gender, (Championship) null, (AgeGroup) null,
-		        (Integer) null,
-		        bodyWeight, true, -1, -1);
-		// sort comparison to put more specific category age before. M30 before O21, O21
-		// also before SR (MASTERS, then
-		// U, then IWF/other)
-		findFiltered.sort(new RegistrationPreferenceComparator());
-		return findFiltered;
+		// sort comparison puts more specific category age before. M30 before O21, O21
+		// also before SR (MASTERS, then U, then IWF/other)
+		return CategoryIndex.get().find(gender, null, bodyWeight);
 	}
 
 	/**
@@ -199,7 +189,8 @@ public class CategoryRepository {
 	@SuppressWarnings("unchecked")
 	public static List<Category> findAll() {
 		return JPAService
-		        .runInTransaction(em -> em.createQuery("select c from Category c order by c.name").getResultList());
+		        .runInTransaction(em -> JPAService.cacheable(em.createQuery("select c from Category c order by c.name"))
+		                .getResultList());
 	}
 
 	/**
@@ -214,16 +205,16 @@ public class CategoryRepository {
 		});
 	}
 
+	/**
+	 * Active categories for a gender, age and body weight, from the in-memory {@link CategoryIndex}.
+	 *
+	 * @param gender     null for any
+	 * @param age        null for any
+	 * @param bodyWeight null for any
+	 * @return categories sorted to put more specific category age before (M30 before O21, O21 also before SR).
+	 */
 	public static List<Category> findByGenderAgeBW(Gender gender, Integer age, Double bodyWeight) {
-		Boolean active = true;
-		List<Category> findFiltered = findFiltered((String) null, gender, (Championship) null, (AgeGroup) null, age,
-		        bodyWeight, active, -1, -1);
-		// sort comparison to put more specific category age before. M30 before O21, O21
-		// also before SR (MASTERS, then
-		// U, then IWF/other)
-		findFiltered = findFiltered.stream().filter(c -> c.getAgeGroup().isActive())
-		        .sorted(new RegistrationPreferenceComparator()).collect(Collectors.toList());
-		return findFiltered;
+		return CategoryIndex.get().find(gender, age, bodyWeight);
 	}
 
 	public static List<Category> findByGenderDivisionAgeBW(Gender gender, Championship ageDivision, Integer age,
@@ -292,6 +283,7 @@ public class CategoryRepository {
 			em.flush();
 			return null;
 		});
+		CategoryIndex.invalidate();
 
 	}
 
@@ -317,12 +309,14 @@ public class CategoryRepository {
 	 * @return the category
 	 */
 	public static Category save(Category category) {
-		return JPAService.runInTransaction(em -> {
+		Category saved = JPAService.runInTransaction(em -> {
 			// code must match inside info for string-based matches in db.
 			category.setCode(category.getComputedCode());
 			category.setName(category.getDisplayName());
 			return em.merge(category);
 		});
+		CategoryIndex.invalidate();
+		return saved;
 	}
 
 	private static String filteringJoins(AgeGroup ag, Integer age) {
@@ -411,6 +405,8 @@ public class CategoryRepository {
 	}
 
 	public static void resetCodeMap() {
+		// called after definitions are reloaded or a competition is restored
+		CategoryIndex.invalidate();
 		synchronized (allCategories) {
 			findActive().stream()
 			//.peek(c -> logger.debug("adding {} + {}", c.getDisplayName(), c.getNameWithAgeGroup()))
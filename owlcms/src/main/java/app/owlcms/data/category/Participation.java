@@ -8,10 +8,12 @@ package app.owlcms.data.category;
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.MapsId;
 import javax.persistence.Table;
@@ -35,8 +37,11 @@ import ch.qos.logback.classic.Logger;
  *
  * @author Jean-François Lamy
  */
+// ranks change on every lift, not kept in the second-level cache
 @Entity(name = "Participation")
-@Table(name = "participation")
+@Cacheable(false)
+@Table(name = "participation", indexes = {
+        @Index(name = "ix_participation_category", columnList = "category_id,athlete_id") })
 @JsonIgnoreProperties(ignoreUnknown = true, value = { "hibernateLazyInitializer", "logger" })
 public class Participation implements IRankHolder {
 
@@ -205,6 +205,12 @@ public class Competition {
 	@Transient
 	@JsonIgnore
 	private boolean rankingsInvalid = true;
+	/**
+	 * incremented each time the rankings are made invalid, so that results derived from them can be kept until then.
+	 */
+	@Transient
+	@JsonIgnore
+	private long rankingsVersion;
 	@Column(name = "refdelay", columnDefinition = "integer default 1500")
 	private int refereeWakeUpDelay = 1500;
 	@Transient
@@ -764,7 +770,8 @@ public class Competition {
 		// logger.debug("getting list {}",listName);
 		List<Athlete> athletes = (List<Athlete>) this.reportingBeans.get(listName);
 		if (isRankingsInvalid() || athletes == null) {
-			setRankingsInvalid(true);
+			// a missing list is not a change of the rankings, the version stays the same.
+			this.rankingsInvalid = true;
 			while (isRankingsInvalid()) { // could be made invalid again while we compute
 				setRankingsInvalid(false);
 				// recompute because an athlete has been saved (new weight requested, good/bad
@@ -883,6 +890,10 @@ public class Competition {
 		return this.protocolTemplateFileName;
 	}
 
+	synchronized public long getRankingsVersion() {
+		return this.rankingsVersion;
+	}
+
 	public String getRecordOrder() {
 		return this.recordOrder;
 	}
@@ -1317,6 +1328,9 @@ public class Competition {
 
 	synchronized public void setRankingsInvalid(boolean invalid) {
 		this.rankingsInvalid = invalid;
+		if (invalid) {
+			this.rankingsVersion++;
+		}
 	}
 
 	public void setRecordOrder(String recordOrder) {
@@ -77,7 +77,8 @@ public class GroupRepository {
 
 	@SuppressWarnings("unchecked")
 	public static List<Group> doFindAll(EntityManager em) {
-		return em.createQuery("select c from CompetitionGroup c order by c.name").getResultList();
+		return JPAService.cacheable(em.createQuery("select c from CompetitionGroup c order by c.name"))
+		        .getResultList();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -95,7 +96,8 @@ public class GroupRepository {
 	@SuppressWarnings("unchecked")
 	public static List<Group> findAll() {
 		return JPAService.runInTransaction(
-		        em -> em.createQuery("select c from CompetitionGroup c order by c.name").getResultList());
+		        em -> JPAService.cacheable(em.createQuery("select c from CompetitionGroup c order by c.name"))
+		                .getResultList());
 	}
 
 	public static Group findByName(String name) {
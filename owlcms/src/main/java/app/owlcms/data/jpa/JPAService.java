@@ -6,7 +6,9 @@
  *******************************************************************************/
 package app.owlcms.data.jpa;
 
+import static org.hibernate.cfg.AvailableSettings.BATCH_VERSIONED_DATA;
 import static org.hibernate.cfg.AvailableSettings.CACHE_REGION_FACTORY;
+import static org.hibernate.cfg.AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY;
 import static org.hibernate.cfg.AvailableSettings.DIALECT;
 import static org.hibernate.cfg.AvailableSettings.GENERATE_STATISTICS;
 import static org.hibernate.cfg.AvailableSettings.HBM2DDL_AUTO;
@@ -14,6 +16,8 @@ import static org.hibernate.cfg.AvailableSettings.JPA_JDBC_DRIVER;
 import static org.hibernate.cfg.AvailableSettings.JPA_JDBC_PASSWORD;
 import static org.hibernate.cfg.AvailableSettings.JPA_JDBC_URL;
 import static org.hibernate.cfg.AvailableSettings.JPA_JDBC_USER;
+import static org.hibernate.cfg.AvailableSettings.ORDER_INSERTS;
+import static org.hibernate.cfg.AvailableSettings.ORDER_UPDATES;
 import static org.hibernate.cfg.AvailableSettings.QUERY_STARTUP_CHECKING;
 import static org.hibernate.cfg.AvailableSettings.SHOW_SQL;
 import static org.hibernate.cfg.AvailableSettings.STATEMENT_BATCH_SIZE;
@@ -32,26 +36,33 @@ import java.util.function.Function;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
+import javax.persistence.Query;
 import javax.persistence.spi.PersistenceUnitInfo;
 
 import org.h2.tools.Server;
 import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.dialect.H2Dialect;
 import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
 import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
 import org.hibernate.jpa.boot.internal.PersistenceUnitInfoDescriptor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.postgresql.util.PSQLException;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import app.owlcms.Main;
 import app.owlcms.data.agegroup.AgeGroup;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.category.Category;
+import app.owlcms.data.category.CategoryIndex;
 import app.owlcms.data.category.Participation;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.config.Config;
@@ -59,6 +70,7 @@ import app.owlcms.data.group.Group;
 import app.owlcms.data.platform.Platform;
 import app.owlcms.data.records.RecordConfig;
 import app.owlcms.data.records.RecordEvent;
+import app.owlcms.monitors.Metrics;
 import app.owlcms.utils.LoggerUtils;
 import app.owlcms.utils.StartupUtils;
 import ch.qos.logback.classic.Level;
@@ -73,6 +85,10 @@ public class JPAService {
 	private static boolean localDb = false;
 	private static final Logger logger = (Logger) LoggerFactory.getLogger(JPAService.class);
 	private static final Logger startLogger = (Logger) LoggerFactory.getLogger(Main.class);
+	private static final Metrics.Timer COMMITTED = Metrics.timer("owlcms_jpa_transaction_seconds",
+	        "Duration of database transactions", "outcome", "commit");
+	private static final Metrics.Timer ROLLED_BACK = Metrics.timer("owlcms_jpa_transaction_seconds",
+	        "Duration of database transactions", "outcome", "rollback");
 
 	static {
 		logger.setLevel(Level.INFO);
@@ -86,6 +102,8 @@ public class JPAService {
 			getFactory().close();
 		}
 		setFactory(null);
+		// in-memory indexes refer to the closed database
+		CategoryIndex.invalidate();
 	}
 
 	/**
@@ -124,6 +142,8 @@ public class JPAService {
 				hibernateLogger.setLevel(prevHibernateLevel);
 			}
 			setFactory(factory2);
+			registerPoolMetrics();
+			registerCacheMetrics();
 		}
 	}
 
@@ -218,6 +238,8 @@ public class JPAService {
 	public static <T> T runInTransaction(Function<EntityManager, T> function) {
 		EntityManager entityManager = null;
 		String whereFromString = LoggerUtils.whereFrom();
+		long start = System.nanoTime();
+		boolean committed = false;
 		try {
 			if (getFactory() == null) {
 				logger.debug("JPAService {}", LoggerUtils./**/stackTrace());
@@ -227,6 +249,7 @@ public class JPAService {
 			entityManager.getTransaction().begin();
 			T result = function.apply(entityManager);
 			entityManager.getTransaction().commit();
+			committed = true;
 			entityManager.close();
 			whereFrom.remove(entityManager);
 			entityManager = null;
@@ -244,11 +267,40 @@ public class JPAService {
 				entityManager.close();
 				whereFrom.remove(entityManager);
 			}
+			transactionTimer(committed).stop(start);
 			traceLeak();
 
 		}
 	}
 
+	/**
+	 * Run in a transaction that is rolled back: changes made to the entities are kept in memory but nothing is written
+	 * to the database. The returned entities are detached.
+	 *
+	 * @param <T>      the generic type
+	 * @param function the function
+	 * @return the t
+	 */
+	public static <T> T runWithoutWriting(Function<EntityManager, T> function) {
+		EntityManager entityManager = null;
+		long start = System.nanoTime();
+		try {
+			entityManager = getFactory().createEntityManager();
+			// queries must not flush the modified entities
+			entityManager.setFlushMode(FlushModeType.COMMIT);
+			entityManager.getTransaction().begin();
+			return function.apply(entityManager);
+		} finally {
+			if (entityManager != null) {
+				if (entityManager.getTransaction().isActive()) {
+					entityManager.getTransaction().rollback();
+				}
+				entityManager.close();
+			}
+			transactionTimer(false).stop(start);
+		}
+	}
+
 	/**
 	 * Run in transaction.
 	 *
@@ -259,6 +311,8 @@ public class JPAService {
 	public static List<Object[]> runInTransactionMultipleResults(Function<EntityManager, List<Object[]>> function) {
 		EntityManager entityManager = null;
 		String whereFromString = LoggerUtils.whereFrom();
+		long start = System.nanoTime();
+		boolean committed = false;
 		try {
 			if (getFactory() == null) {
 				logger.debug("JPAService {}", LoggerUtils./**/stackTrace());
@@ -269,6 +323,7 @@ public class JPAService {
 
 			List<Object[]> result = function.apply(entityManager);
 			entityManager.getTransaction().commit();
+			committed = true;
 			entityManager.close();
 			whereFrom.remove(entityManager);
 			entityManager = null;
@@ -279,6 +334,7 @@ public class JPAService {
 				entityManager.close();
 				whereFrom.remove(entityManager);
 			}
+			transactionTimer(committed).stop(start);
 			traceLeak();
 		}
 	}
@@ -361,6 +417,81 @@ public class JPAService {
 		return factory;
 	}
 
+	/**
+	 * Keep the results of a query in the query cache. Only for queries on the reference entities cached in the
+	 * second-level cache (see ehcache.xml); the results are discarded whenever one of the tables is updated.
+	 *
+	 * @param <Q>   the query type
+	 * @param query the query
+	 * @return the same query
+	 */
+	public static <Q extends Query> Q cacheable(Q query) {
+		query.setHint(QueryHints.CACHEABLE, true);
+		return query;
+	}
+
+	/**
+	 * Publish the second-level and query cache statistics as metrics.
+	 */
+	private static void registerCacheMetrics() {
+		try {
+			Statistics stats = factory.unwrap(SessionFactory.class).getStatistics();
+			if (!stats.isStatisticsEnabled()) {
+				return;
+			}
+			for (String region : stats.getSecondLevelCacheRegionNames()) {
+				Metrics.gauge("owlcms_cache_hits", "Second-level cache hits",
+				        () -> stats.getCacheRegionStatistics(region).getHitCount(), "region", region);
+				Metrics.gauge("owlcms_cache_misses", "Second-level cache misses",
+				        () -> stats.getCacheRegionStatistics(region).getMissCount(), "region", region);
+				Metrics.gauge("owlcms_cache_puts", "Second-level cache puts",
+				        () -> stats.getCacheRegionStatistics(region).getPutCount(), "region", region);
+				Metrics.gauge("owlcms_cache_hit_ratio", "Second-level cache hits over lookups",
+				        () -> hitRatio(stats.getCacheRegionStatistics(region)), "region", region);
+				Metrics.gauge("owlcms_cache_entries", "Second-level cache entries in memory",
+				        () -> stats.getCacheRegionStatistics(region).getElementCountInMemory(), "region", region);
+			}
+			Metrics.gauge("owlcms_query_cache_hits", "Query cache hits", () -> stats.getQueryCacheHitCount());
+			Metrics.gauge("owlcms_query_cache_misses", "Query cache misses",
+			        () -> stats.getQueryCacheMissCount());
+			Metrics.gauge("owlcms_query_cache_puts", "Query cache puts", () -> stats.getQueryCachePutCount());
+		} catch (Exception e) {
+			logger.warn("cache metrics not available: {}", e.toString());
+		}
+	}
+
+	private static double hitRatio(CacheRegionStatistics regionStats) {
+		long lookups = regionStats.getHitCount() + regionStats.getMissCount();
+		return lookups == 0 ? 0.0D : (double) regionStats.getHitCount() / lookups;
+	}
+
+	/**
+	 * Publish the connection pool usage as metrics.
+	 */
+	private static void registerPoolMetrics() {
+		try {
+			SessionFactory sessionFactory = factory.unwrap(SessionFactory.class);
+			ConnectionProvider connectionProvider = sessionFactory.getSessionFactoryOptions().getServiceRegistry()
+			        .getService(ConnectionProvider.class);
+			HikariDataSource dataSource = connectionProvider.unwrap(HikariDataSource.class);
+			HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+			if (pool == null) {
+				return;
+			}
+			Metrics.gauge("owlcms_db_pool_active_connections", "Connections in use", () -> pool.getActiveConnections());
+			Metrics.gauge("owlcms_db_pool_idle_connections", "Connections available", () -> pool.getIdleConnections());
+			Metrics.gauge("owlcms_db_pool_pending_threads", "Threads waiting for a connection",
+			        () -> pool.getThreadsAwaitingConnection());
+			Metrics.gauge("owlcms_db_pool_max_connections", "Maximum pool size", () -> dataSource.getMaximumPoolSize());
+		} catch (Exception e) {
+			logger.warn("connection pool metrics not available: {}", e.toString());
+		}
+	}
+
+	private static Metrics.Timer transactionTimer(boolean committed) {
+		return committed ? COMMITTED : ROLLED_BACK;
+	}
+
 	public static int getPoolStatistics() {
 		SessionFactory sessionFactory = factory.unwrap(SessionFactory.class);
 		ConnectionProvider connectionProvider = sessionFactory.getSessionFactoryOptions().getServiceRegistry()
@@ -434,13 +565,20 @@ public class JPAService {
 		ImmutableMap<String, Object> vals = new ImmutableMap.Builder<String, Object>()
 		        .put(HBM2DDL_AUTO, "update")
 		        .put(SHOW_SQL, false)
-		        .put(QUERY_STARTUP_CHECKING, false).put(GENERATE_STATISTICS, false)
-		        .put(USE_REFLECTION_OPTIMIZER, false).put(USE_SECOND_LEVEL_CACHE, true).put(USE_QUERY_CACHE, false)
-		        .put(USE_STRUCTURED_CACHE, false).put(STATEMENT_BATCH_SIZE, 20)
+		        .put(QUERY_STARTUP_CHECKING, false).put(GENERATE_STATISTICS, true)
+		        .put(USE_REFLECTION_OPTIMIZER, false).put(USE_SECOND_LEVEL_CACHE, true).put(USE_QUERY_CACHE, true)
+		        .put(USE_STRUCTURED_CACHE, false).put(STATEMENT_BATCH_SIZE, 50)
+		        // group inserts by entity so bulk imports (athletes + participations) are sent as JDBC batches
+		        .put(ORDER_INSERTS, true)
+		        // same for the rank updates on athletes and participations after each lift, sorted by key
+		        .put(ORDER_UPDATES, true).put(BATCH_VERSIONED_DATA, true)
+		        // regions are sized in ehcache.xml; only the @Cacheable reference entities are cached
 		        .put(CACHE_REGION_FACTORY, "org.hibernate.cache.jcache.JCacheRegionFactory")
 		        .put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
-		        .put("hibernate.javax.cache.missing_cache_strategy", "create")
-		        .put("javax.persistence.sharedCache.mode", "ALL").put("hibernate.c3p0.min_size", 5)
+		        .put("hibernate.javax.cache.uri", "ehcache.xml")
+		        .put("hibernate.javax.cache.missing_cache_strategy", "create-warn")
+		        .put(DEFAULT_CACHE_CONCURRENCY_STRATEGY, "read-write")
+		        .put("javax.persistence.sharedCache.mode", "ENABLE_SELECTIVE").put("hibernate.c3p0.min_size", 5)
 		        .put("hibernate.enable_lazy_load_no_trans", true)
 		        // .put("hibernate.c3p0.max_size", 20).put("hibernate.c3p0.acquire_increment", 5)
 		        // .put("hibernate.c3p0.timeout", 84200).put("hibernate.c3p0.preferredTestQuery", "SELECT 1")
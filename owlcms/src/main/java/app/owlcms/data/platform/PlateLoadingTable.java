@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.data.platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.athlete.Gender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * How the bar is loaded for each weight, given the plates and collars of a platform.
+ *
+ * For a bar weight and collar setting, the loading of every weight from the bar to the heaviest weight the plates
+ * allow is computed at once and kept in an array, so displays look up a weight instead of working out the plates. The
+ * plates are chosen as the loaders do (large plates first, large 5 and 2.5 only for light loads, collar after the
+ * 2.5 small plates); a weight is reachable if that choice adds up exactly.
+ *
+ * The table of a platform is built when the platform is saved, and again if its plates change. Tables are kept by
+ * platform id, so renaming a platform keeps its table.
+ *
+ * @author Jean-François Lamy
+ */
+public class PlateLoadingTable {
+
+	/**
+	 * Bar and collars chosen for a weight.
+	 *
+	 * @param lightBar   true if a bar other than the regulation bar for the gender is used
+	 * @param barWeight  the bar
+	 * @param useCollars whether collars are put on the bar
+	 */
+	public record Equipment(boolean lightBar, int barWeight, boolean useCollars) {
+	}
+
+	/**
+	 * @param weight    the weight
+	 * @param plates    style names of the bar, plates and collars, from the bar to the outside
+	 * @param reachable false if the plates cannot make the weight exactly
+	 */
+	public record Loading(int weight, List<String> plates, boolean reachable) {
+	}
+
+	/**
+	 * Plates as removed from the weight, during loading.
+	 */
+	private static class Loader {
+		private final List<String> plates = new ArrayList<>();
+		private int remaining;
+
+		private Loader(int weight) {
+			this.remaining = weight;
+		}
+
+		private int add(int available, String style, double plateWeight) {
+			int subtractedWeight = 0;
+			while (available > 0 && this.remaining >= plateWeight) {
+				this.plates.add(style);
+				final int delta = (int) Math.round(plateWeight);
+				this.remaining -= delta;
+				subtractedWeight += delta;
+				available--;
+			}
+			return subtractedWeight;
+		}
+	}
+
+	private static final int C_2_5 = 0;
+	private static final int L_25 = 1;
+	private static final int L_20 = 2;
+	private static final int L_15 = 3;
+	private static final int L_10 = 4;
+	private static final int L_5 = 5;
+	private static final int L_2_5 = 6;
+	private static final int S_5 = 7;
+	private static final int S_2_5 = 8;
+	private static final int S_2 = 9;
+	private static final int S_1_5 = 10;
+	private static final int S_1 = 11;
+	private static final int S_0_5 = 12;
+	private static final double[] PAIR_WEIGHTS = { 5, 50, 40, 30, 20, 10, 5, 10, 5, 4, 3, 2, 1 };
+
+	private static final Map<Long, PlateLoadingTable> byPlatform = new ConcurrentHashMap<>();
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(PlateLoadingTable.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * The bar and collars for a weight. Bars lighter than the regulation bar are used if the platform has them and the
+	 * weight is too light for the next bar; the 15kg bar is used for women, and for men if the federation requires it.
+	 *
+	 * @param platform     the platform, for the bars available
+	 * @param gender       gender of the athlete lifting
+	 * @param lightBarRule true if the federation requires the 15kg bar for the age group of the athlete
+	 * @param weight       the weight on the bar
+	 * @return the bar and collars to use
+	 */
+	public static Equipment equipmentFor(Platform platform, Gender gender, boolean lightBarRule, int weight) {
+		boolean use15Bar = gender != Gender.M || lightBarRule;
+		if (platform.isUseNonStandardBar()) {
+			return new Equipment(true, platform.getNonStandardBarWeight(), weight >= 40);
+		} else if (weight <= 14 && platform.getNbB_5() > 0) {
+			return new Equipment(true, 5, false);
+		} else if (weight <= 19 && platform.getNbB_10() > 0) {
+			return new Equipment(true, 10, false);
+		} else if (weight <= 39 && (platform.getNbB_20() == 0 || use15Bar) && platform.getNbB_15() > 0) {
+			return new Equipment(true, 15, false);
+		} else if (weight >= 40 && (platform.getNbB_20() == 0 || use15Bar) && platform.getNbB_15() > 0) {
+			return new Equipment(true, 15, true);
+		} else {
+			return new Equipment(false, gender == Gender.M ? 20 : 15, true);
+		}
+	}
+
+	/**
+	 * @param platform a platform
+	 * @return the table for the current plates of the platform
+	 */
+	public static PlateLoadingTable of(Platform platform) {
+		int[] inventory = inventory(platform);
+		Long id = platform.getId();
+		PlateLoadingTable table = id != null ? byPlatform.get(id) : null;
+		if (table != null && Arrays.equals(table.inventory, inventory)) {
+			return table;
+		}
+		table = new PlateLoadingTable(inventory);
+		if (id != null) {
+			byPlatform.put(id, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Forget the table of a deleted platform.
+	 *
+	 * @param platform the platform
+	 */
+	public static void remove(Platform platform) {
+		if (platform.getId() != null) {
+			byPlatform.remove(platform.getId());
+		}
+	}
+
+	/**
+	 * Build the table of a platform that has been saved, for each bar available on the platform.
+	 *
+	 * @param platform the platform
+	 */
+	public static void update(Platform platform) {
+		long start = System.currentTimeMillis();
+		PlateLoadingTable table = of(platform);
+		List<Integer> bars = new ArrayList<>();
+		if (platform.getNbB_5() > 0) {
+			bars.add(5);
+		}
+		if (platform.getNbB_10() > 0) {
+			bars.add(10);
+		}
+		bars.add(15);
+		bars.add(20);
+		if (platform.isUseNonStandardBar() && platform.getNonStandardBarWeight() > 0) {
+			bars.add(platform.getNonStandardBarWeight());
+		}
+		for (Integer bar : bars) {
+			table.getTable(bar, true);
+			table.getTable(bar, false);
+		}
+		logger.debug("plate loading table for {} computed in {} ms", platform.getName(),
+		        System.currentTimeMillis() - start);
+	}
+
+	private static Loading compute(int[] inventory, int weight, int barWeight, boolean useCollarsIfAvailable) {
+		if (weight <= 0) {
+			return new Loading(weight, List.of(), true);
+		}
+		Loader loader = new Loader(weight);
+		int nonBarWeight = weight - barWeight;
+
+		loader.add(1, "bar", barWeight);
+
+		final int collarAvailable = inventory[C_2_5];
+		boolean useCollar = collarAvailable > 0 && useCollarsIfAvailable;
+
+		if (nonBarWeight >= 0) {
+			loader.add(1, "barInner", 0);
+
+			// large 5 and large 2.5 are only used when warranted
+			if (inventory[L_2_5] > 0 && nonBarWeight < 10 || inventory[L_5] > 0 && nonBarWeight < 15) {
+				useCollar = false;
+			}
+			if (useCollar) {
+				// the collar is shown after the 2.5 small plates
+				loader.remaining -= 5;
+				nonBarWeight -= 5;
+			}
+
+			// use large plates first
+			int subtractedWeight = 0;
+			subtractedWeight += loader.add(inventory[L_25], "L_25", PAIR_WEIGHTS[L_25]);
+			subtractedWeight += loader.add(inventory[L_20], "L_20", PAIR_WEIGHTS[L_20]);
+			subtractedWeight += loader.add(inventory[L_15], "L_15", PAIR_WEIGHTS[L_15]);
+			subtractedWeight += loader.add(inventory[L_10], "L_10", PAIR_WEIGHTS[L_10]);
+			if (subtractedWeight == 0 && nonBarWeight >= 10) {
+				// we have not used a large plate
+				subtractedWeight += loader.add(inventory[L_5], "L_5", PAIR_WEIGHTS[L_5]);
+			}
+			if (subtractedWeight == 0 && nonBarWeight >= 5) {
+				// we have not used a large plate
+				subtractedWeight += loader.add(inventory[L_2_5], "L_2_5", PAIR_WEIGHTS[L_2_5]);
+			}
+
+			loader.add(inventory[S_5], "S_5", PAIR_WEIGHTS[S_5]);
+			loader.add(inventory[S_2_5], "S_2_5", PAIR_WEIGHTS[S_2_5]);
+			if (useCollar) {
+				loader.remaining += 5;
+				loader.add(collarAvailable, "C_2_5", PAIR_WEIGHTS[C_2_5]);
+			}
+			loader.add(inventory[S_2], "S_2", PAIR_WEIGHTS[S_2]);
+			loader.add(inventory[S_1_5], "S_1_5", PAIR_WEIGHTS[S_1_5]);
+			loader.add(inventory[S_1], "S_1", PAIR_WEIGHTS[S_1]);
+			loader.add(inventory[S_0_5], "S_0_5", PAIR_WEIGHTS[S_0_5]);
+			loader.add(1, "barOuter", 0);
+		}
+		// lighter than the bar leaves the whole weight
+		return new Loading(weight, Collections.unmodifiableList(loader.plates), loader.remaining == 0);
+	}
+
+	private static int[] inventory(Platform platform) {
+		int[] inventory = new int[PAIR_WEIGHTS.length];
+		inventory[C_2_5] = platform.getNbC_2_5();
+		inventory[L_25] = platform.getNbL_25();
+		inventory[L_20] = platform.getNbL_20();
+		inventory[L_15] = platform.getNbL_15();
+		inventory[L_10] = platform.getNbL_10();
+		inventory[L_5] = platform.getNbL_5();
+		inventory[L_2_5] = platform.getNbL_2_5();
+		inventory[S_5] = platform.getNbS_5();
+		inventory[S_2_5] = platform.getNbS_2_5();
+		inventory[S_2] = platform.getNbS_2();
+		inventory[S_1_5] = platform.getNbS_1_5();
+		inventory[S_1] = platform.getNbS_1();
+		inventory[S_0_5] = platform.getNbS_0_5();
+		return inventory;
+	}
+
+	private final int[] inventory;
+	private final Map<Integer, Loading[]> tables = new ConcurrentHashMap<>();
+
+	private PlateLoadingTable(int[] inventory) {
+		this.inventory = inventory;
+	}
+
+	/**
+	 * @param weight                the requested weight
+	 * @param barWeight             the bar in use
+	 * @param useCollarsIfAvailable whether collars are put on this bar
+	 * @return the loading of the bar
+	 */
+	public Loading getLoading(int weight, int barWeight, boolean useCollarsIfAvailable) {
+		Loading[] table = getTable(barWeight, useCollarsIfAvailable);
+		int index = weight - barWeight;
+		if (index < 0 || index >= table.length) {
+			// lighter than the bar, or more than the plates allow
+			return compute(this.inventory, weight, barWeight, useCollarsIfAvailable);
+		}
+		return table[index];
+	}
+
+	/**
+	 * @param barWeight             the bar in use
+	 * @param useCollarsIfAvailable whether collars are put on this bar
+	 * @return the heaviest weight the plates allow on the bar
+	 */
+	public int getMaxWeight(int barWeight, boolean useCollarsIfAvailable) {
+		double max = barWeight;
+		for (int i = 0; i < PAIR_WEIGHTS.length; i++) {
+			if (i != C_2_5 || useCollarsIfAvailable) {
+				max += this.inventory[i] * PAIR_WEIGHTS[i];
+			}
+		}
+		return (int) Math.round(max);
+	}
+
+	private Loading[] getTable(int barWeight, boolean useCollarsIfAvailable) {
+		int key = barWeight * 2 + (useCollarsIfAvailable ? 1 : 0);
+		return this.tables.computeIfAbsent(key, (k) -> {
+			Loading[] table = new Loading[getMaxWeight(barWeight, useCollarsIfAvailable) - barWeight + 1];
+			for (int i = 0; i < table.length; i++) {
+				table[i] = compute(this.inventory, barWeight + i, barWeight, useCollarsIfAvailable);
+			}
+			return table;
+		});
+	}
+
+}
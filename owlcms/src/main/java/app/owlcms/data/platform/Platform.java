@@ -29,6 +29,7 @@ import com.vaadin.flow.server.VaadinSession;
 import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsSession;
+import app.owlcms.sound.SoundEngine;
 import app.owlcms.sound.Speakers;
 import app.owlcms.utils.IdUtils;
 import app.owlcms.utils.LoggerUtils;
@@ -732,6 +733,10 @@ public class Platform implements Serializable, Comparable<Platform> {
 		logger.debug("SETTING platform {}: soundMixer={}", System.identityHashCode(this),
 		        soundMixer == null ? null : soundMixer.getLineInfo());
 		this.mixer = soundMixer;
+		if (soundMixer != null) {
+			// decode the sounds and open the output ahead of the first warning
+			SoundEngine.preloadFopSounds(soundMixer);
+		}
 	}
 
 }
@@ -145,7 +145,8 @@ public class PlatformRepository {
 	@SuppressWarnings("unchecked")
 	public static List<Platform> findAll() {
 		return JPAService
-		        .runInTransaction(em -> em.createQuery("select c from Platform c order by c.id").getResultList());
+		        .runInTransaction(em -> JPAService.cacheable(em.createQuery("select c from Platform c order by c.id"))
+		                .getResultList());
 	}
 
 	/**
@@ -1,7 +1,9 @@
 package app.owlcms.data.records;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import javax.persistence.Cacheable;
@@ -59,6 +61,14 @@ public class RecordConfig {
 
 	@Convert(converter = JpaJsonConverter.class)
 	private ArrayList<String> recordOrder;
+	/**
+	 * Content hash of the record definition files last loaded from the local records folder, by file name without
+	 * extension. Describes this installation's files, so not exported.
+	 */
+	@Convert(converter = JpaJsonConverter.class)
+	@Column(length = 8192)
+	@JsonIgnore
+	private LinkedHashMap<String, String> fileHashes;
 	@Column(columnDefinition = "boolean default false")
 	private Boolean showAllCategoryRecords;
 	@Column(columnDefinition = "boolean default false")
@@ -102,6 +112,11 @@ public class RecordConfig {
 		        && Objects.equals(this.showAllFederations, other.showAllFederations);
 	}
 
+	@JsonIgnore
+	public Map<String, String> getFileHashes() {
+		return this.fileHashes;
+	}
+
 	@Transient
 	@JsonIgnore
 	public List<RecordEvent> getLoadedFiles() {
@@ -125,6 +140,11 @@ public class RecordConfig {
 		return Objects.hash(this.id, this.recordOrder, this.showAllCategoryRecords, this.showAllFederations);
 	}
 
+	@JsonIgnore
+	public void setFileHashes(Map<String, String> fileHashes) {
+		this.fileHashes = fileHashes != null ? new LinkedHashMap<>(fileHashes) : null;
+	}
+
 	@Transient
 	@JsonIgnore
 	public void setLoadedFiles(List<RecordEvent> ignored) {
@@ -6,11 +6,14 @@
  *******************************************************************************/
 package app.owlcms.data.records;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.time.Year;
@@ -18,7 +21,12 @@ import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 
 import org.apache.commons.io.FilenameUtils;
@@ -56,6 +64,21 @@ public class RecordDefinitionReader {
 
 	private final static Logger logger = (Logger) LoggerFactory.getLogger(RecordDefinitionReader.class);
 	private final static Logger startupLogger = Main.getStartupLogger();
+	private static volatile CompletableFuture<Void> loading;
+	private static volatile Thread loadingThread;
+
+	/**
+	 * Wait until the records being loaded in the background are in the database. Returns immediately if no loading
+	 * was started.
+	 */
+	public static void awaitRecords() {
+		CompletableFuture<Void> l = loading;
+		if (l == null || l.isDone() || Thread.currentThread() == loadingThread) {
+			return;
+		}
+		logger.info("waiting for records to be loaded");
+		l.join();
+	}
 
 	public static List<String> createRecords(Workbook workbook, String name, String baseName) {
 		cleanUp(baseName);
@@ -338,7 +361,12 @@ public class RecordDefinitionReader {
 		});
 	}
 
+	/**
+	 * Load the record definition files from the local records folder. A file that has not changed since it was loaded
+	 * is not read again.
+	 */
 	public static void loadRecords() {
+		long now = System.currentTimeMillis();
 		Path recordsPath;
 		try {
 			recordsPath = ResourceWalker.getFileOrResourcePath("/records");
@@ -354,50 +382,84 @@ public class RecordDefinitionReader {
 		} catch (FileNotFoundException e1) {
 			logger.error("cannot find records {}", LoggerUtils.stackTrace(e1));
 		}
+		logger.info("loaded records ({} ms)", System.currentTimeMillis() - now);
+	}
 
+	/**
+	 * Load the records on a background thread. The queries on records wait until they are loaded.
+	 */
+	public static synchronized void loadRecordsInBackground() {
+		if (loading != null && !loading.isDone()) {
+			return;
+		}
+		loading = CompletableFuture.runAsync(() -> {
+			try {
+				loadRecords();
+			} catch (Exception e) {
+				LoggerUtils.logError(logger, e);
+			}
+		}, r -> {
+			loadingThread = new Thread(r, "records");
+			loadingThread.setDaemon(true);
+			loadingThread.start();
+		});
 	}
 
+	/**
+	 * Read the Excel files in a folder. Files are parsed in parallel; a file is skipped if its content is the same as
+	 * when it was last loaded and its records are still present.
+	 *
+	 * @param recordsPath
+	 * @throws IOException
+	 */
 	public static void readFolder(Path recordsPath) throws IOException {
 		if (recordsPath == null || !Files.exists(recordsPath)) {
 			return;
 		}
-		Files.walk(recordsPath).filter(f -> f.toString().endsWith(".xls") || f.toString().endsWith(".xlsx"))
-		        .forEach(f -> {
-			        InputStream is;
-			        String fileName = f.getFileName().toString();
-			        try {
-				        is = Files.newInputStream(f);
-				        readInputStream(is, fileName);
-			        } catch (IOException e1) {
-				        logger.error("could not open record definition file {}\n{}", fileName,
-				                LoggerUtils./**/stackTrace(e1));
-				        startupLogger.error("could not open record definition file {}.  See log files for details.",
-				                fileName);
-			        }
-
-		        });
-
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(recordsPath)) {
+			files = walk.filter(f -> f.toString().endsWith(".xls") || f.toString().endsWith(".xlsx"))
+			        .collect(Collectors.toList());
+		}
+		Map<String, String> loadedHashes = RecordRepository.findFileHashes();
+		files.parallelStream().forEach(f -> {
+			String fileName = f.getFileName().toString();
+			byte[] content;
+			try {
+				content = Files.readAllBytes(f);
+			} catch (IOException e1) {
+				logger.error("could not open record definition file {}\n{}", fileName,
+				        LoggerUtils./**/stackTrace(e1));
+				startupLogger.error("could not open record definition file {}.  See log files for details.",
+				        fileName);
+				return;
+			}
+			String hash = contentHash(content);
+			if (hash.equals(loadedHashes.get(FilenameUtils.removeExtension(fileName)))) {
+				logger.info("record definition file {} unchanged", fileName);
+				return;
+			}
+			readInputStream(new ByteArrayInputStream(content), fileName, hash);
+		});
 	}
 
+	/**
+	 * Load an uploaded record definition file. Its hash replaces the one of the file with the same name, so a local file
+	 * with different content is loaded again on the next start.
+	 *
+	 * @param is
+	 * @param fileName
+	 * @return the errors found in the file
+	 */
 	public static List<String> readInputStream(InputStream is, String fileName) {
-		List<String> errors = new ArrayList<>();
-		try (Workbook workbook = WorkbookFactory.create(is)) {
-			logger.info("loading record definition file {} {}", fileName,
-			        FilenameUtils.removeExtension(fileName));
-			startupLogger.info("loading record definition file {}", fileName);
-
-			errors = createRecords(workbook, fileName,
-			        FilenameUtils.removeExtension(fileName.toString()));
-			return errors;
-		} catch (Exception e) {
-			logger.error("could not process record definition file {}\n{}", fileName,
-			        LoggerUtils./**/stackTrace(e));
-			startupLogger.error(
-			        "could not process record definition file {}. See log files for details.",
-			        fileName);
-			errors.add(Translator.translate("Records.couldNotProcess", fileName));
-			return errors;
+		byte[] content;
+		try {
+			content = is.readAllBytes();
+		} catch (IOException e) {
+			logger.error("could not read record definition file {}\n{}", fileName, LoggerUtils./**/stackTrace(e));
+			return new ArrayList<>(List.of(Translator.translate("Records.couldNotProcess", fileName)));
 		}
+		return readInputStream(new ByteArrayInputStream(content), fileName, contentHash(content));
 	}
 
 	public static void readZip(InputStream source) throws IOException {
@@ -431,6 +493,7 @@ public class RecordDefinitionReader {
 
 	public static void resetRecords() {
 		Path recordsPath;
+		awaitRecords();
 		try {
 			recordsPath = ResourceWalker.getFileOrResourcePath("/records");
 			try {
@@ -448,12 +511,48 @@ public class RecordDefinitionReader {
 		}
 	}
 
+	private static String contentHash(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is required on all Java platforms
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private static void cleanUp(String fileName) {
 		logger.info("removing records originally from {}", fileName);
 		RecordRepository.clearRecordsOriginallyFromFile(fileName);
 
 	}
 
+	private static List<String> readInputStream(InputStream is, String fileName, String hash) {
+		List<String> errors = new ArrayList<>();
+		try (Workbook workbook = WorkbookFactory.create(is)) {
+			logger.info("loading record definition file {} {}", fileName,
+			        FilenameUtils.removeExtension(fileName));
+			startupLogger.info("loading record definition file {}", fileName);
+
+			// workbooks are parsed in parallel, the records are written one file at a time
+			synchronized (RecordDefinitionReader.class) {
+				String baseName = FilenameUtils.removeExtension(fileName.toString());
+				errors = createRecords(workbook, fileName, baseName);
+				if (hash != null) {
+					RecordRepository.saveFileHash(baseName, hash);
+				}
+			}
+			return errors;
+		} catch (Exception e) {
+			logger.error("could not process record definition file {}\n{}", fileName,
+			        LoggerUtils./**/stackTrace(e));
+			startupLogger.error(
+			        "could not process record definition file {}. See log files for details.",
+			        fileName);
+			errors.add(Translator.translate("Records.couldNotProcess", fileName));
+			return errors;
+		}
+	}
+
 	private static boolean isEmptyRow(RecordEvent rec) {
 		return rec.getRecordFederation() == null || rec.getRecordFederation().isBlank();
 	}
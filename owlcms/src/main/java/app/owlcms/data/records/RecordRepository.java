@@ -9,8 +9,11 @@ package app.owlcms.data.records;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -45,6 +48,8 @@ public class RecordRepository {
 			q.executeUpdate();
 			return null;
 		});
+		// read the file again on next startup
+		updateFileHashes(hashes -> hashes.remove(re.getFileName()));
 	}
 
 	/**
@@ -64,6 +69,7 @@ public class RecordRepository {
 			}
 			return null;
 		});
+		updateFileHashes(hashes -> hashes.clear());
 	}
 
 	/**
@@ -108,6 +114,7 @@ public class RecordRepository {
 			}
 			return null;
 		});
+		updateFileHashes(hashes -> hashes.clear());
 	}
 
 	public static void clearRecordsOriginallyFromFile(String fileName) {
@@ -156,10 +163,12 @@ public class RecordRepository {
 	 * @return the list
 	 */
 	public static List<RecordEvent> findAll() {
+		RecordDefinitionReader.awaitRecords();
 		return JPAService.runInTransaction(em -> doFindAll(em));
 	}
 
 	public static List<RecordEvent> findAllLoadedRecords() {
+		RecordDefinitionReader.awaitRecords();
 		ArrayList<RecordEvent> recordEventStubs = new ArrayList<>();
 		JPAService.runInTransaction(em -> {
 			Query q = em.createNativeQuery(
@@ -181,6 +190,7 @@ public class RecordRepository {
 	}
 
 	public static List<String> findAllRecordNames() {
+		RecordDefinitionReader.awaitRecords();
 		ArrayList<String> names = new ArrayList<>();
 		JPAService.runInTransaction(em -> {
 			Query q = em.createNativeQuery("SELECT DISTINCT a.recordName FROM RecordEvent a");
@@ -196,20 +206,41 @@ public class RecordRepository {
 	}
 
 	public static RecordEvent findByName(String name) {
+		RecordDefinitionReader.awaitRecords();
 		return JPAService.runInTransaction(em -> {
 			return doFindByName(name, em);
 		});
 	}
 
+	/**
+	 * @return the content hash of the record definition files last loaded, by file name without extension, for the
+	 *         files whose records are still in the database
+	 */
+	public static Map<String, String> findFileHashes() {
+		return JPAService.runInTransaction(em -> {
+			RecordConfig rc = em.find(RecordConfig.class, 1L);
+			Map<String, String> hashes = new LinkedHashMap<>();
+			if (rc != null && rc.getFileHashes() != null) {
+				hashes.putAll(rc.getFileHashes());
+			}
+			// records may have been deleted since, the hash alone is not enough.
+			List<String> present = em
+			        .createQuery("select distinct rec.fileName from RecordEvent rec where rec.groupNameString is null",
+			                String.class)
+			        .getResultList();
+			hashes.keySet().retainAll(present);
+			return hashes;
+		});
+	}
+
 	public static List<RecordEvent> findFiltered(Gender gender, Integer age, Double bw, String groupName,
 	        Boolean newRecords) {
+		RecordDefinitionReader.awaitRecords();
 		List<RecordEvent> findFiltered = JPAService.runInTransaction(em -> {
-			String qlString = "select rec from RecordEvent rec "
-			        + filteringSelection(gender, age, bw, groupName, newRecords)
-			        + " order by rec.gender, rec.ageGrpLower, rec.ageGrpUpper, rec.bwCatUpper, rec.recordValue desc";
+			String qlString = filteredQuery(gender, age, bw, groupName, newRecords);
 			logger.debug("query = {}", qlString);
 
-			Query query = em.createQuery(qlString);
+			Query query = JPAService.cacheable(em.createQuery(qlString));
 			setFilteringParameters(gender, age, bw, groupName, newRecords, query);
 			@SuppressWarnings("unchecked")
 			List<RecordEvent> resultList = query.getResultList();
@@ -218,6 +249,17 @@ public class RecordRepository {
 		return findFiltered;
 	}
 
+	/**
+	 * The query run by {@link #findFiltered}. Public so that QueryPlanTest explains the same text.
+	 *
+	 * @return the JPQL; the parameters are those set by setFilteringParameters
+	 */
+	public static String filteredQuery(Gender gender, Integer age, Double bw, String groupName, Boolean newRecords) {
+		return "select rec from RecordEvent rec "
+		        + filteringSelection(gender, age, bw, groupName, newRecords)
+		        + " order by rec.gender, rec.ageGrpLower, rec.ageGrpUpper, rec.bwCatUpper, rec.recordValue desc";
+	}
+
 	/**
 	 * Gets record by id
 	 *
@@ -233,6 +275,7 @@ public class RecordRepository {
 	}
 
 	public static void reloadDefinitions(String localizedFileName) throws IOException {
+		RecordDefinitionReader.awaitRecords();
 		clearLoadedRecords();
 		InputStream is = ResourceWalker.getResourceAsStream(localizedFileName);
 		RecordDefinitionReader.readZip(is);
@@ -260,6 +303,16 @@ public class RecordRepository {
 		return nRecord;
 	}
 
+	/**
+	 * Record the content hash of a record definition file that has been loaded.
+	 *
+	 * @param fileName file name without extension, as in {@link RecordEvent#getFileName()}
+	 * @param hash     content hash
+	 */
+	public static void saveFileHash(String fileName, String hash) {
+		updateFileHashes(hashes -> hashes.put(fileName, hash));
+	}
+
 	@SuppressWarnings("unchecked")
 	private static List<RecordEvent> doFindAll(EntityManager em) {
 		return em.createQuery(
@@ -316,4 +369,20 @@ public class RecordRepository {
 		}
 	}
 
+	private static void updateFileHashes(Consumer<Map<String, String>> update) {
+		JPAService.runInTransaction(em -> {
+			RecordConfig rc = em.find(RecordConfig.class, 1L);
+			if (rc == null) {
+				rc = em.merge(new RecordConfig());
+			}
+			Map<String, String> hashes = new LinkedHashMap<>();
+			if (rc.getFileHashes() != null) {
+				hashes.putAll(rc.getFileHashes());
+			}
+			update.accept(hashes);
+			rc.setFileHashes(hashes);
+			return null;
+		});
+	}
+
 }
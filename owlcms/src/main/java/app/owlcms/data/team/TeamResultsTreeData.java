@@ -11,6 +11,7 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.LoggerFactory;
@@ -19,7 +20,6 @@ import com.vaadin.flow.data.provider.hierarchy.TreeData;
 
 import app.owlcms.data.agegroup.Championship;
 import app.owlcms.data.athlete.Athlete;
-import app.owlcms.data.athlete.AthleteRepository;
 import app.owlcms.data.athlete.Gender;
 import app.owlcms.data.athleteSort.AthleteSorter;
 import app.owlcms.data.athleteSort.Ranking;
@@ -32,12 +32,25 @@ import ch.qos.logback.classic.Logger;
 @SuppressWarnings("serial")
 public class TeamResultsTreeData extends TreeData<TeamTreeItem> {
 
+	/**
+	 * Team athletes of an age group or championship, by gender, as computed for the given version of the rankings.
+	 */
+	private record TeamAthletes(Competition competition, long rankingsVersion, Map<Gender, List<Athlete>> byGender) {
+	}
+
+	/**
+	 * The team displays and the team results page build trees for the same age groups on every refresh; the reporting
+	 * lists are only recomputed when the rankings have changed. Every saved lift changes them, so this saves the
+	 * refreshes between lifts, not the recomputation after each lift.
+	 */
+	private static final Map<String, TeamAthletes> teamAthletesCache = new ConcurrentHashMap<>();
+
 	Map<Gender, List<TeamTreeItem>> teamsByGender = new EnumMap<>(Gender.class);
 	private boolean debug = false;
 	private List<Group> doneGroups = null;
 	private Gender genderFilterValue;
 	private final Logger logger = (Logger) LoggerFactory.getLogger(TeamResultsTreeData.class);
-	private HashMap<String, Object> reportingBeans;
+	private Map<Gender, List<Athlete>> teamAthletes;
 	private Ranking ranking;
 
 	public TeamResultsTreeData(String ageGroupPrefix, Championship ageDivision, Gender gender, Ranking ranking,
@@ -60,8 +73,7 @@ public class TeamResultsTreeData extends TreeData<TeamTreeItem> {
 	}
 
 	private void buildTeamItemTree(
-	        HashMap<String, Object> reportingBeans2,
-	        String ageGroupPrefix,
+	        Map<Gender, List<Athlete>> teamAthletes2,
 	        Championship ageDivision,
 	        boolean includeNotDone) {
 		this.doneGroups = null; // force recompute.
@@ -81,12 +93,7 @@ public class TeamResultsTreeData extends TreeData<TeamTreeItem> {
 			}
 
 			TeamTreeItem curTeamItem = null;
-			String key = computeGenderKey(gender) + "Team"
-			        + (ageGroupPrefix != null ? ageGroupPrefix : ageDivision.getName());
-			this.logger.debug("looking for {} in {}", key, this.reportingBeans.keySet());
-
-			@SuppressWarnings("unchecked")
-			List<Athlete> athletes = (List<Athlete>) this.reportingBeans.get(key);
+			List<Athlete> athletes = teamAthletes2.get(gender);
 			if (athletes == null) {
 				return;
 			}
@@ -200,14 +207,44 @@ public class TeamResultsTreeData extends TreeData<TeamTreeItem> {
 			if (found != null) {
 				curTeamItem = found;
 			} else {
+				// size is the number of team athletes found in the list
 				curTeamItem = new TeamTreeItem(curTeamName, gender, null, false);
-				curTeamItem.getTeam().setSize(AthleteRepository.countTeamMembers(curTeamName, gender));
 				teamItemsByGender.get(gender).add(curTeamItem);
 			}
 		}
 		return curTeamItem;
 	}
 
+	private Map<Gender, List<Athlete>> findTeamAthletes(String ageGroupPrefix, Championship ageDivision) {
+		if (ageDivision == null) {
+			return Map.of();
+		}
+		Competition competition = Competition.getCurrent();
+		String name = ageGroupPrefix != null ? ageGroupPrefix : ageDivision.getName();
+		String cacheKey = (ageGroupPrefix != null ? ageGroupPrefix : "") + "/" + ageDivision.getName();
+		TeamAthletes cached = teamAthletesCache.get(cacheKey);
+		// read before computing: a change during the computation will cause a new computation next time.
+		long rankingsVersion = competition.getRankingsVersion();
+		if (cached != null && cached.competition() == competition && cached.rankingsVersion() == rankingsVersion) {
+			return cached.byGender();
+		}
+
+		HashMap<String, Object> reportingBeans = competition.computeReportingInfo(ageGroupPrefix, ageDivision);
+		Map<Gender, List<Athlete>> byGender = new EnumMap<>(Gender.class);
+		for (Gender gender : Gender.mfValues()) {
+			String key = computeGenderKey(gender) + "Team" + name;
+			this.logger.debug("looking for {} in {}", key, reportingBeans.keySet());
+			@SuppressWarnings("unchecked")
+			List<Athlete> athletes = (List<Athlete>) reportingBeans.get(key);
+			if (athletes != null) {
+				// the reporting beans are replaced by the next computation
+				byGender.put(gender, List.copyOf(athletes));
+			}
+		}
+		teamAthletesCache.put(cacheKey, new TeamAthletes(competition, rankingsVersion, byGender));
+		return byGender;
+	}
+
 	private Integer getTopNTeamSize(Gender gender) {
 		Integer maxCount = null;
 		Competition comp = Competition.getCurrent();
@@ -239,8 +276,8 @@ public class TeamResultsTreeData extends TreeData<TeamTreeItem> {
 			this.logger.setLevel(Level.DEBUG);
 		}
 		// logger.debug("init tree {} {}", ageGroupPrefix, ageDivision);
-		this.reportingBeans = Competition.getCurrent().computeReportingInfo(ageGroupPrefix, ageDivision);
-		buildTeamItemTree(this.reportingBeans, ageGroupPrefix, ageDivision, includeNotDone);
+		this.teamAthletes = findTeamAthletes(ageGroupPrefix, ageDivision);
+		buildTeamItemTree(this.teamAthletes, ageDivision, includeNotDone);
 		if (this.debug) {
 			dumpTeams();
 		}
@@ -6,7 +6,6 @@
  *******************************************************************************/
 package app.owlcms.displays.athletecard;
 
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +31,7 @@ import app.owlcms.data.agegroup.AgeGroup;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.category.Category;
 import app.owlcms.data.group.Group;
+import app.owlcms.displays.attemptboard.AthleteRenderModel;
 import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsFactory;
@@ -173,8 +173,9 @@ public class AthleteCard extends LitTemplate
 	protected void onAttach(AttachEvent attachEvent) {
 		init();
 
-		getElement().setProperty("fullName", this.athlete.getFullName());
-		getElement().setProperty("team", this.athlete.getTeam());
+		AthleteRenderModel model = AthleteRenderModel.of(this.athlete);
+		getElement().setProperty("fullName", model.fullName());
+		getElement().setProperty("team", model.team());
 		getElement().setProperty("bodyWeight", String.format("%.2f", this.athlete.getBodyWeight()));
 		AgeGroup ageGroup = this.athlete.getAgeGroup();
 		getElement().setProperty("ageGroup", ageGroup != null ? ageGroup.getName() : "");
@@ -232,13 +233,7 @@ public class AthleteCard extends LitTemplate
 
 	protected void setTranslationMap() {
 		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Card.")) {
-				translations.put(curKey.replace("Card.", ""), Translator.translate(curKey));
-			}
-		}
+		Translator.getTranslationSubset("Card.").translations().forEach((k, v) -> translations.put(k, v));
 		this.getElement().setPropertyJson("t", translations);
 	}
 
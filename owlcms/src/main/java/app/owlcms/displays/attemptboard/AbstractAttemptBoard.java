@@ -6,8 +6,6 @@
  *******************************************************************************/
 package app.owlcms.displays.attemptboard;
 
-import java.util.Arrays;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,11 +34,9 @@ import app.owlcms.components.elements.DecisionElement;
 import app.owlcms.components.elements.PlatesElement;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.athlete.AthleteRepository;
-import app.owlcms.data.category.Category;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.config.Config;
 import app.owlcms.data.group.Group;
-import app.owlcms.data.team.Team;
 import app.owlcms.displays.video.StylesDirSelection;
 import app.owlcms.fieldofplay.FOPState;
 import app.owlcms.fieldofplay.FieldOfPlay;
@@ -579,46 +575,21 @@ public abstract class AbstractAttemptBoard extends LitTemplate implements
 			return;
 		}
 
-		String lastName = a.getLastName();
-		this.getElement().setProperty("lastName", lastName.toUpperCase());
-		if (lastName.length() > 18) {
+		AthleteRenderModel model = AthleteRenderModel.of(a);
+		this.getElement().setProperty("lastName", model.lastName());
+		if (model.longName()) {
 			this.getElement().setProperty("nameSizeOverride",
 			        "font-size: 8vh; line-height: 8vh; text-wrap: balance; text-overflow: hidden");
 		}
-		
-		String lFirst = a.getFirstName();
-		// add the out-of-competition marker if defined in the translation file.
-		if (!a.isEligibleForIndividualRanking() && lFirst != null && !lFirst.isBlank()) {
-			lFirst = Translator.translate("Attempt.Extra/Invited", lFirst);
-		}
-		this.getElement().setProperty("firstName", lFirst);
-		
+		this.getElement().setProperty("firstName", model.firstName());
+
 		this.getElement().setProperty("decisionVisible", false);
-		Category category2 = a.getCategory();
-		this.getElement().setProperty("category", category2 != null ? category2.getDisplayName() : "");
+		this.getElement().setProperty("category", model.category());
 		this.getElement().setProperty("athletePictures", isAthletePictures());
 
-		String team = a.getTeam();
-		if (team == null) {
-			team = "";
-		}
-		this.getElement().setProperty("teamName", team);
-		this.getElement().setProperty("teamFlagImg", "");
-		String teamFileName = URLUtils.sanitizeFilename(team);
-		if (this.teamFlags && !team.isBlank()) {
-			Arrays.stream(Team.getFlagExtensions())
-			        .anyMatch(ext -> URLUtils.setImgProp("teamFlagImg", "flags/", teamFileName, ext, this));
-		}
-
-		String membership = a.getMembership();
-		this.getElement().setProperty("athleteImg", "");
-		if (isAthletePictures() && membership != null) {
-			boolean done;
-			done = URLUtils.setImgProp("athleteImg", "pictures/", membership, ".jpg", this);
-			if (!done) {
-				done = URLUtils.setImgProp("athleteImg", "pictures/", membership, ".jpeg", this);
-			}
-		}
+		this.getElement().setProperty("teamName", model.team());
+		this.getElement().setProperty("teamFlagImg", this.teamFlags ? model.teamFlagImg() : "");
+		this.getElement().setProperty("athleteImg", isAthletePictures() ? model.athleteImg() : "");
 
 		spotlightRecords(fop, a);
 
@@ -734,13 +705,7 @@ public abstract class AbstractAttemptBoard extends LitTemplate implements
 
 	protected void setTranslationMap() {
 		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Scoreboard.")) {
-				translations.put(curKey.replace("Scoreboard.", ""), Translator.translate(curKey));
-			}
-		}
+		Translator.getTranslationSubset("Scoreboard.").translations().forEach((k, v) -> translations.put(k, v));
 		this.getElement().setPropertyJson("t", translations);
 	}
 
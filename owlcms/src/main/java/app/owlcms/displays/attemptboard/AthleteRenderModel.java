@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.displays.attemptboard;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.category.Category;
+import app.owlcms.data.team.Team;
+import app.owlcms.i18n.Translator;
+import app.owlcms.utils.ResourceWalker;
+import app.owlcms.utils.URLUtils;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * What the attempt boards and the athlete card show about an athlete, independently of the attempt.
+ *
+ * The values are computed once and shared by all the displays. They are computed again when something they depend on
+ * changes: the names, eligibility, category, team or membership of the athlete, the language, or the files in the
+ * local override directory (flags and pictures).
+ *
+ * @param lastName    last name in upper case
+ * @param longName    true if the last name needs a smaller font
+ * @param firstName   first name, with the out-of-competition marker if needed
+ * @param fullName    formatted full name
+ * @param category    category display name, empty if none
+ * @param team        team name, empty if none
+ * @param teamFlagImg image tag for the team flag, empty if none
+ * @param athleteImg  image tag for the athlete picture, empty if none
+ *
+ * @author Jean-François Lamy
+ */
+public record AthleteRenderModel(String lastName, boolean longName, String firstName, String fullName,
+        String category, String team, String teamFlagImg, String athleteImg) {
+
+	private record Cached(Inputs inputs, AthleteRenderModel model) {
+	}
+
+	private record Inputs(String lastName, String firstName, boolean eligible, String category, String team,
+	        String membership, Locale locale, long resourcesVersion) {
+	}
+
+	private static final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(AthleteRenderModel.class);
+	private static final int LONG_NAME = 18;
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * @param a an athlete
+	 * @return the values to display for the athlete
+	 */
+	public static AthleteRenderModel of(Athlete a) {
+		Category cat = a.getCategory();
+		Inputs inputs = new Inputs(a.getLastName(), a.getFirstName(), a.isEligibleForIndividualRanking(),
+		        cat != null ? cat.getDisplayName() : "", a.getTeam(), a.getMembership(),
+		        Translator.getLocaleSupplier().get(), ResourceWalker.getLocalResourcesVersion());
+		if (a.getId() == null) {
+			return compute(a, inputs);
+		}
+		Cached cached = cache.get(a.getId());
+		if (cached != null && cached.inputs().equals(inputs)) {
+			return cached.model();
+		}
+		AthleteRenderModel model = compute(a, inputs);
+		cache.put(a.getId(), new Cached(inputs, model));
+		logger.trace("render model computed for {}", a.getShortName());
+		return model;
+	}
+
+	private static AthleteRenderModel compute(Athlete a, Inputs inputs) {
+		String lastName = Objects.toString(inputs.lastName(), "");
+		String firstName = inputs.firstName();
+		// add the out-of-competition marker if defined in the translation file.
+		if (!inputs.eligible() && firstName != null && !firstName.isBlank()) {
+			firstName = Translator.translate("Attempt.Extra/Invited", firstName);
+		}
+		String team = Objects.toString(inputs.team(), "");
+
+		String teamFlagImg = null;
+		if (!team.isBlank() && URLUtils.checkFlags()) {
+			String teamFileName = URLUtils.sanitizeFilename(team);
+			for (String ext : Team.getFlagExtensions()) {
+				teamFlagImg = URLUtils.getImgTag("flags/", teamFileName, ext);
+				if (teamFlagImg != null) {
+					break;
+				}
+			}
+		}
+
+		String membership = inputs.membership();
+		String athleteImg = null;
+		if (membership != null) {
+			athleteImg = URLUtils.getImgTag("pictures/", membership, ".jpg");
+			if (athleteImg == null) {
+				athleteImg = URLUtils.getImgTag("pictures/", membership, ".jpeg");
+			}
+		}
+
+		return new AthleteRenderModel(lastName.toUpperCase(), lastName.length() > LONG_NAME, firstName,
+		        a.getFullName(), inputs.category(), team, Objects.toString(teamFlagImg, ""),
+		        Objects.toString(athleteImg, ""));
+	}
+
+}
@@ -8,7 +8,6 @@ package app.owlcms.displays.scoreboard;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -1019,13 +1018,7 @@ public class Results extends LitTemplate
 
 	protected void setTranslationMap() {
 		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Scoreboard.")) {
-				translations.put(curKey.replace("Scoreboard.", ""), Translator.translate(curKey));
-			}
-		}
+		Translator.getTranslationSubset("Scoreboard.").translations().forEach((k, v) -> translations.put(k, v));
 		translations.put("ScoringTitle", Translator.translate("Score"));
 		this.getElement().setPropertyJson("t", translations);
 	}
@@ -8,7 +8,6 @@ package app.owlcms.displays.scoreboard;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -405,13 +404,7 @@ public class ResultsMedals extends Results implements ResultsParameters, Display
 	@Override
 	protected void setTranslationMap() {
 		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Scoreboard.")) {
-				translations.put(curKey.replace("Scoreboard.", ""), Translator.translate(curKey));
-			}
-		}
+		Translator.getTranslationSubset("Scoreboard.").translations().forEach((k, v) -> translations.put(k, v));
 		this.getElement().setPropertyJson("t", translations);
 	}
 
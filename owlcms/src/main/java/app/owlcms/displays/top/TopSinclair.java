@@ -6,9 +6,7 @@
  *******************************************************************************/
 package app.owlcms.displays.top;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +27,7 @@ import app.owlcms.data.athlete.LiftDefinition.Changes;
 import app.owlcms.data.athlete.LiftInfo;
 import app.owlcms.data.athlete.XAthlete;
 import app.owlcms.data.athleteSort.AthleteSorter;
+import app.owlcms.data.athleteSort.Leaderboard;
 import app.owlcms.data.athleteSort.Ranking;
 import app.owlcms.data.category.Category;
 import app.owlcms.data.competition.Competition;
@@ -102,15 +101,13 @@ public class TopSinclair extends AbstractTop {
 		FieldOfPlay fop = OwlcmsSession.getFop();
 		setBoardMode(fop.getState(), fop.getBreakType(), fop.getCeremonyType(), getElement());
 
-		// create copies because we want to change the list
+		// kept up to date by the platforms, no need to recompute the global rankings
 		AthleteSorter.TopScore topScores;
-		List<Athlete> sortedMen2 = new ArrayList<>(competition.getGlobalScoreRanking(Gender.M));
-		topScores = (AthleteSorter.topScore(sortedMen2, 10));
+		topScores = Leaderboard.getCurrent().topScore(Gender.M, 10);
 		setSortedMen(topScores.topAthletes);
 		this.topManScore = topScores.best;
 
-		List<Athlete> sortedWomen2 = new ArrayList<>(competition.getGlobalScoreRanking(Gender.F));
-		topScores = (AthleteSorter.topScore(sortedWomen2, 10));
+		topScores = Leaderboard.getCurrent().topScore(Gender.F, 10);
 		setSortedWomen(topScores.topAthletes);
 		this.topWomanScore = topScores.best;
 
@@ -293,13 +290,7 @@ public class TopSinclair extends AbstractTop {
 	@Override
 	protected void setTranslationMap() {
 		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Scoreboard.")) {
-				translations.put(curKey.replace("Scoreboard.", ""), Translator.translate(curKey));
-			}
-		}
+		Translator.getTranslationSubset("Scoreboard.").translations().forEach((k, v) -> translations.put(k, v));
 		String scoringTitle = Ranking.getScoringTitle(Competition.getCurrent().getScoringSystem());
 		translations.put("ScoringTitle", scoringTitle != null ? scoringTitle : Translator.translate("Sinclair"));
 		this.getElement().setPropertyJson("t", translations);
@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JsModule;
@@ -38,6 +39,7 @@ import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsFactory;
 import app.owlcms.init.OwlcmsSession;
+import app.owlcms.monitors.DelayedUpdate;
 import app.owlcms.nui.lifting.UIEventProcessor;
 import app.owlcms.nui.shared.SafeEventBusRegistration;
 import app.owlcms.uievents.BreakType;
@@ -99,6 +101,7 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 	}
 
 	final static int HISTORY_SIZE = 3;
+	private static final long SHOW_LONGER_MS = 1000;
 	final private static Logger uiEventLogger = (Logger) LoggerFactory
 	        .getLogger("UI" + StreamingEventMonitor.class.getSimpleName());
 
@@ -136,6 +139,7 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 	private FieldOfPlay fop;
 	private Group group;
 	private QueryParameters defaultParameters;
+	private final DelayedUpdate delayedUpdate = new DelayedUpdate();
 
 	/**
 	 * Instantiates a new results board.
@@ -316,6 +320,12 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 		doUpdate();
 	}
 
+	@Override
+	protected void onDetach(DetachEvent detachEvent) {
+		this.delayedUpdate.cancel();
+		super.onDetach(detachEvent);
+	}
+
 	void uiLog(UIEvent e) {
 		uiEventLogger.debug("### {} {} {} {}", this.getClass().getSimpleName(), e.getClass().getSimpleName(),
 		        this.getOrigin(), e.getOrigin());
@@ -436,24 +446,18 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 			if (waitBeforeChangingStatus > 0) {
 				if ((!this.title.startsWith("state=DECISION"))) {
 					this.logger.info("#### DELAYING {} monitor {}", waitBeforeChangingStatus, this.title);
-					new java.util.Timer().schedule(
-					        new java.util.TimerTask() {
-						        @Override
-						        public void run() {
-							        ui.access(() -> {
-								        updateBar(element, StreamingEventMonitor.this.title);
-								        StreamingEventMonitor.this.logger.info("#### DELAYED monitor {}",
-								                StreamingEventMonitor.this.title);
-							        });
-						        }
-					        },
-					        waitBeforeChangingStatus);
+					this.delayedUpdate.schedule(ui, waitBeforeChangingStatus, () -> {
+						updateBar(ui, element, this.title);
+						this.logger.info("#### DELAYED monitor {}", this.title);
+					});
 				} else {
-					updateBar(element, this.title);
+					this.delayedUpdate.cancel();
+					updateBar(ui, element, this.title);
 					this.logger.info("#### DECISION monitor {}", this.title);
 				}
 			} else {
-				updateBar(element, this.title);
+				this.delayedUpdate.cancel();
+				updateBar(ui, element, this.title);
 				this.logger.info("#### notification monitor {}", this.title);
 			}
 			this.prevTitle = this.title;
@@ -530,14 +534,7 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 		return significant[0];
 	}
 
-	private void updateBar(Element element, String title) {
-		if (this.showLonger) {
-			try {
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-			}
-			this.showLonger = false;
-		}
+	private void showBar(Element element, String title) {
 		// logger.debug("UpdateBar {}",title);
 		element.setProperty("title", title);
 		element.setProperty("notificationClass", "neutralNotification");
@@ -579,6 +576,16 @@ public class StreamingEventMonitor extends LitTemplate implements FOPParametersR
 
 	}
 
+	private void updateBar(UI ui, Element element, String title) {
+		if (this.showLonger) {
+			// keep the new record notification a bit longer, without holding the UI lock.
+			this.showLonger = false;
+			this.delayedUpdate.schedule(ui, SHOW_LONGER_MS, () -> showBar(element, title));
+		} else {
+			showBar(element, title);
+		}
+	}
+
 	private long waitBeforeChangingStatus() {
 		return getExpiryBeforeChangingStatus() - System.currentTimeMillis();
 	}
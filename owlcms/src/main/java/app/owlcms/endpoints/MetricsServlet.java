@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.endpoints;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.apputils.AccessUtils;
+import app.owlcms.monitors.Metrics;
+import app.owlcms.utils.ProxyUtils;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Metrics in the Prometheus text format, for scraping by a monitoring system.
+ *
+ * Access is restricted to the addresses in the backdoor list, like the competition export.
+ *
+ * @author Jean-François Lamy
+ */
+@SuppressWarnings("serial")
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+	private static Logger logger = (Logger) LoggerFactory.getLogger(MetricsServlet.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+	        throws ServletException, IOException {
+		// use proxyutils because this is a plain servlet, not a Vaadin servlet
+		String host = ProxyUtils.getClientIp(request);
+		if (!AccessUtils.checkBackdoor(host)) {
+			logger.error("{} not in backdoor list, denied metrics access", host);
+			response.setStatus(403);
+			response.flushBuffer();
+			return;
+		}
+		byte[] body = Metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+		response.setStatus(200);
+		response.setContentType("text/plain; version=0.0.4");
+		response.setCharacterEncoding("UTF-8");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+		response.flushBuffer();
+	}
+
+}
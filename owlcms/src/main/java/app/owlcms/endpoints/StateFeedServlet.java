@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.endpoints;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.apputils.AccessUtils;
+import app.owlcms.data.config.Config;
+import app.owlcms.fieldofplay.FieldOfPlay;
+import app.owlcms.init.OwlcmsFactory;
+import app.owlcms.monitors.StateFeed;
+import app.owlcms.utils.ProxyUtils;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * State of a field of play as JSON, for overlays written as static HTML pages.
+ *
+ * <code>/state/A</code> streams the state of platform A as server-sent events (an EventSource in the page); with
+ * <code>?once</code>, or without an event-stream Accept header, the current state is returned once. Without a platform
+ * name, the first platform is used.
+ *
+ * @author Jean-François Lamy
+ */
+@SuppressWarnings("serial")
+@WebServlet(urlPatterns = "/state/*", asyncSupported = true)
+public class StateFeedServlet extends HttpServlet {
+
+	private static Logger logger = (Logger) LoggerFactory.getLogger(StateFeedServlet.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response)
+	        throws ServletException, IOException {
+		// use proxyutils because this is a plain servlet, not a Vaadin servlet
+		String host = ProxyUtils.getClientIp(request);
+		if (!isAllowed(host)) {
+			logger.error("{} not allowed for displays, denied state feed access", host);
+			response.setStatus(403);
+			response.flushBuffer();
+			return;
+		}
+
+		FieldOfPlay fop = fop(request.getPathInfo());
+		if (fop == null) {
+			response.setStatus(404);
+			response.flushBuffer();
+			return;
+		}
+		StateFeed feed = StateFeed.forFop(fop);
+
+		// overlays are often local files loaded by OBS
+		response.setHeader("Access-Control-Allow-Origin", "*");
+		response.setHeader("Cache-Control", "no-cache");
+		response.setCharacterEncoding("UTF-8");
+		String accept = request.getHeader("Accept");
+		if (request.getParameter("once") != null || accept == null || !accept.contains("text/event-stream")) {
+			byte[] body = feed.currentState().getBytes(StandardCharsets.UTF_8);
+			response.setStatus(200);
+			response.setContentType("application/json");
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+			response.flushBuffer();
+			return;
+		}
+
+		response.setStatus(200);
+		response.setContentType("text/event-stream");
+		// no buffering by reverse proxies
+		response.setHeader("X-Accel-Buffering", "no");
+		response.flushBuffer();
+		AsyncContext client = request.startAsync();
+		client.setTimeout(0);
+		feed.addClient(client);
+	}
+
+	/**
+	 * Same rules as the display pages (see RequireDisplayLogin), except that a PIN cannot be entered: when a display
+	 * PIN is set, only the backdoor addresses are allowed.
+	 */
+	private boolean isAllowed(String host) {
+		String displayList = Config.getCurrent().getParamDisplayList();
+		String displayPin = Config.getCurrent().getParamDisplayPin();
+		boolean noDisplayPin = displayPin == null || displayPin.isBlank();
+		boolean noDisplayList = displayList == null || displayList.isBlank();
+		if (noDisplayPin && noDisplayList) {
+			return true;
+		}
+		return AccessUtils.checkBackdoor(host) || (noDisplayPin && AccessUtils.isIpAllowedForDisplay(host));
+	}
+
+	private FieldOfPlay fop(String pathInfo) {
+		String name = pathInfo != null ? pathInfo.replaceAll("^/+|/+$", "") : "";
+		if (name.isBlank()) {
+			return OwlcmsFactory.getDefaultFOP();
+		}
+		return OwlcmsFactory.getFopByName() != null ? OwlcmsFactory.getFOPByName(name) : null;
+	}
+
+}
@@ -33,6 +33,7 @@ import java.util.TreeSet;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
@@ -51,9 +52,11 @@ import app.owlcms.data.agegroup.AgeGroup;
 import app.owlcms.data.agegroup.AgeGroupRepository;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.athlete.AthleteRepository;
-import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.athlete.AthleteWriteBehind;
 import app.owlcms.data.athlete.LiftDefinition;
 import app.owlcms.data.athleteSort.AthleteSorter;
+import app.owlcms.data.athleteSort.Leaderboard;
+import app.owlcms.data.athleteSort.LiftingOrderProjection;
 import app.owlcms.data.athleteSort.Ranking;
 import app.owlcms.data.category.Category;
 import app.owlcms.data.category.Participation;
@@ -61,6 +64,8 @@ import app.owlcms.data.competition.Competition;
 import app.owlcms.data.config.Config;
 import app.owlcms.data.group.Group;
 import app.owlcms.data.jpa.JPAService;
+import app.owlcms.data.platform.PlateLoadingTable;
+import app.owlcms.data.platform.PlateLoadingTable.Equipment;
 import app.owlcms.data.platform.Platform;
 import app.owlcms.data.records.RecordConfig;
 import app.owlcms.data.records.RecordEvent;
@@ -89,6 +94,7 @@ import app.owlcms.init.OwlcmsSession;
 import app.owlcms.monitors.EventForwarder;
 import app.owlcms.monitors.IUnregister;
 import app.owlcms.monitors.MQTTMonitor;
+import app.owlcms.monitors.Metrics;
 import app.owlcms.nui.lifting.AnnouncerContent;
 import app.owlcms.nui.lifting.TimekeeperContent;
 import app.owlcms.sound.Sound;
@@ -183,6 +189,8 @@ public class FieldOfPlay implements IUnregister {
 	private long lastGroupLoaded;
 	private List<Athlete> leaders;
 	private List<Athlete> liftingOrder;
+	private final LiftingOrderProjection liftingOrderProjection = new LiftingOrderProjection();
+	private final LiftOrderHistory liftOrderHistory = new LiftOrderHistory();
 	private int liftsDoneAtLastStart;
 	final private Logger logger = (Logger) LoggerFactory.getLogger(FieldOfPlay.class);
 	private TreeMap<String, TreeSet<Athlete>> medals;
@@ -446,6 +454,20 @@ public class FieldOfPlay implements IUnregister {
 		return this.liftingOrder;
 	}
 
+	/**
+	 * @return the lifts done in the session, in the order they were taken
+	 */
+	public LiftOrderHistory getLiftOrderHistory() {
+		return this.liftOrderHistory;
+	}
+
+	/**
+	 * @return the lifting order, for projecting weight changes
+	 */
+	public LiftingOrderProjection getLiftingOrderProjection() {
+		return this.liftingOrderProjection;
+	}
+
 	/**
 	 * @return the liftsDoneAtLastStart
 	 */
@@ -486,6 +508,22 @@ public class FieldOfPlay implements IUnregister {
 		return this.platform;
 	}
 
+	/**
+	 * Plates for a weight, on the bar that would be used for the athlete at that weight. Looked up in the loading
+	 * table of the platform.
+	 *
+	 * @param a      an athlete
+	 * @param weight the proposed weight
+	 * @return the loading, null if there is no platform
+	 */
+	public PlateLoadingTable.Loading getPlateLoading(Athlete a, int weight) {
+		if (getPlatform() == null) {
+			return null;
+		}
+		Equipment equipment = equipmentFor(a, weight);
+		return PlateLoadingTable.of(getPlatform()).getLoading(weight, equipment.barWeight(), equipment.useCollars());
+	}
+
 	/**
 	 * @return the previous athlete to have lifted (can be the same as current)
 	 */
@@ -609,6 +647,16 @@ public class FieldOfPlay implements IUnregister {
 	 */
 	@Subscribe
 	public synchronized void handleFOPEvent(FOPEvent e) {
+		long start = System.nanoTime();
+		try {
+			doHandleFOPEvent(e);
+		} finally {
+			Metrics.timer("owlcms_fop_event_seconds", "Time spent processing a field of play event",
+			        "fop", this.name, "event", e.getClass().getSimpleName()).stop(start);
+		}
+	}
+
+	private void doHandleFOPEvent(FOPEvent e) {
 		String stackTrace = e.getStackTrace();
 		if (e.getFop() != this) {
 			this.logger./**/error("wrong event subscription {} {}\n{}", e, e.getFop(), this, stackTrace);
@@ -1011,8 +1059,7 @@ public class FieldOfPlay implements IUnregister {
 		}
 
 		// get the correct previous athlete
-		LiftOrderReconstruction lor = new LiftOrderReconstruction(this);
-		LiftOrderInfo lastLift = lor.getLastLift();
+		LiftOrderInfo lastLift = this.liftOrderHistory.getLastLift();
 		this.setPreviousAthlete(lastLift != null ? lastLift.getAthlete() : null);
 
 		if (done) {
@@ -1040,12 +1087,12 @@ public class FieldOfPlay implements IUnregister {
 
 		// we post on these buses
 
-		this.uiEventBus = new AsyncEventBus("UI-" + this.name, new ThreadPoolExecutor(8, Integer.MAX_VALUE,
-		        60L, TimeUnit.SECONDS,
-		        new SynchronousQueue<>()));
-		this.eventForwardingBus = new AsyncEventBus("POST-" + this.name, new ThreadPoolExecutor(1, Integer.MAX_VALUE,
-		        60L, TimeUnit.SECONDS,
-		        new SynchronousQueue<>()));
+		this.uiEventBus = new AsyncEventBus("UI-" + this.name, Metrics.timedExecutor(new ThreadPoolExecutor(8,
+		        Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+		        new SynchronousQueue<>()), "UI-" + this.name));
+		this.eventForwardingBus = new AsyncEventBus("POST-" + this.name, Metrics.timedExecutor(new ThreadPoolExecutor(1,
+		        Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+		        new SynchronousQueue<>()), "POST-" + this.name));
 	}
 
 	public boolean isAnnouncerDecisionImmediate() {
@@ -1096,6 +1143,8 @@ public class FieldOfPlay implements IUnregister {
 			this.logger.debug("{}group {} already loaded", FieldOfPlay.getLoggingName(this), loadGroupName);
 			return;
 		}
+		// the previous session's lift results must be in the database before reloading.
+		AthleteWriteBehind.barrier();
 		this.setGroup(group);
 		this.setCjStarted(false);
 		this.cjBreakDisplayed = false;
@@ -1629,7 +1678,7 @@ public class FieldOfPlay implements IUnregister {
 			setState(DECISION_VISIBLE);
 			pushOutUIEvent(juryNotificationEvent);
 			a.doLift(a.getAttemptsDone(), e.success ? Integer.toString(curValue) : Integer.toString(-curValue));
-			AthleteRepository.save(a);
+			AthleteRepository.saveLiftResults(a);
 
 			// reversal from bad to good should add records
 			// reversal from good to bad must remove records
@@ -2082,6 +2131,8 @@ public class FieldOfPlay implements IUnregister {
 
 	private void pushOutDone() {
 		this.logger.debug("{} *** group {} done", FieldOfPlay.getLoggingName(this), getGroup());
+		// results documents are produced from the database.
+		AthleteWriteBehind.barrier();
 		UIEvent.GroupDone event = new UIEvent.GroupDone(this.getGroup(), null, LoggerUtils.whereFrom(), this);
 		// make sure the publicresults update carries the right state.
 		this.setBreakType(BreakType.GROUP_DONE);
@@ -2233,18 +2284,23 @@ public class FieldOfPlay implements IUnregister {
 
 		logger.debug("{}recompute ranks recomputeCategoryRanks={} [{}]", FieldOfPlay.getLoggingName(this),
 		        recomputeCategoryRanks, LoggerUtils.whereFrom());
+		// with write-behind, the ranks are computed in memory and stored later by AthleteWriteBehind
+		boolean writeBehind = AthleteWriteBehind.isEnabled();
+		Function<Function<EntityManager, List<Athlete>>, List<Athlete>> runner = writeBehind
+		        ? JPAService::runWithoutWriting
+		        : JPAService::runInTransaction;
 		if (recomputeCategoryRanks) {
 			// we update the ranks all athletes in our category, as well as the current scoring system
-			athletes = JPAService.runInTransaction(em -> {
+			athletes = runner.apply(em -> {
 				List<Athlete> l = AthleteSorter.assignCategoryRanks(em, g);
-				List<Athlete> nl = updateScoringSystemRanking(em, l);
+				List<Athlete> nl = updateScoringSystemRanking(em, l, !writeBehind);
 				return nl;
 			});
 		} else {
 			// only recompute the current scoring system
-			athletes = JPAService.runInTransaction(em -> {
+			athletes = runner.apply(em -> {
 				List<Athlete> l = AthleteRepository.findAthletesForGlobalRanking(em, g);
-				List<Athlete> nl = updateScoringSystemRanking(em, l);
+				List<Athlete> nl = updateScoringSystemRanking(em, l, !writeBehind);
 				return nl;
 			});
 		}
@@ -2273,7 +2329,8 @@ public class FieldOfPlay implements IUnregister {
 			        .collect(Collectors.toList());
 
 			setDisplayOrder(currentGroupAthletes);
-			setLiftingOrder(AthleteSorter.liftingOrderCopy(currentGroupAthletes));
+			Leaderboard.getCurrent().update(currentGroupAthletes);
+			setLiftingOrder(this.liftingOrderProjection.update(currentGroupAthletes));
 			boolean groupDone = this.curAthlete != null && this.curAthlete.getAttemptsDone() >= 6;
 			setResultsOrder(AthleteSorter.resultsOrderCopy(currentGroupAthletes,
 			        computeResultOrderRanking(groupDone)));
@@ -2288,6 +2345,9 @@ public class FieldOfPlay implements IUnregister {
 			// }
 			endLeaders = System.nanoTime();
 		}
+		Metrics.timer("owlcms_ranking_recompute_seconds", "Time spent recomputing lifting order and ranks",
+		        "fop", this.name, "categoryRanks", Boolean.toString(recomputeCategoryRanks))
+		        .stop(startAssignRanks);
 
 		if (this.timingLogger.isDebugEnabled()) {
 			this.timingLogger.debug("{}*** {} total={}ms, fetch/assign={}ms medals={}ms liftingOrder={}ms leaders={}ms",
@@ -2302,7 +2362,7 @@ public class FieldOfPlay implements IUnregister {
 
 	}
 
-	private List<Athlete> updateScoringSystemRanking(EntityManager em, List<Athlete> l) {
+	private List<Athlete> updateScoringSystemRanking(EntityManager em, List<Athlete> l, boolean write) {
 		if (Competition.getCurrent().isDisplayScoreRanks()) {
 			// long beforeRanks = System.currentTimeMillis();
 			try {
@@ -2317,12 +2377,11 @@ public class FieldOfPlay implements IUnregister {
 			// logger.debug("-------------------- scoringSystemRankings {}ms", afterRanks - beforeRanks);
 		}
 
-		List<Athlete> nl = new LinkedList<>();
-		for (Athlete a : l) {
-			nl.add(em.merge(a));
+		if (write) {
+			// the athletes are managed by em: only those whose ranks changed are written, as batched updates.
+			em.flush();
 		}
-		em.flush();
-		return nl;
+		return l;
 	}
 
 	private void recomputeRecordsMap(List<Athlete> athletes) {
@@ -2494,6 +2553,7 @@ public class FieldOfPlay implements IUnregister {
 
 	private void setLiftingOrder(List<Athlete> liftingOrder) {
 		this.liftingOrder = liftingOrder;
+		this.liftOrderHistory.update(liftingOrder);
 	}
 
 	private void setPreviousAthlete(Athlete athlete) {
@@ -2596,7 +2656,7 @@ public class FieldOfPlay implements IUnregister {
 			getCurAthlete().resetForcedAsCurrent();
 		}
 		setForcedTime(false);
-		AthleteRepository.save(getCurAthlete());
+		AthleteRepository.saveLiftResults(getCurAthlete());
 		List<RecordEvent> newRecords = updateRecords(getCurAthlete(), getGoodLift(), getChallengedRecords(), List.of());
 		setNewRecords(newRecords);
 		setLastNewRecords(newRecords);
@@ -2916,7 +2976,6 @@ public class FieldOfPlay implements IUnregister {
 		if (getPlatform() == null) {
 			return;
 		}
-		boolean use15Bar = false;
 		if (Config.getCurrent().featureSwitch("childrenEquipment")) {
 			getPlatform().setNbB_5(1);
 			getPlatform().setNbB_10(1);
@@ -2925,44 +2984,24 @@ public class FieldOfPlay implements IUnregister {
 			getPlatform().setNbL_2_5(1);
 			getPlatform().setNbL_5(1);
 		}
-		boolean federationRule = Config.getCurrent().featureSwitch("lightBarU13") && (a.getAgeGroup().getMinAge() <= 12 && a.getAgeGroup().getMaxAge() <= 20);
-		use15Bar = getCurAthlete().getGender() != Gender.M || federationRule;
-
-		if (getPlatform().isUseNonStandardBar()) {
-			// logger.debug("non standard bar: {}", getPlatform().getNonStandardBarWeight());
-			this.setLightBarInUse(true);
-			this.setBarWeight(getPlatform().getNonStandardBarWeight());
-			this.setUseCollarsIfAvailable(this.curWeight >= 40);
-		} else if (newWeight <= 14 && getPlatform().getNbB_5() > 0) {
-			// logger.debug("<= 14");
-			this.setLightBarInUse(true);
-			this.setBarWeight(5);
-			this.setUseCollarsIfAvailable(false);
-		} else if (newWeight <= 19 && getPlatform().getNbB_10() > 0) {
-			// logger.debug("<= 19");
-			this.setLightBarInUse(true);
-			this.setBarWeight(10);
-			this.setUseCollarsIfAvailable(false);
-		} else if ((newWeight <= 39 && (getPlatform().getNbB_20() == 0 || use15Bar) && (getPlatform().getNbB_15() > 0))) {
-			// logger.debug("<= 39 15");
-			this.setLightBarInUse(true);
-			this.setBarWeight(15);
-			this.setUseCollarsIfAvailable(false);
-		} else if ((newWeight >= 40 && (getPlatform().getNbB_20() == 0 || use15Bar) && (getPlatform().getNbB_15() > 0))) {
-			// logger.debug(">=40 15 collars");
-			this.setLightBarInUse(true);
-			this.setBarWeight(15);
-			this.setUseCollarsIfAvailable(true);
-		} else {
-			// logger.debug("standard");
-			this.setLightBarInUse(false);
-			Gender gender = curAthlete != null ? curAthlete.getGender() : null;
-			this.setBarWeight((gender != null && gender == Gender.M) ? 20 : 15);
-			this.setUseCollarsIfAvailable(true);
-		}
+		Equipment equipment = equipmentFor(a, newWeight);
+		this.setLightBarInUse(equipment.lightBar());
+		this.setBarWeight(equipment.barWeight());
+		this.setUseCollarsIfAvailable(equipment.useCollars());
 		return;
 	}
 
+	/**
+	 * @param a         the athlete lifting
+	 * @param newWeight the weight on the bar
+	 * @return the bar and collars to use
+	 */
+	private Equipment equipmentFor(Athlete a, Integer newWeight) {
+		boolean federationRule = Config.getCurrent().featureSwitch("lightBarU13") && a.getAgeGroup() != null
+		        && (a.getAgeGroup().getMinAge() <= 12 && a.getAgeGroup().getMaxAge() <= 20);
+		return PlateLoadingTable.equipmentFor(getPlatform(), a.getGender(), federationRule, newWeight);
+	}
+
 	private void setUseCollarsIfAvailable(boolean b) {
 		this.useCollarsIfAvailable = b;
 	}
@@ -2982,15 +3021,13 @@ public class FieldOfPlay implements IUnregister {
 		this.uiEventLogger.debug("showDownSignalOnSlaveDisplays server={} emitted={}", emitSoundsOnServer2,
 		        downEmitted2);
 		if (emitSoundsOnServer2 && !downEmitted2 && !announcerImmediate) {
-			// sound is synchronous, we don't want to wait.
-			new Thread(() -> {
-				try {
-					new Sound(getSoundMixer(), "down.wav").emit();
-					// downSignal.emit();
-				} catch (IllegalArgumentException /* | LineUnavailableException */ e) {
-					broadcast("SoundSystemProblem");
-				}
-			}).start();
+			// sound is preloaded and played asynchronously, we don't wait.
+			try {
+				new Sound(getSoundMixer(), "down.wav").emit();
+				// downSignal.emit();
+			} catch (IllegalArgumentException /* | LineUnavailableException */ e) {
+				broadcast("SoundSystemProblem");
+			}
 			setDownEmitted(true);
 		}
 		pushOutUIEvent(new UIEvent.DownSignal(origin2, this));
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.fieldofplay;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.data.athlete.Athlete;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Lifts done in the session of a field of play, in the order they were taken according to the rules.
+ *
+ * Same order as {@link LiftOrderReconstruction}, but kept up to date each time the lifting order changes: only the
+ * athletes whose lifts changed (a new lift, a jury reversal, a correction by the announcer) are replaced.
+ *
+ * @author Jean-François Lamy
+ */
+public class LiftOrderHistory {
+
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(LiftOrderHistory.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private final Map<Long, List<LiftOrderInfo>> liftsByAthlete = new HashMap<>();
+	private LiftOrderInfo lastLift;
+	private final TreeSet<LiftOrderInfo> pastOrder = new TreeSet<>();
+
+	/**
+	 * @return the last lift done, null if none
+	 */
+	public synchronized LiftOrderInfo getLastLift() {
+		return this.lastLift;
+	}
+
+	/**
+	 * @return the lifts done, in order
+	 */
+	public synchronized SortedSet<LiftOrderInfo> getPastOrder() {
+		return Collections.unmodifiableSortedSet(new TreeSet<>(this.pastOrder));
+	}
+
+	/**
+	 * @return ordered printout of lifts, one per line, as {@link LiftOrderReconstruction#shortDump()}
+	 */
+	public synchronized String shortDump() {
+		StringBuffer sb = new StringBuffer();
+		for (LiftOrderInfo ali : this.pastOrder) {
+			sb.append(ali.toString());
+			sb.append(LiftOrderReconstruction.LINESEPARATOR);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Bring the history up to date with the athletes of the session.
+	 *
+	 * @param athletes the athletes in the session, null or empty if none
+	 */
+	synchronized void update(List<Athlete> athletes) {
+		Set<Long> present = new HashSet<>();
+		int changed = 0;
+		if (athletes != null) {
+			for (Athlete a : athletes) {
+				present.add(a.getId());
+				List<LiftOrderInfo> lifts = LiftOrderReconstruction.pastLifts(a);
+				List<LiftOrderInfo> previous = this.liftsByAthlete.get(a.getId());
+				if (lifts.equals(previous)) {
+					// same lifts, keep the current copy of the athlete
+					for (LiftOrderInfo ali : previous) {
+						ali.setAthlete(a);
+					}
+					continue;
+				}
+				if (previous != null) {
+					remove(previous);
+				}
+				this.pastOrder.addAll(lifts);
+				this.liftsByAthlete.put(a.getId(), lifts);
+				changed++;
+			}
+		}
+		Iterator<Entry<Long, List<LiftOrderInfo>>> it = this.liftsByAthlete.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Long, List<LiftOrderInfo>> e = it.next();
+			if (!present.contains(e.getKey())) {
+				// athlete no longer in the session
+				remove(e.getValue());
+				it.remove();
+				changed++;
+			}
+		}
+		if (changed > 0) {
+			this.lastLift = this.pastOrder.isEmpty() ? null : this.pastOrder.last();
+			logger.trace("lift history updated, {} athletes changed", changed);
+		}
+	}
+
+	private void remove(List<LiftOrderInfo> lifts) {
+		// not removeAll, which may compare with equals instead of the set order
+		for (LiftOrderInfo ali : lifts) {
+			this.pastOrder.remove(ali);
+		}
+	}
+
+}
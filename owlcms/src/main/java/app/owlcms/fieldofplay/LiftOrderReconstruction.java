@@ -6,6 +6,7 @@
  *******************************************************************************/
 package app.owlcms.fieldofplay;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.TreeSet;
@@ -13,6 +14,10 @@ import java.util.TreeSet;
 import app.owlcms.data.athlete.Athlete;
 import ch.qos.logback.classic.Logger;
 
+/**
+ * Lifts done in the session, recomputed from the lifting order of the field of play. The field of play keeps the same
+ * order up to date in {@link LiftOrderHistory}; this is used to verify it.
+ */
 public class LiftOrderReconstruction {
 
 	final static String LINESEPARATOR = System.getProperty("line.separator");
@@ -54,6 +59,51 @@ public class LiftOrderReconstruction {
 		// }
 	}
 
+	/**
+	 * @param a an athlete
+	 * @return the lifts done by the athlete, as placed in the reconstructed order
+	 */
+	static List<LiftOrderInfo> pastLifts(Athlete a) {
+		List<LiftOrderInfo> lifts = new ArrayList<>(6);
+		for (int liftNo = 0; liftNo < 6; liftNo++) {
+			LiftOrderInfo ali = new LiftOrderInfo();
+			int w;
+			switch (liftNo) {
+				case 0:
+					w = Math.abs(Athlete.zeroIfInvalid(a.getSnatch1ActualLift()));
+					ali.setWeight(w);
+					break;
+				case 1:
+					ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getSnatch2ActualLift())));
+					break;
+				case 2:
+					ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getSnatch3ActualLift())));
+					break;
+				case 3:
+					w = Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk1ActualLift()));
+					ali.setWeight(w);
+					break;
+				case 4:
+					ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk2ActualLift())));
+					break;
+				case 5:
+					ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk3ActualLift())));
+					break;
+			}
+			ali.setAthlete(a);
+			ali.setAttemptNo(liftNo + 1);
+			ali.setProgression(a.getAttemptProgression(liftNo + 1));
+			ali.setCumulativeProgression(a.getCumulativeAttemptProgression(liftNo + 1));
+			ali.setStartNumber(a.getStartNumber());
+			ali.setLotNumber(a.getLotNumber());
+
+			if (ali.getWeight() > 0) {
+				lifts.add(ali);
+			}
+		}
+		return lifts;
+	}
+
 	/**
 	 * Reconstructed lifting order according to rules
 	 *
@@ -64,43 +114,7 @@ public class LiftOrderReconstruction {
 		List<Athlete> athletes = fop.getLiftingOrder();
 
 		for (Athlete a : athletes) {
-			for (int liftNo = 0; liftNo < 6; liftNo++) {
-				LiftOrderInfo ali = new LiftOrderInfo();
-				int w;
-				switch (liftNo) {
-					case 0:
-						w = Math.abs(Athlete.zeroIfInvalid(a.getSnatch1ActualLift()));
-						ali.setWeight(w);
-						break;
-					case 1:
-						ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getSnatch2ActualLift())));
-						break;
-					case 2:
-						ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getSnatch3ActualLift())));
-						break;
-					case 3:
-						w = Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk1ActualLift()));
-						ali.setWeight(w);
-						break;
-					case 4:
-						ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk2ActualLift())));
-						break;
-					case 5:
-						ali.setWeight(Math.abs(Athlete.zeroIfInvalid(a.getCleanJerk3ActualLift())));
-						break;
-				}
-				ali.setAthlete(a);
-				ali.setAttemptNo(liftNo + 1);
-				ali.setProgression(a.getAttemptProgression(liftNo + 1));
-				ali.setCumulativeProgression(a.getCumulativeAttemptProgression(liftNo + 1));
-				ali.setStartNumber(a.getStartNumber());
-				ali.setLotNumber(a.getLotNumber());
-
-				if (ali.getWeight() > 0) {
-					this.pastOrder.add(ali);
-				}
-
-			}
+			this.pastOrder.addAll(pastLifts(a));
 		}
 		return this.pastOrder;
 	}
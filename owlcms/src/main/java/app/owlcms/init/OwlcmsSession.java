@@ -39,6 +39,8 @@ public class OwlcmsSession {
 	private static final String LOCALE = "locale";
 	private final static Logger logger = (Logger) LoggerFactory.getLogger(OwlcmsSession.class);
 	private static OwlcmsSession owlcmsSessionSingleton = null;
+	/* locale of the session that started work running on a background thread */
+	private static final ThreadLocal<Locale> threadLocale = new ThreadLocal<>();
 
 	static {
 		logger.setLevel(Level.INFO);
@@ -170,7 +172,11 @@ public class OwlcmsSession {
 	}
 
 	public static Locale computeLocale() {
-		Locale locale = (Locale) getAttribute(LOCALE);
+		Locale locale = threadLocale.get();
+		if (locale != null) {
+			return locale;
+		}
+		locale = (Locale) getAttribute(LOCALE);
 		if (locale != null) {
 			return locale;
 		}
@@ -244,6 +250,27 @@ public class OwlcmsSession {
 		}
 	}
 
+	/**
+	 * Run a command on a background thread with the locale of the session that started it. Such threads have no Vaadin
+	 * session or UI, so translations and date parsing would otherwise use the default locale.
+	 *
+	 * @param locale  the locale of the session, obtained on the UI thread
+	 * @param command the work to be done
+	 */
+	public static void withLocale(Locale locale, Runnable command) {
+		Locale previous = threadLocale.get();
+		threadLocale.set(locale);
+		try {
+			command.run();
+		} finally {
+			if (previous != null) {
+				threadLocale.set(previous);
+			} else {
+				threadLocale.remove();
+			}
+		}
+	}
+
 	public static void invalidate() {
 		VaadinSession currentVaadinSession = VaadinSession.getCurrent();
 		currentVaadinSession.getSession().invalidate();
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Command;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * A delayed update of a display, run on a scheduler thread shared by all the monitors.
+ *
+ * At most one update is pending: scheduling a new one, or applying a newer state right away with {@link #cancel()},
+ * replaces the pending one. An update that fired but has not yet obtained the UI lock is dropped if it has been
+ * replaced in the meantime. Nothing waits while holding the UI lock.
+ *
+ * @author Jean-François Lamy
+ */
+public class DelayedUpdate {
+
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(DelayedUpdate.class);
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "delayedUpdates");
+		t.setDaemon(true);
+		return t;
+	});
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private long generation;
+	private ScheduledFuture<?> pending;
+
+	/**
+	 * Drop the pending update, if any.
+	 */
+	public synchronized void cancel() {
+		this.generation++;
+		if (this.pending != null) {
+			this.pending.cancel(false);
+			this.pending = null;
+		}
+	}
+
+	/**
+	 * Replace the pending update.
+	 *
+	 * @param ui      the UI of the display
+	 * @param delayMs delay before applying
+	 * @param command the update, run with the UI lock
+	 */
+	public synchronized void schedule(UI ui, long delayMs, Command command) {
+		cancel();
+		if (ui == null) {
+			logger.debug("no UI, delayed update ignored");
+			return;
+		}
+		long scheduled = this.generation;
+		this.pending = scheduler.schedule(() -> {
+			try {
+				ui.access(() -> {
+					if (isCurrent(scheduled)) {
+						command.execute();
+					}
+				});
+			} catch (UIDetachedException e) {
+				logger.debug("display closed, delayed update ignored");
+			}
+		}, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized boolean isCurrent(long scheduled) {
+		return scheduled == this.generation;
+	}
+
+}
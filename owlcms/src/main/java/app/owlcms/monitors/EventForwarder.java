@@ -13,12 +13,13 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
@@ -55,6 +56,7 @@ import app.owlcms.fieldofplay.FOPState;
 import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.fieldofplay.IBreakTimer;
 import app.owlcms.i18n.Translator;
+import app.owlcms.i18n.Translator.TranslationSubset;
 import app.owlcms.init.OwlcmsSession;
 import app.owlcms.nui.shared.HasBoardMode;
 import app.owlcms.uievents.BreakDisplay;
@@ -85,6 +87,7 @@ import elemental.json.JsonValue;
 public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 
 	private static final int KEEPALIVE_INTERVAL = 15000;
+	private static final String TRANSLATION_HASH_HEADER = "X-Translation-Hash";
 	final private static Logger logger = (Logger) LoggerFactory.getLogger(EventForwarder.class);
 	final private static Logger uiEventLogger = (Logger) LoggerFactory.getLogger("UI" + logger.getName());
 	public static final Object singleThreadLock = new Object();
@@ -117,7 +120,12 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 	private String teamName;
 	private Integer timeAllowed;
 	private JsonObject translationMap;
-	private long translatorResetTimeStamp;
+	private String translationMapJson;
+	private String translationMapHash;
+	/**
+	 * translation hash last acknowledged by each receiver; the map is not resent while it is unchanged
+	 */
+	private Map<String, String> acknowledgedTranslationHash = new ConcurrentHashMap<>();
 	private Integer weight;
 	private boolean wideTeamNames;
 	private JsonValue records;
@@ -172,8 +180,6 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 		this.postBus = getFop().getEventForwardingBus();
 		this.postBus.register(this);
 
-		this.translatorResetTimeStamp = 0L;
-
 		// update key is actually not mandatory
 		//String updateKey = Config.getCurrent().getParamUpdateKey();
 		String updateUrl = Config.getCurrent().getParamPublicResultsURL();
@@ -692,15 +698,16 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 	}
 
 	protected void setTranslationMap() {
-		JsonObject translations = Json.createObject();
-		Enumeration<String> keys = Translator.getKeys();
-		while (keys.hasMoreElements()) {
-			String curKey = keys.nextElement();
-			if (curKey.startsWith("Scoreboard.")) {
-				translations.put(curKey.replace("Scoreboard.", ""), Translator.translate(curKey));
-			}
+		TranslationSubset subset = Translator.getTranslationSubset("Scoreboard.");
+		if (subset.hash().equals(this.translationMapHash)) {
+			// unchanged since last update, reuse the serialized map
+			return;
 		}
+		JsonObject translations = Json.createObject();
+		subset.translations().forEach((k, v) -> translations.put(k, v));
 		setTranslationMap(translations);
+		this.translationMapJson = translations.toJson();
+		this.translationMapHash = subset.hash();
 	}
 
 	void setAttempt(String formattedAttempt) {
@@ -1046,10 +1053,8 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 		String paramStylesDir = Config.getCurrent().getParamStylesDir();
 		mapPut(sb, "stylesDir", paramStylesDir);
 
-		if (this.translatorResetTimeStamp != Translator.getResetTimeStamp()) {
-			// translation map has been updated (reload or language change)
-			setTranslationMap();
-		}
+		// cached by the translator, recomputed after a reload or a language change
+		setTranslationMap();
 
 		// competition state
 		mapPut(sb, "competitionName", Competition.getCurrent().getCompetitionName());
@@ -1113,7 +1118,8 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 		createRecord(sb);
 
 		// presentation information
-		mapPut(sb, "translationMap", this.translationMap.toJson());
+		mapPut(sb, "translationMap", this.translationMapJson);
+		mapPut(sb, "translationMapHash", this.translationMapHash);
 		mapPut(sb, "hidden", String.valueOf(this.hidden));
 		mapPut(sb, "wideTeamNames", String.valueOf(this.wideTeamNames));
 		mapPut(sb, "sinclairMeet", Boolean.toString(Competition.getCurrent().isSinclair()));
@@ -1163,10 +1169,9 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 
 	private void doPost(String url, String updateKey, Map<String, String> parameters) {
 		HttpPost post = new HttpPost(url);
-		// add request parameters or form parameters
-		List<NameValuePair> urlParameters = new ArrayList<>();
-		parameters.entrySet().stream()
-		        .forEach((e) -> urlParameters.add(new BasicNameValuePair(e.getKey(), e.getValue())));
+		String hash = parameters.get("translationMapHash");
+		// the receiver keeps the translation maps it has seen; only send the map when it has changed.
+		boolean omitTranslations = hash != null && hash.equals(this.acknowledgedTranslationHash.get(url));
 
 		boolean done = false;
 		int nbTries = 0;
@@ -1175,11 +1180,20 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 		// we send the configuration files as well.
 		while (!done && nbTries <= 1) {
 			try {
-				post.setEntity(new UrlEncodedFormEntity(urlParameters, "UTF-8"));
+				post.setEntity(new UrlEncodedFormEntity(postParameters(parameters, omitTranslations), "UTF-8"));
+				long start = System.nanoTime();
 				try (CloseableHttpClient httpClient = HttpClients.createDefault();
 				        CloseableHttpResponse response = httpClient.execute(post)) {
 					StatusLine statusLine = response.getStatusLine();
 					Integer statusCode = statusLine != null ? statusLine.getStatusCode() : null;
+					Metrics.timer("owlcms_forwarder_post_seconds", "Duration of posts to publicresults or video",
+					        "status", String.valueOf(statusCode)).stop(start);
+					if (statusCode != null && statusCode == 200 && hash != null) {
+						Header ack = response.getFirstHeader(TRANSLATION_HASH_HEADER);
+						if (ack != null && hash.equals(ack.getValue())) {
+							this.acknowledgedTranslationHash.put(url, hash);
+						}
+					}
 					if (statusCode != null && statusCode != 200) {
 						synchronized (singleThreadLock) {
 							if (nbTries == 0 && statusCode != null && statusCode == 412) {
@@ -1189,6 +1203,13 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 								        LoggerUtils.whereFrom(1));
 								sendConfig(url, updateKey);
 								nbTries++;
+							} else if (nbTries == 0 && statusCode == 409 && omitTranslations) {
+								// receiver restarted or evicted the map, send it again.
+								logger.debug("{}resending translations to {}", FieldOfPlay.getLoggingName(getFop()),
+								        url);
+								this.acknowledgedTranslationHash.remove(url);
+								omitTranslations = false;
+								nbTries++;
 							} else {
 								logger.error("{}could not post to {} {} {}", FieldOfPlay.getLoggingName(getFop()), url,
 								        statusLine,
@@ -1200,6 +1221,8 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 						done = true;
 					}
 				} catch (Exception e1) {
+					Metrics.timer("owlcms_forwarder_post_seconds", "Duration of posts to publicresults or video",
+					        "status", "error").stop(start);
 					logger.error("{}could not post to {} {}", FieldOfPlay.getLoggingName(getFop()), url,
 					        LoggerUtils.exceptionMessage(e1));
 					done = true;
@@ -1213,6 +1236,14 @@ public class EventForwarder implements BreakDisplay, HasBoardMode, IUnregister {
 		}
 	}
 
+	private List<NameValuePair> postParameters(Map<String, String> parameters, boolean omitTranslations) {
+		List<NameValuePair> urlParameters = new ArrayList<>();
+		parameters.entrySet().stream()
+		        .filter((e) -> !omitTranslations || !e.getKey().equals("translationMap"))
+		        .forEach((e) -> urlParameters.add(new BasicNameValuePair(e.getKey(), e.getValue())));
+		return urlParameters;
+	}
+
 	private void doUpdate(Athlete a, UIEvent e) {
 		logger.trace("doUpdate {} {}", a, a != null ? a.getAttemptsDone() : null);
 		boolean leaveTopAlone = false;
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency percentiles over the most recent samples.
+ *
+ * Samples are kept in a fixed-size ring buffer, so old measurements (e.g. from before a network change) age out.
+ * Percentiles are computed on demand, which only happens when a summary is requested.
+ *
+ * @author Jean-François Lamy
+ */
+public class LatencyStats {
+
+	private long count;
+	private int next;
+	private final long[] samples;
+
+	/**
+	 * @param capacity number of recent samples kept
+	 */
+	public LatencyStats(int capacity) {
+		this.samples = new long[capacity];
+	}
+
+	/**
+	 * @return the total number of samples recorded
+	 */
+	public synchronized long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @param p a percentile between 0 and 100
+	 * @return the value in microseconds, 0 if there are no samples
+	 */
+	public long percentile(double p) {
+		return valueAt(sortedSamples(), p);
+	}
+
+	/**
+	 * @param micros a latency in microseconds
+	 */
+	public synchronized void record(long micros) {
+		this.samples[this.next] = micros;
+		this.next = (this.next + 1) % this.samples.length;
+		this.count++;
+	}
+
+	/**
+	 * @return count, median, 90th and 99th percentiles and maximum, in milliseconds
+	 */
+	public Map<String, Object> summary() {
+		long[] sorted = sortedSamples();
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("count", getCount());
+		summary.put("p50", valueAt(sorted, 50) / 1000.0);
+		summary.put("p90", valueAt(sorted, 90) / 1000.0);
+		summary.put("p99", valueAt(sorted, 99) / 1000.0);
+		summary.put("max", valueAt(sorted, 100) / 1000.0);
+		return summary;
+	}
+
+	@Override
+	public String toString() {
+		return summary().toString();
+	}
+
+	private static long valueAt(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0L;
+		}
+		// nearest-rank method
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+	}
+
+	private synchronized long[] sortedSamples() {
+		int n = (int) Math.min(this.count, this.samples.length);
+		long[] sorted = Arrays.copyOf(this.samples, n);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+}
@@ -9,6 +9,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
@@ -53,6 +56,13 @@ import ch.qos.logback.classic.Logger;
  * other devices. They listen to MQTT events that come from the field of play. These events are of the form
  * (owlcms/fop). The field of play is always the last element in the topic.
  *
+ * Incoming messages are routed through a topic trie and handled one at a time, in arrival order, by a single thread
+ * per field of play. Two referee decisions sent a few milliseconds apart therefore reach the field of play in the
+ * order the broker delivered them.
+ *
+ * When the mqttState feature switch is set, the scoreboard state is also published as retained messages (see
+ * {@link MQTTStateTopics}).
+ *
  * @author Jean-François Lamy
  */
 public class MQTTMonitor extends Thread implements IUnregister {
@@ -94,6 +104,7 @@ public class MQTTMonitor extends Thread implements IUnregister {
 		String clockTopicName;
 		String testTopicName;
 		String configTopicName;
+		private final MQTTTopicTrie<BiConsumer<String, String>> router = new MQTTTopicTrie<>();
 
 		MQTTCallback() {
 			// these are the device-initiated events that the monitor tracks
@@ -109,6 +120,17 @@ public class MQTTMonitor extends Thread implements IUnregister {
 			// no FOP on this message, it is used for the device to query what FOPs are
 			// present
 			this.configTopicName = "owlcms/config";
+
+			this.router.put(this.decisionTopicName, this::postFopEventRefereeDecisionUpdate);
+			this.router.put(this.deprecatedDecisionTopicName, this::postFopEventRefereeDecisionUpdate);
+			this.router.put(this.downEmittedTopicName, this::postFopEventDownEmitted);
+			this.router.put(this.clockTopicName, this::postFopTimeEvents);
+			this.router.put(this.juryBreakTopicName, this::postFopJuryBreakEvents);
+			this.router.put(this.juryMemberDecisionTopicName, this::postFopEventJuryMemberDecisionUpdate);
+			this.router.put(this.juryDecisionTopicName, this::postFopEventJuryDecision);
+			this.router.put(this.jurySummonTopicName, this::postFopEventSummonReferee);
+			this.router.put(this.configTopicName, (topic, messageStr) -> publishMqttConfig("owlcms/fop/config"));
+			this.router.put(this.testTopicName, this::recordTestTiming);
 		}
 
 		@Override
@@ -126,34 +148,36 @@ public class MQTTMonitor extends Thread implements IUnregister {
 
 		@Override
 		public void messageArrived(String topic, MqttMessage message) throws Exception {
-			new Thread(() -> {
-				String messageStr = new String(message.getPayload(), StandardCharsets.UTF_8);
-				logger.info("{}MQTT received {} : {}", FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic, messageStr.trim());
-
-				if (topic.endsWith(this.decisionTopicName) || topic.endsWith(this.deprecatedDecisionTopicName)) {
-					postFopEventRefereeDecisionUpdate(topic, messageStr);
-				} else if (topic.endsWith(this.downEmittedTopicName)) {
-					postFopEventDownEmitted(topic, messageStr);
-				} else if (topic.endsWith(this.clockTopicName)) {
-					postFopTimeEvents(topic, messageStr);
-				} else if (topic.endsWith(this.juryBreakTopicName)) {
-					postFopJuryBreakEvents(topic, messageStr);
-				} else if (topic.endsWith(this.juryMemberDecisionTopicName)) {
-					postFopEventJuryMemberDecisionUpdate(topic, messageStr);
-				} else if (topic.endsWith(this.juryDecisionTopicName)) {
-					postFopEventJuryDecision(topic, messageStr);
-				} else if (topic.endsWith(this.jurySummonTopicName)) {
-					postFopEventSummonReferee(topic, messageStr);
-				} else if (topic.endsWith(this.configTopicName)) {
-					publishMqttConfig("owlcms/fop/config");
-				} else if (topic.endsWith(this.testTopicName)) {
-					long before = Long.parseLong(messageStr);
-					logger.info("{} timing = {}", getFop(), System.currentTimeMillis() - before);
-				} else {
-					logger.error("{}Malformed MQTT unrecognized topic message topic='{}' message='{}'",
-					        FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic, messageStr);
-				}
-			}).start();
+			// stamp on arrival, then hand over to the ordered queue so the MQTT client thread is not held up.
+			long arrivalNanos = System.nanoTime();
+			String messageStr = new String(message.getPayload(), StandardCharsets.UTF_8);
+			MQTTMonitor.this.ingressQueue.execute(() -> dispatch(topic, messageStr, arrivalNanos));
+		}
+
+		private void dispatch(String topic, String messageStr, long arrivalNanos) {
+			long queuedNanos = System.nanoTime() - arrivalNanos;
+			logger.info("{}MQTT received {} : {}", FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic,
+			        messageStr.trim());
+			BiConsumer<String, String> handler = this.router.get(topic);
+			if (handler == null) {
+				logger.error("{}Malformed MQTT unrecognized topic message topic='{}' message='{}'",
+				        FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic, messageStr);
+				return;
+			}
+			long start = System.nanoTime();
+			try {
+				handler.accept(topic, messageStr);
+			} catch (Exception e) {
+				// keep the queue going
+				logger.error("{}MQTT message processing error topic='{}' message='{}' {}",
+				        FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic, messageStr,
+				        LoggerUtils.stackTrace(e));
+			}
+			Metrics.timer("owlcms_mqtt_ingress_seconds", "Time spent handling an incoming MQTT message",
+			        "fop", MQTTMonitor.this.getFop().getName()).stop(start);
+			Metrics.timer("owlcms_mqtt_queue_seconds", "Time an incoming MQTT message waits before handling",
+			        "fop", MQTTMonitor.this.getFop().getName()).record(queuedNanos);
+			MQTTMonitor.this.queueLatency.record(queuedNanos / 1000);
 		}
 
 		/**
@@ -261,6 +285,26 @@ public class MQTTMonitor extends Thread implements IUnregister {
 			}
 		}
 
+		/**
+		 * The device sends its clock time in milliseconds; the difference is the device to field of play latency,
+		 * including the broker and the wait in the queue. The percentiles are sent back for display on the device.
+		 *
+		 * @param topic
+		 * @param messageStr
+		 */
+		private void recordTestTiming(String topic, String messageStr) {
+			try {
+				long before = Long.parseLong(messageStr.trim());
+				long latency = System.currentTimeMillis() - before;
+				MQTTMonitor.this.deviceLatency.record(latency * 1000);
+				logger.info("{} timing = {}", getFop(), latency);
+				publishMqttLatency();
+			} catch (NumberFormatException e) {
+				logger.error("{}Malformed MQTT test message topic='{}' message='{}'",
+				        FieldOfPlay.getLoggingName(MQTTMonitor.this.getFop()), topic, messageStr);
+			}
+		}
+
 		private void postFopTimeEvents(String topic, String messageStr) {
 			messageStr = messageStr.trim();
 			if (messageStr.equalsIgnoreCase("start")) {
@@ -305,16 +349,40 @@ public class MQTTMonitor extends Thread implements IUnregister {
 	private MQTTCallback callback;
 	private Long prevRefereeTimeStamp = 0L;
 	private String monitoredFopName;
+	private final ExecutorService ingressQueue;
+	private final LatencyStats deviceLatency = new LatencyStats(1024);
+	private final LatencyStats queueLatency = new LatencyStats(1024);
+	private MQTTStateTopics stateTopics;
 
 	private MQTTMonitor(String monitorName, FieldOfPlay fop) {
 		this.setMonitoredFopName(monitorName);
 		this.setFop(fop);
+		// one thread per field of play, messages are processed in arrival order
+		this.ingressQueue = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "mqttIngress-" + monitorName);
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * @return latency from device to field of play, measured with the owlcms/test/&lt;fop&gt; topic
+	 */
+	public LatencyStats getDeviceLatency() {
+		return this.deviceLatency;
 	}
 
 	public FieldOfPlay getFop() {
 		return this.fop;
 	}
 
+	/**
+	 * @return time spent by incoming messages waiting for their turn in the queue
+	 */
+	public LatencyStats getQueueLatency() {
+		return this.queueLatency;
+	}
+
 	public void publishMqttConfig() {
 		PlatformRepository.syncFOPs();
 		if (this.fop == null) {
@@ -395,6 +463,7 @@ public class MQTTMonitor extends Thread implements IUnregister {
 	public void slaveGroupDone(UIEvent.GroupDone e) {
 		try {
 			publishMqttGroupDone(e);
+			publishMqttState();
 		} catch (MqttException e1) {
 			logger.error(e1.toString());
 		}
@@ -428,6 +497,7 @@ public class MQTTMonitor extends Thread implements IUnregister {
 			publishMqttLiftingOrderUpdated();
 		} catch (MqttException e1) {
 		}
+		publishMqttState();
 	}
 
 	@Subscribe
@@ -605,6 +675,12 @@ public class MQTTMonitor extends Thread implements IUnregister {
 		this.client.subscribe(this.callback.configTopicName, 0);
 		logger.trace("{}MQTT subscribe {} {}", FieldOfPlay.getLoggingName(this.getFop()), this.callback.configTopicName,
 		        this.client.getCurrentServerURI());
+
+		// the broker may have restarted and lost the retained state
+		if (this.stateTopics != null) {
+			this.stateTopics.reset();
+		}
+		publishMqttState();
 	}
 
 	private void doPublishMQTTSummon(int ref) throws MqttException, MqttPersistenceException {
@@ -702,6 +778,19 @@ public class MQTTMonitor extends Thread implements IUnregister {
 		}
 	}
 
+	private void publishMqttLatency() {
+		Map<String, Object> payload = new TreeMap<>();
+		payload.put("device", this.deviceLatency.summary());
+		payload.put("queue", this.queueLatency.summary());
+		try {
+			String json = new ObjectMapper().writeValueAsString(payload);
+			this.client.publish("owlcms/fop/latency/" + this.getFop().getName(),
+			        new MqttMessage(json.getBytes(StandardCharsets.UTF_8)));
+		} catch (JsonProcessingException | MqttException e) {
+			logger.error("could not publish latency {}", e.getCause());
+		}
+	}
+
 	private void publishMqttLedOnOff() throws MqttException, MqttPersistenceException {
 		// logger.debug("{}MQTT LedOnOff", fop.getLoggingName());
 		String topic = "owlcms/fop/startup/" + this.getFop().getName();
@@ -721,6 +810,30 @@ public class MQTTMonitor extends Thread implements IUnregister {
 		this.client.publish(topic, new MqttMessage());
 	}
 
+	private void publishMqttState() {
+		FieldOfPlay fop2 = this.getFop();
+		if (fop2 == null || this.client == null || !this.client.isConnected()
+		        || !Config.getCurrent().featureSwitch("mqttState")) {
+			return;
+		}
+		if (this.stateTopics == null) {
+			this.stateTopics = new MQTTStateTopics(fop2.getName());
+		}
+		try {
+			Map<String, byte[]> changes = this.stateTopics.changes(this.stateTopics.snapshot(fop2));
+			for (Map.Entry<String, byte[]> change : changes.entrySet()) {
+				MqttMessage message = new MqttMessage(change.getValue());
+				message.setRetained(true);
+				this.client.publish(change.getKey(), message);
+			}
+			logger.debug("{}MQTT state {} topics updated", FieldOfPlay.getLoggingName(fop2), changes.size());
+		} catch (MqttException e) {
+			// the next update will try again
+			this.stateTopics.reset();
+			logger.error("could not publish state {}", e.getCause());
+		}
+	}
+
 	private void publishMqttRefereeDecision(Boolean ref1, Boolean ref2, Boolean ref3) {
 		boolean decision;
 		if (ref1 == null) {
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.group.Group;
+import app.owlcms.data.records.RecordEvent;
+import app.owlcms.fieldofplay.FieldOfPlay;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Scoreboard state published as retained MQTT messages, so that a display connecting to the broker immediately
+ * receives the latest state without asking owlcms.
+ *
+ * The state of a field of play is split in small subtopics under owlcms/fop/state/&lt;fop&gt;/
+ * <ul>
+ * <li>current : the athlete to lift, attempt and requested weight
+ * <li>order : athlete ids in lifting order
+ * <li>leaders : athlete ids of the leaders
+ * <li>records : records being attempted or broken
+ * <li>athletes/&lt;id&gt; : name, team, category, lifts, totals and ranks for one athlete
+ * </ul>
+ * Only the subtopics whose content has changed are sent again; after a good lift, only the lifter's own subtopic and
+ * the lists are republished. Each payload carries the schema version "v" and the sequence number "seq" of the update
+ * in which it last changed. Subtopics that no longer apply (athletes from the previous group) are cleared by sending
+ * an empty retained message.
+ *
+ * @author Jean-François Lamy
+ */
+public class MQTTStateTopics {
+
+	public static final int SCHEMA_VERSION = 1;
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(MQTTStateTopics.class);
+	private static final byte[] CLEARED = new byte[0];
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final String prefix;
+	private final Map<String, String> published = new HashMap<>();
+	private long seq;
+
+	/**
+	 * @param fopName the field of play name, used as last level of the topic prefix
+	 */
+	public MQTTStateTopics(String fopName) {
+		this.prefix = "owlcms/fop/state/" + fopName + "/";
+	}
+
+	/**
+	 * Compute the messages needed to bring the retained state up to date.
+	 *
+	 * @param state content for each subtopic, relative to the prefix
+	 * @return the full topic names and payloads to publish, in order; an empty payload clears the retained message.
+	 */
+	public synchronized Map<String, byte[]> changes(Map<String, Map<String, Object>> state) {
+		Map<String, byte[]> changes = new LinkedHashMap<>();
+		long nextSeq = this.seq + 1;
+		for (Entry<String, Map<String, Object>> e : state.entrySet()) {
+			String topic = this.prefix + e.getKey();
+			String content = toJson(e.getValue());
+			if (content == null || content.equals(this.published.get(topic))) {
+				continue;
+			}
+			this.published.put(topic, content);
+			Map<String, Object> payload = new LinkedHashMap<>();
+			payload.put("v", SCHEMA_VERSION);
+			payload.put("seq", nextSeq);
+			payload.putAll(e.getValue());
+			changes.put(topic, toJson(payload).getBytes(StandardCharsets.UTF_8));
+		}
+		Iterator<String> it = this.published.keySet().iterator();
+		while (it.hasNext()) {
+			String topic = it.next();
+			if (!state.containsKey(topic.substring(this.prefix.length()))) {
+				changes.put(topic, CLEARED);
+				it.remove();
+			}
+		}
+		if (!changes.isEmpty()) {
+			this.seq = nextSeq;
+		}
+		return changes;
+	}
+
+	/**
+	 * Forget the content that was sent, so the next update republishes everything (after a reconnection the broker may
+	 * have been restarted and lost the retained messages). The topics are kept, so that those no longer current are
+	 * still cleared on the broker if it kept them.
+	 */
+	public synchronized void reset() {
+		this.published.replaceAll((topic, content) -> null);
+	}
+
+	/**
+	 * @param fop
+	 * @return the content for each subtopic
+	 */
+	public Map<String, Map<String, Object>> snapshot(FieldOfPlay fop) {
+		Map<String, Map<String, Object>> state = new LinkedHashMap<>();
+		Group group = fop.getGroup();
+		Athlete curAthlete = fop.getCurAthlete();
+
+		Map<String, Object> current = new LinkedHashMap<>();
+		current.put("group", group != null ? group.getName() : null);
+		if (curAthlete != null) {
+			current.put("id", curAthlete.getId());
+			current.put("startNumber", curAthlete.getStartNumber());
+			current.put("name", curAthlete.getFullName());
+			current.put("team", curAthlete.getTeam());
+			current.put("category", curAthlete.getDisplayCategory());
+			current.put("lift", curAthlete.getAttemptsDone() < 3 ? "snatch" : "cleanJerk");
+			current.put("attempt", curAthlete.getAttemptNumber());
+			current.put("weight", curAthlete.getNextAttemptRequestedWeight());
+		}
+		state.put("current", current);
+
+		state.put("order", idList(fop.getLiftingOrder()));
+		state.put("leaders", idList(fop.getLeaders()));
+
+		List<Map<String, Object>> records = new ArrayList<>();
+		addRecords(records, fop.getChallengedRecords(), false);
+		addRecords(records, fop.getNewRecords(), true);
+		state.put("records", Map.of("records", records));
+
+		if (fop.getLiftingOrder() != null) {
+			for (Athlete a : fop.getLiftingOrder()) {
+				state.put("athletes/" + a.getId(), athleteState(a));
+			}
+		}
+		return state;
+	}
+
+	private void addRecords(List<Map<String, Object>> records, List<RecordEvent> events, boolean isNew) {
+		if (events == null) {
+			return;
+		}
+		for (RecordEvent re : events) {
+			Map<String, Object> r = new LinkedHashMap<>();
+			r.put("name", re.getRecordName());
+			r.put("lift", re.getRecordLift() != null ? re.getRecordLift().name() : null);
+			r.put("value", re.getRecordValue());
+			r.put("ageGroup", re.getAgeGrp());
+			r.put("category", re.getBwCatString());
+			r.put("gender", re.getGender() != null ? re.getGender().name() : null);
+			r.put("new", isNew);
+			records.add(r);
+		}
+	}
+
+	private Map<String, Object> athleteState(Athlete a) {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("startNumber", a.getStartNumber());
+		m.put("name", a.getFullName());
+		m.put("team", a.getTeam());
+		m.put("category", a.getDisplayCategory());
+		m.put("snatch", List.of(nz(a.getSnatch1ActualLift()), nz(a.getSnatch2ActualLift()),
+		        nz(a.getSnatch3ActualLift())));
+		m.put("cleanJerk", List.of(nz(a.getCleanJerk1ActualLift()), nz(a.getCleanJerk2ActualLift()),
+		        nz(a.getCleanJerk3ActualLift())));
+		m.put("bestSnatch", a.getBestSnatch());
+		m.put("bestCleanJerk", a.getBestCleanJerk());
+		m.put("total", a.getTotal());
+		m.put("snatchRank", a.getSnatchRank());
+		m.put("cleanJerkRank", a.getCleanJerkRank());
+		m.put("totalRank", a.getTotalRank());
+		m.put("nextWeight", a.getNextAttemptRequestedWeight());
+		return m;
+	}
+
+	private Map<String, Object> idList(List<Athlete> athletes) {
+		List<Long> ids = new ArrayList<>();
+		if (athletes != null) {
+			for (Athlete a : athletes) {
+				ids.add(a.getId());
+			}
+		}
+		return Map.of("ids", ids);
+	}
+
+	private String nz(String s) {
+		return s != null ? s : "";
+	}
+
+	private String toJson(Map<String, Object> m) {
+		try {
+			return this.mapper.writeValueAsString(m);
+		} catch (JsonProcessingException e) {
+			logger.error("cannot serialize state {}", e.getMessage());
+			return null;
+		}
+	}
+
+}
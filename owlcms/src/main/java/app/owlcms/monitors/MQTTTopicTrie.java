@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps MQTT topic names to values (typically handlers), one level per node.
+ *
+ * The trie is filled once, before messages arrive, and is then only read. A lookup walks the topic levels without
+ * building intermediate strings for the prefix or scanning the list of known topics. Filters may use the MQTT
+ * wildcards: + matches exactly one level, # matches the remaining levels. Exact levels take precedence over +, which
+ * takes precedence over #.
+ *
+ * @param <T> the value associated with a topic filter
+ *
+ * @author Jean-François Lamy
+ */
+public class MQTTTopicTrie<T> {
+
+	private static class Node<T> {
+		private final Map<String, Node<T>> children = new HashMap<>();
+		private T value;
+	}
+
+	private static final String MULTI_LEVEL = "#";
+	private static final String SINGLE_LEVEL = "+";
+
+	private final Node<T> root = new Node<>();
+	private int size;
+
+	/**
+	 * @param topic a topic name, without wildcards
+	 * @return the value for the most specific matching filter, null if none matches.
+	 */
+	public T get(String topic) {
+		return find(this.root, topic, 0);
+	}
+
+	/**
+	 * Associate a value with a topic filter, replacing the previous value if any.
+	 *
+	 * @param topicFilter a topic name, possibly with + and # wildcards
+	 * @param value
+	 */
+	public void put(String topicFilter, T value) {
+		Node<T> node = this.root;
+		for (String level : topicFilter.split("/", -1)) {
+			node = node.children.computeIfAbsent(level, (l) -> new Node<>());
+		}
+		if (node.value == null) {
+			this.size++;
+		}
+		node.value = value;
+	}
+
+	/**
+	 * @return the number of topic filters
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private T find(Node<T> node, String topic, int start) {
+		if (start > topic.length()) {
+			// all levels consumed
+			if (node.value != null) {
+				return node.value;
+			}
+			// "a/#" also matches "a"
+			Node<T> multi = node.children.get(MULTI_LEVEL);
+			return multi != null ? multi.value : null;
+		}
+		int end = topic.indexOf('/', start);
+		if (end < 0) {
+			end = topic.length();
+		}
+		String level = topic.substring(start, end);
+
+		Node<T> exact = node.children.get(level);
+		if (exact != null) {
+			T value = find(exact, topic, end + 1);
+			if (value != null) {
+				return value;
+			}
+		}
+		Node<T> single = node.children.get(SINGLE_LEVEL);
+		if (single != null) {
+			T value = find(single, topic, end + 1);
+			if (value != null) {
+				return value;
+			}
+		}
+		Node<T> multi = node.children.get(MULTI_LEVEL);
+		return multi != null ? multi.value : null;
+	}
+
+}
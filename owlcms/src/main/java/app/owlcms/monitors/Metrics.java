@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Counters, gauges and timers for watching the system during a competition.
+ *
+ * Metrics are registered on first use and identified by a name and optional label pairs (for example the field of
+ * play). Label values must come from a small set (field of play, event type, status), since every combination is kept
+ * as its own series; URLs, topics or athlete names are not used as labels. Recording a value only touches {@link LongAdder}s, so instrumented code does not contend on a lock. The
+ * values are read by the /metrics servlet (Prometheus text format) and by the metrics page.
+ *
+ * @author Jean-François Lamy
+ */
+public class Metrics {
+
+	public static class Counter {
+		private final LongAdder value = new LongAdder();
+
+		public long get() {
+			return this.value.sum();
+		}
+
+		public void inc() {
+			this.value.increment();
+		}
+
+		public void inc(long n) {
+			this.value.add(n);
+		}
+	}
+
+	/**
+	 * A row for displaying a metric.
+	 */
+	public record MetricRow(String name, String labels, String value) {
+	}
+
+	/**
+	 * Durations, kept as a histogram with fixed buckets.
+	 */
+	public static class Timer {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder[] counts = new LongAdder[BUCKETS.length];
+		private final LongAdder sumNanos = new LongAdder();
+
+		private Timer() {
+			for (int i = 0; i < this.counts.length; i++) {
+				this.counts[i] = new LongAdder();
+			}
+		}
+
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		/**
+		 * @return mean duration in seconds
+		 */
+		public double mean() {
+			long n = this.count.sum();
+			return n == 0 ? 0.0D : this.sumNanos.sum() / 1.0E9 / n;
+		}
+
+		/**
+		 * @param q quantile between 0 and 1
+		 * @return upper bound of the bucket containing the quantile, in seconds; +Inf if beyond the last bucket.
+		 */
+		public double quantile(double q) {
+			long n = this.count.sum();
+			if (n == 0) {
+				return 0.0D;
+			}
+			long rank = (long) Math.ceil(q * n);
+			long cumulative = 0;
+			for (int i = 0; i < BUCKETS.length; i++) {
+				cumulative += this.counts[i].sum();
+				if (cumulative >= rank) {
+					return BUCKETS[i];
+				}
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * @param nanos a duration in nanoseconds
+		 */
+		public void record(long nanos) {
+			double seconds = nanos / 1.0E9;
+			for (int i = 0; i < BUCKETS.length; i++) {
+				if (seconds <= BUCKETS[i]) {
+					this.counts[i].increment();
+					break;
+				}
+			}
+			this.count.increment();
+			this.sumNanos.add(nanos);
+		}
+
+		/**
+		 * Record the time elapsed since a start obtained from {@link System#nanoTime()}.
+		 *
+		 * @param startNanos
+		 */
+		public void stop(long startNanos) {
+			record(System.nanoTime() - startNanos);
+		}
+	}
+
+	private static class Family {
+		private final String help;
+		private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+		private final String type;
+
+		private Family(String type, String help) {
+			this.type = type;
+			this.help = help;
+		}
+	}
+
+	/** histogram bucket upper bounds, in seconds */
+	static final double[] BUCKETS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0 };
+	private static final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+	/**
+	 * @param name   metric name, with _total suffix by convention
+	 * @param help   description
+	 * @param labels name and value pairs
+	 * @return the counter, created if needed
+	 */
+	public static Counter counter(String name, String help, String... labels) {
+		return (Counter) family(name, "counter", help).metrics.computeIfAbsent(labels(labels), (l) -> new Counter());
+	}
+
+	/**
+	 * Register a value read when the metrics are collected. Replaces a previous gauge with the same name and labels.
+	 *
+	 * @param name     metric name
+	 * @param help     description
+	 * @param supplier called on every collection, must be cheap and thread-safe
+	 * @param labels   name and value pairs
+	 */
+	public static void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+		family(name, "gauge", help).metrics.put(labels(labels), supplier);
+	}
+
+	/**
+	 * @return one row per metric, for display
+	 */
+	public static List<MetricRow> rows() {
+		List<MetricRow> rows = new ArrayList<>();
+		for (Map.Entry<String, Family> f : families.entrySet()) {
+			for (Map.Entry<String, Object> m : f.getValue().metrics.entrySet()) {
+				Object metric = m.getValue();
+				String value;
+				if (metric instanceof Timer t) {
+					value = String.format(Locale.ENGLISH, "n=%d mean=%.1fms p50<=%sms p99<=%sms", t.getCount(),
+					        t.mean() * 1000, millis(t.quantile(0.5)), millis(t.quantile(0.99)));
+				} else {
+					value = number(sample(metric));
+				}
+				rows.add(new MetricRow(f.getKey(), m.getKey(), value));
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Wrap the executor of an asynchronous event bus so that the time spent by each subscriber call is measured.
+	 *
+	 * @param pool    the executor
+	 * @param busName the bus identifier, used as label
+	 * @return an executor that times the tasks
+	 */
+	public static Executor timedExecutor(ThreadPoolExecutor pool, String busName) {
+		Timer timer = timer("owlcms_eventbus_dispatch_seconds", "Time spent delivering an event to a subscriber",
+		        "bus", busName);
+		gauge("owlcms_eventbus_active_threads", "Threads currently delivering events", () -> pool.getActiveCount(),
+		        "bus", busName);
+		return (r) -> pool.execute(() -> {
+			long start = System.nanoTime();
+			try {
+				r.run();
+			} finally {
+				timer.stop(start);
+			}
+		});
+	}
+
+	/**
+	 * @param name   metric name, with _seconds suffix by convention
+	 * @param help   description
+	 * @param labels name and value pairs
+	 * @return the timer, created if needed
+	 */
+	public static Timer timer(String name, String help, String... labels) {
+		return (Timer) family(name, "histogram", help).metrics.computeIfAbsent(labels(labels), (l) -> new Timer());
+	}
+
+	/**
+	 * @return all the metrics in the Prometheus text exposition format
+	 */
+	public static String toPrometheus() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Family> fe : families.entrySet()) {
+			String name = fe.getKey();
+			Family f = fe.getValue();
+			sb.append("# HELP ").append(name).append(' ').append(f.help.replace("\\", "\\\\").replace("\n", "\\n"))
+			        .append('\n');
+			sb.append("# TYPE ").append(name).append(' ').append(f.type).append('\n');
+			for (Map.Entry<String, Object> m : f.metrics.entrySet()) {
+				String labels = m.getKey();
+				Object metric = m.getValue();
+				if (metric instanceof Timer t) {
+					long cumulative = 0;
+					for (int i = 0; i < BUCKETS.length; i++) {
+						cumulative += t.counts[i].sum();
+						sample(sb, name + "_bucket", withLabel(labels, "le", number(BUCKETS[i])), number(cumulative));
+					}
+					long count = t.count.sum();
+					sample(sb, name + "_bucket", withLabel(labels, "le", "+Inf"), number(count));
+					sample(sb, name + "_sum", labels, number(t.sumNanos.sum() / 1.0E9));
+					sample(sb, name + "_count", labels, number(count));
+				} else {
+					sample(sb, name, labels, number(sample(metric)));
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String escape(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static Family family(String name, String type, String help) {
+		Family f = families.computeIfAbsent(name, (n) -> new Family(type, help));
+		if (!f.type.equals(type)) {
+			throw new IllegalArgumentException(name + " is already registered as a " + f.type);
+		}
+		return f;
+	}
+
+	private static String labels(String... labels) {
+		if (labels == null || labels.length == 0) {
+			return "";
+		}
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("labels must be name/value pairs");
+		}
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(labels[i]).append("=\"").append(escape(labels[i + 1] != null ? labels[i + 1] : "")).append('"');
+		}
+		return sb.append('}').toString();
+	}
+
+	private static String millis(double seconds) {
+		return Double.isInfinite(seconds) ? "+Inf" : number(seconds * 1000);
+	}
+
+	private static String number(double d) {
+		if (Double.isNaN(d)) {
+			return "NaN";
+		}
+		if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1.0E15) {
+			return Long.toString((long) d);
+		}
+		return Double.toString(d);
+	}
+
+	private static double sample(Object metric) {
+		if (metric instanceof Counter c) {
+			return c.get();
+		} else if (metric instanceof DoubleSupplier s) {
+			try {
+				return s.getAsDouble();
+			} catch (RuntimeException e) {
+				return Double.NaN;
+			}
+		}
+		return Double.NaN;
+	}
+
+	private static void sample(StringBuilder sb, String name, String labels, String value) {
+		sb.append(name).append(labels).append(' ').append(value).append('\n');
+	}
+
+	private static String withLabel(String labels, String name, String value) {
+		String label = name + "=\"" + value + "\"";
+		return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+	}
+
+}
@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JsModule;
@@ -128,6 +129,7 @@ public class OBSMonitor extends LitTemplate implements FOPParametersReader,
 	private Group group;
 	private QueryParameters defaultParameters;
 	private String routeParameter;
+	private final DelayedUpdate delayedUpdate = new DelayedUpdate();
 
 	/**
 	 * Instantiates a new results board.
@@ -280,6 +282,12 @@ public class OBSMonitor extends LitTemplate implements FOPParametersReader,
 		doUpdate();
 	}
 
+	@Override
+	protected void onDetach(DetachEvent detachEvent) {
+		this.delayedUpdate.cancel();
+		super.onDetach(detachEvent);
+	}
+
 	void uiLog(UIEvent e) {
 		uiEventLogger.debug("### {} {} {} {}", this.getClass().getSimpleName(), e.getClass().getSimpleName(),
 		        this.getOrigin(), e.getOrigin());
@@ -407,24 +415,19 @@ public class OBSMonitor extends LitTemplate implements FOPParametersReader,
 			if (waitBeforeChangingStatus > 0) {
 				if ((!this.title.startsWith("state=DECISION"))) {
 					this.logger.info("#### DELAYING {} monitor {}", waitBeforeChangingStatus, this.title);
-					new java.util.Timer().schedule(
-					        new java.util.TimerTask() {
-						        @Override
-						        public void run() {
-							        ui.access(() -> {
-								        element.setProperty("title", OBSMonitor.this.title);
-								        element.callJsFunction("setTitle", OBSMonitor.this.title);
-								        OBSMonitor.this.logger.info("#### DELAYED monitor {}", OBSMonitor.this.title);
-							        });
-						        }
-					        },
-					        waitBeforeChangingStatus);
+					this.delayedUpdate.schedule(ui, waitBeforeChangingStatus, () -> {
+						element.setProperty("title", this.title);
+						element.callJsFunction("setTitle", this.title);
+						this.logger.info("#### DELAYED monitor {}", this.title);
+					});
 				} else {
+					this.delayedUpdate.cancel();
 					this.getElement().setProperty("title", this.title);
 					this.getElement().callJsFunction("setTitle", this.title);
 					this.logger.info("#### DECISION monitor {}", this.title);
 				}
 			} else {
+				this.delayedUpdate.cancel();
 				this.getElement().setProperty("title", this.title);
 				this.getElement().callJsFunction("setTitle", this.title);
 				this.logger.info("#### monitor {}", this.title);
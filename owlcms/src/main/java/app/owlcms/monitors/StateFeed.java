@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.eventbus.Subscribe;
+
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.records.RecordEvent;
+import app.owlcms.fieldofplay.FOPState;
+import app.owlcms.fieldofplay.FieldOfPlay;
+import app.owlcms.fieldofplay.IBreakTimer;
+import app.owlcms.fieldofplay.IProxyTimer;
+import app.owlcms.uievents.UIEvent;
+import app.owlcms.utils.LoggerUtils;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.AsyncContext;
+
+/**
+ * Compact JSON state of a field of play, for overlays that are plain HTML pages (OBS browser sources).
+ *
+ * The feed listens to the events the displays receive and sends the state to the connected clients as server-sent
+ * events, only when it changes. The state has what the video displays show: session, current athlete and attempt,
+ * athlete and break clocks, decision lights, records being attempted, break and ceremony. Clocks are given as the
+ * remaining time and, when running, as the time at which they will reach 0, so a page can count down on its own.
+ *
+ * The event subscriber only queues the messages; each {@link StateFeedClient} is written to when its connection is
+ * ready, so a stalled client does not hold up the others or the field of play events.
+ *
+ * @author Jean-François Lamy
+ */
+public class StateFeed {
+
+	/** comment line sent periodically so that proxies and browsers do not drop an idle stream */
+	public static final String KEEPALIVE = ": keepalive\n\n";
+	private static final long KEEPALIVE_SECONDS = 15;
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(StateFeed.class);
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final ScheduledExecutorService keepAlive = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "stateFeedKeepAlive");
+		t.setDaemon(true);
+		return t;
+	});
+	private static final Map<String, StateFeed> stateFeedByName = new ConcurrentHashMap<>();
+
+	static {
+		logger.setLevel(Level.INFO);
+		Metrics.gauge("owlcms_state_feed_clients", "Clients connected to the JSON state feeds",
+		        () -> stateFeedByName.values().stream().mapToInt(f -> f.clients.size()).sum());
+		keepAlive.scheduleAtFixedRate(
+		        () -> stateFeedByName.values().forEach(f -> f.sendAll(KEEPALIVE)),
+		        KEEPALIVE_SECONDS, KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param seq   sequence number of the event
+	 * @param state the state as JSON, on one line
+	 * @return the server-sent event carrying the state
+	 */
+	public static String event(long seq, String state) {
+		return "id: " + seq + "\ndata: " + state + "\n\n";
+	}
+
+	/**
+	 * @param fop a field of play
+	 * @return the feed for the field of play, listening to its events
+	 */
+	public static StateFeed forFop(FieldOfPlay fop) {
+		StateFeed feed = stateFeedByName.computeIfAbsent(fop.getName(), (n) -> new StateFeed());
+		feed.setFop(fop);
+		return feed;
+	}
+
+	private final List<StateFeedClient> clients = new CopyOnWriteArrayList<>();
+	private FieldOfPlay fop;
+	private String lastKey;
+	private String lastState;
+	private long seq;
+
+	private StateFeed() {
+	}
+
+	/**
+	 * Add a client, which receives the current state right away.
+	 *
+	 * @param context the asynchronous request, with the event-stream headers already set
+	 */
+	public void addClient(AsyncContext context) {
+		StateFeedClient client;
+		try {
+			client = new StateFeedClient(context);
+		} catch (IOException | IllegalStateException e) {
+			logger.debug("state feed client not added {}", e.toString());
+			context.complete();
+			return;
+		}
+		String message;
+		synchronized (this) {
+			message = event(++this.seq, currentState());
+		}
+		this.clients.add(client);
+		if (!client.offer(message)) {
+			this.clients.remove(client);
+		}
+		logger.info("{}state feed client added, {} connected", FieldOfPlay.getLoggingName(this.fop),
+		        this.clients.size());
+	}
+
+	/**
+	 * @return the current state as JSON
+	 */
+	public synchronized String currentState() {
+		if (this.lastState == null) {
+			this.lastKey = computeState(-1);
+			this.lastState = computeState(System.currentTimeMillis());
+		}
+		return this.lastState;
+	}
+
+	@Subscribe
+	public void slaveEvent(UIEvent e) {
+		if (e instanceof UIEvent.TimeRemaining) {
+			// clients compute the remaining time from the deadline.
+			return;
+		}
+		String message;
+		synchronized (this) {
+			String key = computeState(-1);
+			if (key.equals(this.lastKey)) {
+				return;
+			}
+			this.lastKey = key;
+			this.lastState = computeState(System.currentTimeMillis());
+			message = event(++this.seq, this.lastState);
+		}
+		sendAll(message);
+	}
+
+	private Map<String, Object> athlete(Athlete a) {
+		if (a == null) {
+			return null;
+		}
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("id", a.getId());
+		m.put("startNumber", a.getStartNumber());
+		m.put("lastName", a.getLastName());
+		m.put("firstName", a.getFirstName());
+		m.put("team", a.getTeam());
+		m.put("category", a.getCategory() != null ? a.getCategory().getDisplayName() : null);
+		return m;
+	}
+
+	private Map<String, Object> attempt(Athlete a) {
+		if (a == null || a.getAttemptsDone() >= 6) {
+			return null;
+		}
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("liftType", a.getAttemptsDone() >= 3 ? "cleanJerk" : "snatch");
+		m.put("number", a.getAttemptNumber());
+		m.put("weight", a.getNextAttemptRequestedWeight());
+		return m;
+	}
+
+	private Map<String, Object> clock(IProxyTimer timer, boolean indefinite, long now) {
+		if (timer == null) {
+			return null;
+		}
+		Map<String, Object> m = new LinkedHashMap<>();
+		boolean running = timer.isRunning();
+		m.put("running", running);
+		m.put("indefinite", indefinite);
+		if (now < 0) {
+			// comparison key: time remaining when last started or stopped, does not move.
+			m.put("remaining", indefinite ? null : timer.getTimeRemaining());
+		} else {
+			int remaining = timer.liveTimeRemaining();
+			m.put("remaining", indefinite ? null : remaining);
+			m.put("deadline", running && !indefinite ? now + remaining : null);
+		}
+		return m;
+	}
+
+	/**
+	 * @param now current time in milliseconds, or -1 to compute a key that only changes with the state, not with time
+	 * @return the state as JSON
+	 */
+	private String computeState(long now) {
+		FieldOfPlay f = this.fop;
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("fop", f.getName());
+		m.put("session", f.getGroup() != null ? f.getGroup().getName() : null);
+		m.put("state", f.getState() != null ? f.getState().name() : null);
+		m.put("break", f.getBreakType() != null ? f.getBreakType().name() : null);
+		m.put("ceremony", f.getCeremonyType() != null ? f.getCeremonyType().name() : null);
+		Athlete a = f.getCurAthlete();
+		m.put("athlete", athlete(a));
+		m.put("attempt", attempt(a));
+		m.put("athleteClock", clock(f.getAthleteTimer(), false, now));
+		IBreakTimer breakTimer = f.getBreakTimer();
+		m.put("breakClock", clock(breakTimer, breakTimer != null && breakTimer.isIndefinite(), now));
+		m.put("decision", decision(f));
+		m.put("records", records(f.getChallengedRecords()));
+		try {
+			return mapper.writeValueAsString(m);
+		} catch (JsonProcessingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private Map<String, Object> decision(FieldOfPlay f) {
+		if (f.getState() != FOPState.DECISION_VISIBLE) {
+			return null;
+		}
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("goodLift", f.getGoodLift());
+		Boolean[] lights = f.getRefereeDecision();
+		m.put("lights", lights != null ? Arrays.asList(lights) : null);
+		return m;
+	}
+
+	private List<Map<String, Object>> records(List<RecordEvent> challenged) {
+		List<Map<String, Object>> l = new ArrayList<>();
+		if (challenged == null) {
+			return l;
+		}
+		for (RecordEvent r : challenged) {
+			Map<String, Object> m = new LinkedHashMap<>();
+			m.put("name", r.getRecordName());
+			m.put("lift", r.getRecordLift() != null ? r.getRecordLift().name() : null);
+			m.put("value", r.getRecordValue());
+			l.add(m);
+		}
+		return l;
+	}
+
+	private void sendAll(String message) {
+		for (StateFeedClient client : this.clients) {
+			if (!client.offer(message)) {
+				this.clients.remove(client);
+				logger.info("{}state feed client left, {} connected", FieldOfPlay.getLoggingName(this.fop),
+				        this.clients.size());
+			}
+		}
+	}
+
+	private synchronized void setFop(FieldOfPlay fop) {
+		if (this.fop == fop) {
+			return;
+		}
+		if (this.fop != null) {
+			try {
+				this.fop.getEventForwardingBus().unregister(this);
+			} catch (IllegalArgumentException e) {
+				logger.debug("not registered {}", LoggerUtils.stackTrace(e));
+			}
+		}
+		this.fop = fop;
+		this.lastKey = null;
+		this.lastState = null;
+		fop.getEventForwardingBus().register(this);
+	}
+
+}
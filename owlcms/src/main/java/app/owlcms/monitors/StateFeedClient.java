@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.monitors;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * A client of a {@link StateFeed}, written to with non-blocking servlet output.
+ *
+ * Messages are queued and written only when the container says the connection can take them, so the thread that
+ * produces the messages never waits on a client. A client whose queue fills up is not reading and is closed; an
+ * EventSource reconnects by itself and receives the current state.
+ *
+ * @author Jean-François Lamy
+ */
+public class StateFeedClient implements WriteListener {
+
+	/** messages waiting for a client before it is considered stalled */
+	public static final int MAX_PENDING = 32;
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(StateFeedClient.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private boolean closed;
+	private final AsyncContext context;
+	private boolean needsFlush;
+	private final ServletOutputStream out;
+	private final Deque<String> pending = new ArrayDeque<>();
+
+	/**
+	 * @param context the asynchronous request, with the event-stream headers already sent
+	 * @throws IOException if the response cannot be written to
+	 */
+	public StateFeedClient(AsyncContext context) throws IOException {
+		this.context = context;
+		this.out = context.getResponse().getOutputStream();
+		this.out.setWriteListener(this);
+	}
+
+	public synchronized boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * Queue a message, and write it if the connection is ready.
+	 *
+	 * @param message the text of a server-sent event
+	 * @return false if the client has gone away or is too slow, and has been closed
+	 */
+	public synchronized boolean offer(String message) {
+		if (this.closed) {
+			return false;
+		}
+		if (this.pending.size() >= MAX_PENDING) {
+			logger.info("state feed client not reading, closed");
+			close();
+			return false;
+		}
+		this.pending.add(message);
+		drain();
+		return !this.closed;
+	}
+
+	@Override
+	public synchronized void onError(Throwable t) {
+		logger.debug("state feed client error {}", t.toString());
+		close();
+	}
+
+	@Override
+	public synchronized void onWritePossible() {
+		drain();
+	}
+
+	private void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.pending.clear();
+		try {
+			this.context.complete();
+		} catch (Exception e) {
+			// already completed
+		}
+	}
+
+	/**
+	 * Write as long as the container accepts without blocking. When it does not, it calls onWritePossible later.
+	 */
+	private void drain() {
+		try {
+			while (!this.closed && this.out.isReady()) {
+				String message = this.pending.poll();
+				if (message != null) {
+					this.out.write(message.getBytes(StandardCharsets.UTF_8));
+					this.needsFlush = true;
+				} else if (this.needsFlush) {
+					this.needsFlush = false;
+					this.out.flush();
+				} else {
+					return;
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			// client went away
+			close();
+		}
+	}
+
+}
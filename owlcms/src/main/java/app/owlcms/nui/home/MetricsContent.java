@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.nui.home;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.icon.Icon;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.HasDynamicTitle;
+import com.vaadin.flow.router.Route;
+
+import app.owlcms.i18n.Translator;
+import app.owlcms.monitors.Metrics;
+import app.owlcms.monitors.Metrics.MetricRow;
+import app.owlcms.nui.shared.BaseNavigationContent;
+import app.owlcms.nui.shared.NavigationPage;
+import app.owlcms.nui.shared.OwlcmsLayout;
+import app.owlcms.nui.shared.RequireLogin;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Current values of the metrics (event processing times, database pool, posts to publicresults...). The same values
+ * are available in Prometheus format at /metrics.
+ *
+ * Like the other pages, access requires the PIN or a backdoor address when one is configured; the values are only
+ * read once the page is shown.
+ *
+ * @author Jean-François Lamy
+ */
+@SuppressWarnings("serial")
+@Route(value = "monitoring", layout = OwlcmsLayout.class)
+public class MetricsContent extends BaseNavigationContent
+        implements NavigationPage, HasDynamicTitle, RequireLogin {
+
+	final private static Logger logger = (Logger) LoggerFactory.getLogger(MetricsContent.class);
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private Grid<MetricRow> grid;
+
+	public MetricsContent() {
+		this.grid = new Grid<>(MetricRow.class, false);
+		this.grid.addThemeVariants(GridVariant.LUMO_COMPACT, GridVariant.LUMO_ROW_STRIPES);
+		this.grid.addColumn(MetricRow::name).setHeader(Translator.translate("Name")).setAutoWidth(true);
+		this.grid.addColumn(MetricRow::labels).setHeader(Translator.translate("Metrics.Labels")).setAutoWidth(true);
+		this.grid.addColumn(MetricRow::value).setHeader(Translator.translate("Metrics.Value")).setFlexGrow(1);
+
+		Button refresh = new Button(Translator.translate("RefreshList"), new Icon(VaadinIcon.REFRESH),
+		        (e) -> refresh());
+		VerticalLayout content = new VerticalLayout(refresh, this.grid);
+		content.setSizeFull();
+		fillH(content, this);
+	}
+
+	@Override
+	public String getMenuTitle() {
+		return Translator.translate("OWLCMS_Metrics");
+	}
+
+	@Override
+	public String getPageTitle() {
+		return Translator.translate("ShortTitle.Metrics");
+	}
+
+	@Override
+	public boolean isIgnoreFopFromURL() {
+		return true;
+	}
+
+	@Override
+	protected void onAttach(AttachEvent attachEvent) {
+		super.onAttach(attachEvent);
+		refresh();
+	}
+
+	@Override
+	protected HorizontalLayout createMenuBarFopField(String label, String placeHolder) {
+		return null;
+	}
+
+	private void refresh() {
+		this.grid.setItems(Metrics.rows());
+	}
+}
@@ -51,8 +51,10 @@ import com.vaadin.flow.dom.ClassList;
 import app.owlcms.components.fields.ValidationUtils;
 import app.owlcms.data.athlete.Athlete;
 import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.athleteSort.LiftingOrderProjection;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.config.Config;
+import app.owlcms.data.platform.PlateLoadingTable;
 import app.owlcms.fieldofplay.FOPEvent;
 import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.i18n.Translator;
@@ -111,6 +113,7 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 	private Button operationButton;
 	private IAthleteEditing origin;
 	private Athlete originalAthlete;
+	private Paragraph projectionLabel;
 	private TextField snatch1ActualLift;
 	private TextField snatch1Change1;
 	private TextField snatch1Change2;
@@ -269,7 +272,9 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 
 		this.gridLayout = setupGrid();
 		this.errorLabel = new Paragraph("initial");
-		HorizontalLayout labelWrapper = new HorizontalLayout(this.errorLabel);
+		this.projectionLabel = new Paragraph();
+		this.projectionLabel.setVisible(false);
+		HorizontalLayout labelWrapper = new HorizontalLayout(this.errorLabel, this.projectionLabel);
 		// labelWrapper.addClassName("errorMessage");
 		labelWrapper.setWidthFull();
 		labelWrapper.setJustifyContentMode(JustifyContentMode.CENTER);
@@ -506,6 +511,7 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 				}
 				getEditedAthlete().setCheckTiming(true);
 				// logger.debug("setting {} to {}", component.getId().get(), e.getValue());
+				showProjection(row, column, e.getValue());
 			});
 		}
 	}
@@ -900,7 +906,7 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 		        (e) -> {
 			        Athlete.conditionalCopy(this.originalAthlete, getEditedAthlete(), true);
 			        this.originalAthlete.withdrawFromSnatch();
-			        AthleteRepository.save(this.originalAthlete);
+			        AthleteRepository.saveLiftResults(this.originalAthlete);
 			        OwlcmsSession.withFop((fop) -> {
 				        fop.pushOutUIEvent(new UIEvent.Notification(
 				                this.originalAthlete, this, Notification.Level.WARNING,
@@ -916,7 +922,7 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 		        (e) -> {
 			        Athlete.conditionalCopy(this.originalAthlete, getEditedAthlete(), true);
 			        this.originalAthlete.withdraw();
-			        AthleteRepository.save(this.originalAthlete);
+			        AthleteRepository.saveLiftResults(this.originalAthlete);
 			        OwlcmsSession.withFop((fop) -> {
 				        fop.pushOutUIEvent(new UIEvent.Notification(
 				                this.originalAthlete, this, Notification.Level.WARNING,
@@ -1021,7 +1027,7 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 			return;
 		}
 		Athlete.conditionalCopy(this.originalAthlete, getEditedAthlete(), true);
-		AthleteRepository.save(this.originalAthlete);
+		AthleteRepository.saveLiftResults(this.originalAthlete);
 		OwlcmsSession.withFop((fop) -> {
 			fop.fopEventPost(new FOPEvent.WeightChange(this.getOrigin(), this.originalAthlete, isLiftResultChanged()));
 		});
@@ -1311,4 +1317,41 @@ public class AthleteCardFormFactory extends OwlcmsCrudFormFactory<Athlete> imple
 
 		return gridLayout;
 	}
+
+	/**
+	 * For the marshal, show where a change for the next attempt would put the athlete in the lifting order. Nothing is
+	 * saved; the current lifting order of the field of play is queried.
+	 */
+	private void showProjection(int row, int column, Object value) {
+		if (!(this.origin instanceof MarshallContent) || row < DECLARATION || row > CHANGE2
+		        || column - SNATCH1 != getEditedAthlete().getAttemptsDone()) {
+			return;
+		}
+		int weight = Athlete.zeroIfInvalid(value != null ? value.toString() : null);
+		FieldOfPlay fop = OwlcmsSession.getFop();
+		LiftingOrderProjection.Projection p = fop != null && weight > 0
+		        ? fop.getLiftingOrderProjection().project(this.originalAthlete.getId(), weight, fop.getPreviousAthlete())
+		        : null;
+		PlateLoadingTable.Loading loading = fop != null && weight > 0
+		        ? fop.getPlateLoading(this.originalAthlete, weight)
+		        : null;
+		boolean impossible = loading != null && !loading.reachable();
+		if (p == null && !impossible) {
+			this.projectionLabel.setVisible(false);
+			return;
+		}
+		String text = "";
+		if (p != null) {
+			text = Translator.translate("LiftingOrder.Projection", p.position() + 1, p.next().getShortName());
+			if (p.twoMinutes()) {
+				text = text + " " + Translator.translate("LiftingOrder.ProjectionTwoMinutes", p.next().getShortName());
+			}
+		}
+		if (impossible) {
+			// the loaders cannot make the weight with the plates of the platform
+			text = (text + " " + Translator.translate("LiftingOrder.ImpossibleWeight", weight)).trim();
+		}
+		this.projectionLabel.setText(text);
+		this.projectionLabel.setVisible(true);
+	}
 }
@@ -68,7 +68,6 @@ import app.owlcms.data.category.Participation;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.group.Group;
 import app.owlcms.data.group.GroupRepository;
-import app.owlcms.data.jpa.JPAService;
 import app.owlcms.data.platform.Platform;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsSession;
@@ -933,15 +932,7 @@ public class WeighinContent extends BaseContent
 			errorNotification();
 			return;
 		}
-		JPAService.runInTransaction((em) -> {
-			List<Athlete> currentGroupAthletes = AthleteRepository.doFindAllByGroupAndWeighIn(em, group, null,
-			        (Gender) null);
-			for (Athlete a : currentGroupAthletes) {
-				// logger.debug(a.getShortName());
-				a.setStartNumber(0);
-			}
-			return currentGroupAthletes;
-		});
+		AthleteRepository.resetStartNumbers(group);
 		refresh();
 	}
 
@@ -7,23 +7,28 @@
 package app.owlcms.nui.preparation;
 
 import java.io.InputStream;
+import java.util.Locale;
 import java.util.function.Consumer;
 
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.H5;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.upload.Upload;
 import com.vaadin.flow.component.upload.receivers.MemoryBuffer;
 
 import app.owlcms.data.category.CategoryRepository;
 import app.owlcms.i18n.Translator;
+import app.owlcms.init.OwlcmsSession;
 import app.owlcms.spreadsheet.IRegistrationFileProcessor;
 import app.owlcms.spreadsheet.NRegistrationFileProcessor;
 import app.owlcms.spreadsheet.ORegistrationFileProcessor;
+import app.owlcms.utils.LoggerUtils;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 
@@ -39,6 +44,7 @@ public class NRegistrationFileUploadDialog extends Dialog {
 	public IRegistrationFileProcessor processor;
 	private boolean sbdeFormat;
 	public String fileName;
+	private UI ui;
 
 	public NRegistrationFileUploadDialog(boolean sbdeFormat) {
 		this.sbdeFormat = sbdeFormat;
@@ -55,18 +61,43 @@ public class NRegistrationFileUploadDialog extends Dialog {
 		ta.setWidth("80em");
 		ta.setVisible(false);
 
+		ProgressBar progressBar = new ProgressBar();
+		progressBar.setWidth("40em");
+		progressBar.setVisible(false);
+
 		upload.addSucceededListener(event -> {
 			processor = this.sbdeFormat // (buffer.getInputStream())
 			        ? new ORegistrationFileProcessor()
 			        : new NRegistrationFileProcessor();
 			fileName = event.getFileName();
-			// try {
-			// buffer.getInputStream().reset();
-			processInput(buffer.getInputStream(), ta);
-			// } catch (IOException e) {
-			// throw new RuntimeException(e);
-			// }
-
+			UI ui = UI.getCurrent();
+			this.ui = ui;
+			processor.setProgressListener(v -> ui.access(() -> {
+				progressBar.setIndeterminate(false);
+				progressBar.setValue(v);
+			}));
+			progressBar.setIndeterminate(true);
+			progressBar.setVisible(true);
+
+			// large files take longer than the upload request timeout; the file is processed in the background without
+			// holding the session lock, and only the progress and the errors are pushed to the browser.
+			// The background thread has no session, so the locale for the headers, dates and messages is taken here.
+			IRegistrationFileProcessor current = processor;
+			Locale locale = OwlcmsSession.getLocale();
+			new Thread(() -> {
+				try {
+					OwlcmsSession.withLocale(locale, () -> processInput(buffer.getInputStream(), ta));
+				} catch (Exception e) {
+					LoggerUtils.logError(logger, e);
+				} finally {
+					ui.access(() -> {
+						progressBar.setVisible(false);
+						if (current.isSessionInvalidationNeeded()) {
+							OwlcmsSession.invalidate();
+						}
+					});
+				}
+			}, "registrationUpload").start();
 		});
 
 		upload.addStartedListener(event -> {
@@ -75,7 +106,7 @@ public class NRegistrationFileUploadDialog extends Dialog {
 		});
 
 		H3 title = new H3(Translator.translate("UploadRegistrationFile"));
-		VerticalLayout vl = new VerticalLayout(title, label, upload, ta);
+		VerticalLayout vl = new VerticalLayout(title, label, upload, progressBar, ta);
 		add(vl);
 	}
 
@@ -125,8 +156,16 @@ public class NRegistrationFileUploadDialog extends Dialog {
 
 	private void updateDisplay(TextArea ta, StringBuffer sb) {
 		if (sb.length() > 0) {
-			ta.setValue(sb.toString());
-			ta.setVisible(true);
+			String errors = sb.toString();
+			if (this.ui == null) {
+				ta.setValue(errors);
+				ta.setVisible(true);
+				return;
+			}
+			this.ui.access(() -> {
+				ta.setValue(errors);
+				ta.setVisible(true);
+			});
 		}
 	}
 
@@ -15,6 +15,7 @@ import org.vaadin.crudui.form.CrudFormConfiguration;
 
 import com.vaadin.flow.component.HasValue;
 
+import app.owlcms.data.platform.PlateLoadingTable;
 import app.owlcms.data.platform.Platform;
 import app.owlcms.data.platform.PlatformRepository;
 import app.owlcms.nui.crudui.OwlcmsCrudFormFactory;
@@ -29,13 +30,15 @@ class PlatformEditingFormFactory extends OwlcmsCrudFormFactory<Platform> {
 	@Override
 	public Platform add(Platform platform) {
 		platform.defaultPlates();
-		PlatformRepository.save(platform);
-		return platform;
+		Platform saved = PlatformRepository.save(platform);
+		PlateLoadingTable.update(saved);
+		return saved;
 	}
 
 	@Override
 	public void delete(Platform platform) {
 		PlatformRepository.delete(platform);
+		PlateLoadingTable.remove(platform);
 	}
 
 	@Override
@@ -46,7 +49,9 @@ class PlatformEditingFormFactory extends OwlcmsCrudFormFactory<Platform> {
 
 	@Override
 	public Platform update(Platform platform) {
-		return PlatformRepository.save(platform);
+		Platform saved = PlatformRepository.save(platform);
+		PlateLoadingTable.update(saved);
+		return saved;
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
@@ -954,15 +954,8 @@ public class RegistrationContent extends BaseContent implements CrudListener<Ath
 	}
 
 	private void clearLifts() {
-		JPAService.runInTransaction(em -> {
-			List<Athlete> athletes = athletesFindAll(false);
-			for (Athlete a : athletes) {
-				a.clearLifts();
-				em.merge(a);
-			}
-			em.flush();
-			return null;
-		});
+		List<Athlete> athletes = athletesFindAll(false);
+		AthleteRepository.clearLifts(athletes.stream().map(Athlete::getId).collect(Collectors.toList()));
 		// when doing tests, the clock may have been started, need to clear
 		// otherwise marshal gets confusing message.
 		OwlcmsFactory.getFOPs().forEach(f -> f.setWeightAtLastStart(0));
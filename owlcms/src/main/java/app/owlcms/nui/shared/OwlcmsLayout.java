@@ -37,6 +37,7 @@ import app.owlcms.nui.displays.DisplayNavigationContent;
 import app.owlcms.nui.displays.VideoNavigationContent;
 import app.owlcms.nui.home.HomeNavigationContent;
 import app.owlcms.nui.home.InfoNavigationContent;
+import app.owlcms.nui.home.MetricsContent;
 import app.owlcms.nui.lifting.LiftingNavigationContent;
 import app.owlcms.nui.preparation.PreparationNavigationContent;
 import app.owlcms.nui.results.ResultsNavigationContent;
@@ -320,6 +321,9 @@ public class OwlcmsLayout extends AppLayout {
 		        createTab(new Icon(VaadinIcon.QUESTION_CIRCLE),
 		                Translator.translate("Documentation_Menu"),
 		                docOpener),
+		        createTab(new Icon(VaadinIcon.CHART),
+		                Translator.translate("ShortTitle.Metrics"),
+		                MetricsContent.class),
 		        createTab(new Icon(VaadinIcon.INFO_CIRCLE_O),
 		                Translator.translate("About"),
 		                InfoNavigationContent.class));
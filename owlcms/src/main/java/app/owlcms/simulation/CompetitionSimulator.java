@@ -23,7 +23,6 @@ import app.owlcms.data.category.Category;
 import app.owlcms.data.competition.Competition;
 import app.owlcms.data.group.Group;
 import app.owlcms.data.group.GroupRepository;
-import app.owlcms.data.jpa.JPAService;
 import app.owlcms.data.platform.Platform;
 import app.owlcms.data.platform.PlatformRepository;
 import app.owlcms.fieldofplay.FieldOfPlay;
@@ -116,15 +115,7 @@ public class CompetitionSimulator {
 	}
 
 	private void clearLifts() {
-		JPAService.runInTransaction(em -> {
-			List<Athlete> athletes = AthleteRepository.doFindAll(em);
-			for (Athlete a : athletes) {
-				a.clearLifts();
-				em.merge(a);
-			}
-			em.flush();
-			return null;
-		});
+		AthleteRepository.clearLifts(null);
 	}
 
 	private List<Athlete> weighIn(Group g) {
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.sound;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.monitors.LatencyStats;
+import app.owlcms.utils.LoggerUtils;
+import app.owlcms.utils.ResourceWalker;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Plays sounds on a server-side output (a {@link Mixer}) with as little delay as possible.
+ *
+ * Sound files are decoded once into PCM buffers, and again only if the local override files change. Each output keeps a
+ * small pool of open and started lines, so playing a sound is only a matter of writing the buffer to an idle line;
+ * nothing is opened, decoded or allocated when the timer reaches 30 seconds or the down signal is given. The time from
+ * the request to the moment the first samples are accepted by the output is measured (this does not include the
+ * buffering inside the sound card).
+ *
+ * @author Jean-François Lamy
+ */
+public class SoundEngine {
+
+	/**
+	 * A decoded sound.
+	 */
+	static record Pcm(AudioFormat format, byte[] data) {
+	}
+
+	/**
+	 * A decoded sound, null if it cannot be read, and the version of the local resources it was read from.
+	 */
+	private static record Decoded(Pcm pcm, long resourcesVersion) {
+	}
+
+	/**
+	 * Sounds emitted by the field of play.
+	 */
+	public static final List<String> FOP_SOUNDS = List.of("initialWarning.wav", "finalWarning.wav", "timeOver.wav",
+	        "down.wav");
+
+	/** idle lines kept open for each format */
+	private static final int IDLE_LINES = 2;
+	/** line buffer, short to keep the delay in the output low */
+	private static final int LINE_BUFFER_MILLIS = 50;
+	/** amount written before the sound is considered started */
+	private static final int FIRST_CHUNK_MILLIS = 10;
+
+	private static final Map<String, Decoded> decoded = new ConcurrentHashMap<>();
+	private static final Map<Mixer, SoundEngine> engines = new ConcurrentHashMap<>();
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(SoundEngine.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * @param mixer the output
+	 * @return the engine for the output, created if needed
+	 */
+	public static SoundEngine forMixer(Mixer mixer) {
+		return engines.computeIfAbsent(mixer, (m) -> new SoundEngine(m));
+	}
+
+	/**
+	 * Get the field of play sounds ready on an output, in the background. Nothing is done if they are already ready
+	 * and the sound files have not changed since.
+	 *
+	 * @param mixer the output
+	 */
+	public static void preloadFopSounds(Mixer mixer) {
+		SoundEngine engine = forMixer(mixer);
+		long version = ResourceWalker.getLocalResourcesVersion();
+		synchronized (engine) {
+			if (engine.preloadedVersion == version) {
+				return;
+			}
+			engine.preloadedVersion = version;
+		}
+		Thread preload = new Thread(() -> engine.preload(FOP_SOUNDS), "soundPreload");
+		preload.setDaemon(true);
+		preload.start();
+	}
+
+	/**
+	 * @param soundName file name relative to the sounds directory
+	 * @return the decoded sound, null if it cannot be read. Decoded again if the local sound files have changed.
+	 */
+	static Pcm decode(String soundName) {
+		long version = ResourceWalker.getLocalResourcesVersion();
+		Decoded d = decoded.get(soundName);
+		if (d == null || d.resourcesVersion() != version) {
+			d = new Decoded(doDecode(soundName), version);
+			decoded.put(soundName, d);
+		}
+		return d.pcm();
+	}
+
+	private static Pcm doDecode(String soundName) {
+		String soundURL = Sound.SOUND_PREFIX + soundName;
+		try (InputStream resource = ResourceWalker.getResourceAsStream(soundURL)) {
+			// since we are reading from the jar, we need to avoid the mark/reset trial and
+			// error from AudioSystem.getAudioInputStream so we force WaveFileReader.
+			AudioInputStream ais = new WaveFileReader().getAudioInputStream(resource);
+			AudioFormat format = ais.getFormat();
+			if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
+			        && format.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+				AudioFormat pcmFormat = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+				ais = AudioSystem.getAudioInputStream(pcmFormat, ais);
+				format = pcmFormat;
+			}
+			byte[] data = ais.readAllBytes();
+			logger.debug("decoded {} {} bytes {}", soundURL, data.length, format);
+			return new Pcm(format, data);
+		} catch (Exception e) {
+			logger.error("cannot decode sound {} {}", soundURL, e.toString());
+			return null;
+		}
+	}
+
+	private final Map<String, BlockingDeque<SourceDataLine>> idleLines = new ConcurrentHashMap<>();
+	private final Mixer mixer;
+	private final ExecutorService players;
+	private final LatencyStats startLatency = new LatencyStats(256);
+	private long preloadedVersion = -1;
+
+	private SoundEngine(Mixer mixer) {
+		this.mixer = mixer;
+		String name = "sound-" + mixer.getMixerInfo().getName();
+		this.players = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * @return time from the play request to the first samples being accepted by the output
+	 */
+	public LatencyStats getStartLatency() {
+		return this.startLatency;
+	}
+
+	/**
+	 * Play a sound file. Returns immediately.
+	 *
+	 * @param soundName file name relative to the sounds directory
+	 */
+	public void play(String soundName) {
+		long requested = System.nanoTime();
+		Pcm pcm = decode(soundName);
+		if (pcm != null) {
+			play(pcm, soundName, requested);
+		}
+	}
+
+	/**
+	 * Decode the sounds and open a line for each of their formats, so the first emission is as fast as the others.
+	 *
+	 * @param soundNames file names relative to the sounds directory
+	 */
+	public void preload(List<String> soundNames) {
+		long start = System.currentTimeMillis();
+		for (String soundName : soundNames) {
+			Pcm pcm = decode(soundName);
+			if (pcm == null) {
+				continue;
+			}
+			BlockingDeque<SourceDataLine> idle = idleLinesFor(pcm.format());
+			if (idle.isEmpty()) {
+				try {
+					idle.offer(openLine(pcm.format()));
+				} catch (LineUnavailableException | IllegalArgumentException e) {
+					logger.error("cannot open {} on {}: {}", pcm.format(), this.mixer.getMixerInfo().getName(),
+					        e.getMessage());
+				}
+			}
+		}
+		logger.info("sounds ready on {} ({} ms)", this.mixer.getMixerInfo().getName(),
+		        System.currentTimeMillis() - start);
+	}
+
+	void play(Pcm pcm, String soundName, long requested) {
+		this.players.execute(() -> {
+			SourceDataLine line = null;
+			try {
+				line = acquire(pcm.format());
+				AudioFormat format = pcm.format();
+				byte[] data = pcm.data();
+				int first = Math.min(data.length, bytesFor(format, FIRST_CHUNK_MILLIS));
+				line.write(data, 0, first);
+				long startMicros = (System.nanoTime() - requested) / 1000;
+				this.startLatency.record(startMicros);
+				line.write(data, first, data.length - first);
+				line.drain();
+				logger.info("{} started after {} ms ({})", soundName, startMicros / 1000.0, this.startLatency);
+				release(line);
+			} catch (Exception e) {
+				logger.error("could not emit {} {}", soundName, LoggerUtils./**/stackTrace(e));
+				if (line != null) {
+					line.close();
+				}
+			}
+		});
+	}
+
+	private SourceDataLine acquire(AudioFormat format) throws LineUnavailableException {
+		SourceDataLine line = idleLinesFor(format).poll();
+		if (line != null && line.isOpen()) {
+			return line;
+		}
+		// all lines busy (sounds overlapping) or none preloaded
+		return openLine(format);
+	}
+
+	private int bytesFor(AudioFormat format, int millis) {
+		int frames = Math.max(1, (int) (format.getFrameRate() * millis / 1000));
+		return frames * format.getFrameSize();
+	}
+
+	private BlockingDeque<SourceDataLine> idleLinesFor(AudioFormat format) {
+		// AudioFormat does not define equals
+		return this.idleLines.computeIfAbsent(format.toString(), (f) -> new LinkedBlockingDeque<>());
+	}
+
+	private SourceDataLine openLine(AudioFormat format) throws LineUnavailableException {
+		SourceDataLine line = AudioSystem.getSourceDataLine(format, this.mixer.getMixerInfo());
+		line.open(format, bytesFor(format, LINE_BUFFER_MILLIS));
+		// a started line with nothing to play stays silent
+		line.start();
+		return line;
+	}
+
+	private void release(SourceDataLine line) {
+		BlockingDeque<SourceDataLine> idle = idleLinesFor(line.getFormat());
+		if (idle.size() >= IDLE_LINES || !idle.offer(line)) {
+			line.close();
+		}
+	}
+
+}
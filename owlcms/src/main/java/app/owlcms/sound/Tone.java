@@ -7,15 +7,15 @@
 package app.owlcms.sound;
 
 import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.Mixer;
-import javax.sound.sampled.SourceDataLine;
 
+/**
+ * A synthesized beep, computed once and played through the {@link SoundEngine} of the output.
+ */
 public class Tone {
-	private AudioFormat af;
-	private byte[] buf;
-	private SourceDataLine sdl;
+	private SoundEngine engine;
+	private SoundEngine.Pcm pcm;
 
 	public Tone(Mixer mixer, int hz, int msecs, double vol) throws IllegalArgumentException, LineUnavailableException {
 		if (mixer == null) {
@@ -25,20 +25,15 @@ public class Tone {
 	}
 
 	/**
-	 * @param buf
-	 * @param af
-	 * @param sdl
+	 * Start playing; returns immediately.
+	 *
 	 * @throws LineUnavailableException
 	 */
 	public void emit() throws IllegalArgumentException, LineUnavailableException {
-		if (this.sdl == null) {
+		if (this.engine == null) {
 			return;
 		}
-		this.sdl.open(this.af, this.buf.length);
-		this.sdl.start();
-		this.sdl.write(this.buf, 0, this.buf.length);
-		this.sdl.drain();
-		this.sdl.close();
+		this.engine.play(this.pcm, "tone", System.nanoTime());
 	}
 
 	/**
@@ -52,21 +47,21 @@ public class Tone {
 		if (vol > 1.0 || vol < 0.0) {
 			throw new IllegalArgumentException("Volume out of range 0.0 - 1.0");
 		}
-		this.buf = new byte[msecs * 8];
+		byte[] buf = new byte[msecs * 8];
 
-		for (int i = 0; i < this.buf.length; i++) {
+		for (int i = 0; i < buf.length; i++) {
 			double angle = i / (8000.0 / hz) * 2.0 * Math.PI;
-			this.buf[i] = (byte) (Math.sin(angle) * 127.0 * vol);
+			buf[i] = (byte) (Math.sin(angle) * 127.0 * vol);
 		}
 
 		// shape the front and back ends of the wave form
-		for (int i = 0; i < 20 && i < this.buf.length / 2; i++) {
-			this.buf[i] = (byte) (this.buf[i] * i / 20);
-			this.buf[this.buf.length - 1 - i] = (byte) (this.buf[this.buf.length - 1 - i] * i / 20);
+		for (int i = 0; i < 20 && i < buf.length / 2; i++) {
+			buf[i] = (byte) (buf[i] * i / 20);
+			buf[buf.length - 1 - i] = (byte) (buf[buf.length - 1 - i] * i / 20);
 		}
 
-		this.af = new AudioFormat(8000f, 8, 1, true, false);
-		this.sdl = AudioSystem.getSourceDataLine(this.af, mixer.getMixerInfo());
+		this.pcm = new SoundEngine.Pcm(new AudioFormat(8000f, 8, 1, true, false), buf);
+		this.engine = SoundEngine.forMixer(mixer);
 	}
 
 }
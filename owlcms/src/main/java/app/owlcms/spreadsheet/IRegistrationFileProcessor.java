@@ -3,6 +3,7 @@ package app.owlcms.spreadsheet;
 import java.io.InputStream;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
 public interface IRegistrationFileProcessor {
 
@@ -18,10 +19,26 @@ public interface IRegistrationFileProcessor {
 	int doProcessGroups(InputStream inputStream, boolean dryRun, Consumer<String> errorConsumer,
 	        Runnable displayUpdater);
 
+	/**
+	 * @return true if the import requires the session of the user to be invalidated once done. The import runs in the
+	 *         background, so the caller does it with the session lock.
+	 */
+	default boolean isSessionInvalidationNeeded() {
+		return false;
+	}
+
 	void resetAthletes();
 
 	void resetGroups();
 
+	/**
+	 * Receive the fraction (0.0 to 1.0) of the athletes that have been stored, so the upload dialog can show progress.
+	 *
+	 * @param progressListener
+	 */
+	default void setProgressListener(DoubleConsumer progressListener) {
+	}
+
 	void updateAthletes(Consumer<String> errorConsumer, RCompetition c, List<RAthlete> athletes);
 
 	void updatePlatformsAndGroups(List<RGroup> groups);
@@ -63,6 +63,7 @@ import app.owlcms.data.records.RecordEvent;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsFactory;
 import app.owlcms.init.OwlcmsSession;
+import app.owlcms.monitors.Metrics;
 import app.owlcms.utils.DateTimeUtils;
 import app.owlcms.utils.LoggerUtils;
 import app.owlcms.utils.ResourceWalker;
@@ -410,6 +411,7 @@ public abstract class JXLSWorkbookStreamSource implements StreamResourceWriter,
 	@SuppressWarnings("unchecked")
 	public void writeStream(OutputStream stream) throws IOException {
 		File tempFile = null;
+		long start = System.nanoTime();
 		try {
 			InputStream template;
 			Locale locale = OwlcmsSession.getLocale();
@@ -429,6 +431,8 @@ public abstract class JXLSWorkbookStreamSource implements StreamResourceWriter,
 			if (tempFile != null) {
 				tempFile.delete();
 			}
+			Metrics.timer("owlcms_document_generation_seconds", "Time spent producing a spreadsheet",
+			        "document", this.getClass().getSimpleName()).stop(start);
 		}
 
 	}
@@ -5,27 +5,18 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.FormulaEvaluator;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
@@ -41,6 +32,8 @@ import app.owlcms.data.platform.Platform;
 import app.owlcms.data.platform.PlatformRepository;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsFactory;
+import app.owlcms.spreadsheet.StreamingSheetReader.SheetCell;
+import app.owlcms.spreadsheet.StreamingSheetReader.SheetRow;
 import app.owlcms.utils.LoggerUtils;
 import app.owlcms.utils.ResourceWalker;
 import ch.qos.logback.classic.Logger;
@@ -61,14 +54,16 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 	}
 
 	static final String GROUPS_READER_SPEC = "/templates/registration/GroupsReader.xml";
+	/* athletes written between flushes; a multiple of the JDBC batch size */
+	static final int CHUNK_SIZE = 100;
 	Integer[] delayedSetterColumns = new Integer[DelayedSetter.values().length];
 	Logger logger = (Logger) LoggerFactory.getLogger(NRegistrationFileProcessor.class);
 	public boolean keepParticipations;
+	/* setters receive the athlete, the trimmed cell value, and the cell address for error messages */
 	@SuppressWarnings("unchecked")
-	TriConsumer<RAthlete, String, Cell>[] setterForColumn = new TriConsumer[25];
-	FormulaEvaluator formulaEvaluator;
-	DataFormatter formatter;
+	TriConsumer<RAthlete, String, String>[] setterForColumn = new TriConsumer[25];
 	private boolean createMissingGroups = true;
+	private DoubleConsumer progressListener;
 
 	public NRegistrationFileProcessor() {
 	}
@@ -120,10 +115,8 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 
 			List<RAthlete> athletes = new ArrayList<>();
 			AthleteInput athleteInput;
-			try (Workbook workbook = WorkbookFactory.create(xlsInputStream)) {
-				this.formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
-				this.formatter = new DataFormatter();
-				athleteInput = readAthletes(workbook, c, errorConsumer);
+			try {
+				athleteInput = readAthletes(xlsInputStream, c, errorConsumer);
 			} catch (IOException | EncryptedDocumentException e) {
 				errorConsumer.accept(e.getLocalizedMessage());
 				LoggerUtils.logError(this.logger, e);
@@ -235,22 +228,40 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 		this.createMissingGroups = createMissingGroups;
 	}
 
+	/**
+	 * @see app.owlcms.spreadsheet.IRegistrationFileProcessor#setProgressListener(java.util.function.DoubleConsumer)
+	 */
+	@Override
+	public void setProgressListener(DoubleConsumer progressListener) {
+		this.progressListener = progressListener;
+	}
+
 	/**
 	 * @see app.owlcms.spreadsheet.IRegistrationFileProcessor#updateAthletes(java.util.function.Consumer, app.owlcms.spreadsheet.RCompetition, java.util.List)
 	 */
 	@Override
 	public void updateAthletes(Consumer<String> errorConsumer, RCompetition c, List<RAthlete> athletes) {
+		// the work is split in two passes of equal size for progress reporting
+		int nbSteps = athletes.size() * 2;
 		JPAService.runInTransaction(em -> {
 			// Competition curC = Competition.getCurrent();
 			try {
-				// Create the new athletes.
-				athletes.stream().forEach(r -> {
+				// Create the new athletes. Flushing by chunks lets Hibernate send batched inserts and keeps
+				// the persistence context small.
+				int i = 0;
+				for (RAthlete r : athletes) {
 					Athlete athlete = r.getAthlete();
 					athlete.setCategoryFinished(false);
 					// logger.debug("merging {}", athlete.getShortName());
 					em.merge(athlete);
-				});
+					if (++i % CHUNK_SIZE == 0) {
+						em.flush();
+						em.clear();
+						reportProgress(i, nbSteps);
+					}
+				}
 				em.flush();
+				reportProgress(athletes.size(), nbSteps);
 			} catch (Exception e) {
 				LoggerUtils.stackTrace(e);
 				errorConsumer.accept(e.toString());
@@ -259,7 +270,8 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 		});
 
 		JPAService.runInTransaction(em -> {
-			AthleteRepository.findAll().stream().forEach(a2 -> {
+			int i = 0;
+			for (Athlete a2 : AthleteRepository.findAll()) {
 				LinkedHashSet<Category> eligibles = (LinkedHashSet<Category>) RCompetition
 				        .getAthleteToEligibles()
 				        .get(a2.getId());
@@ -285,8 +297,14 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 					// logger.debug("participations {} {}", a2.getShortName(), a2.getParticipations());
 					em.merge(a2);
 				}
-			});
+				if (++i % CHUNK_SIZE == 0) {
+					em.flush();
+					em.clear();
+					reportProgress(athletes.size() + Math.min(i, athletes.size()), nbSteps);
+				}
+			}
 			em.flush();
+			reportProgress(nbSteps, nbSteps);
 			return null;
 		});
 	}
@@ -377,257 +395,242 @@ public class NRegistrationFileProcessor implements IRegistrationFileProcessor {
 		updater.run();
 	}
 
-	private String cellToString(Cell cell) {
-		switch (cell.getCellType()) {
-			case NUMERIC:
-				if (DateUtil.isCellDateFormatted(cell)) {
-					this.logger.debug("Date Cell {}", cell.getDateCellValue());
-				} else {
-					return this.formatter.formatCellValue(cell);
+	private void processException(RAthlete a, String s, String address, Exception e, Consumer<String> errorConsumer) {
+		errorConsumer.accept(address + " " + e.getLocalizedMessage() + System.lineSeparator());
+		logger.error("{} {} {}", address, s, e.getMessage());
+		// LoggerUtils.logError(this.logger, e, true);
+	}
+
+	private AthleteInput readAthletes(InputStream inputStream, RCompetition rComp, Consumer<String> errorConsumer)
+	        throws IOException {
+		List<RAthlete> athletes = new ArrayList<>();
+		boolean[] headerRead = new boolean[1];
+		StreamingSheetReader.readFirstSheet(inputStream, row -> {
+			if (!headerRead[0]) {
+				// header, create a map from column to the appropriate setter.
+				mapHeaderColumns(row, rComp, errorConsumer);
+				headerRead[0] = true;
+				return true;
+			}
+			if (row.isEmpty()) {
+				// first empty row ends the list
+				return false;
+			}
+			athletes.add(readAthlete(row));
+			return true;
+		});
+		return new AthleteInput(athletes);
+	}
+
+	private RAthlete readAthlete(SheetRow row) {
+		RAthlete ra = new RAthlete();
+
+		// first pass, memorize cell values for setters that need to be called in a specific order
+		// setters that can be called immediately are invoked in this pass
+		String[] delayedSetterValues = new String[DelayedSetter.values().length];
+		String[] delayedSetterCells = new String[DelayedSetter.values().length];
+
+		for (SheetCell cell : row.cells()) {
+			int iColumn = cell.column();
+			String trim = cell.value().trim();
+			int delayedOrder = ArrayUtils.indexOf(this.delayedSetterColumns, iColumn);
+			if (delayedOrder < 0) {
+				if (iColumn < this.setterForColumn.length && this.setterForColumn[iColumn] != null) {
+					this.logger.debug("setting column {} {}", iColumn, cell.address());
+					this.setterForColumn[iColumn].accept(ra, trim, cell.address());
 				}
-			case FORMULA:
-				return this.formatter.formatCellValue(cell, this.formulaEvaluator);
-			default:
-				return this.formatter.formatCellValue(cell);
+			} else {
+				delayedSetterValues[delayedOrder] = trim;
+				delayedSetterCells[delayedOrder] = cell.address();
+			}
 		}
-	}
 
-	private void processException(RAthlete a, String s, Cell c, Exception e, Consumer<String> errorConsumer) {
-		errorConsumer.accept(c.getAddress() + " " + e.getLocalizedMessage() + System.lineSeparator());
-		logger.error("{} {} {}", c.getAddress(), s, e.getMessage());
-		// LoggerUtils.logError(this.logger, e, true);
+		// second pass, call the delayed setters in the correct order.
+		for (int delayedOrder = 0; delayedOrder < DelayedSetter.values().length; delayedOrder++) {
+			Integer setterColumn = this.delayedSetterColumns[delayedOrder];
+			this.logger.debug("delayed setter [{}] {} {}", delayedOrder, DelayedSetter.values()[delayedOrder],
+			        setterColumn);
+			if (setterColumn != null && delayedSetterCells[delayedOrder] != null) {
+				this.setterForColumn[setterColumn].accept(ra, delayedSetterValues[delayedOrder],
+				        delayedSetterCells[delayedOrder]);
+			}
+		}
+		return ra;
 	}
 
-	private AthleteInput readAthletes(Workbook workbook, RCompetition rComp, Consumer<String> errorConsumer) {
-		Sheet sheet = workbook.getSheetAt(0);
-		Iterator<Row> rowIterator = sheet.rowIterator();
-		List<RAthlete> athletes = new LinkedList<>();
-		int iRow = 0;
+	private void reportProgress(int done, int total) {
+		if (this.progressListener != null && total > 0) {
+			this.progressListener.accept((double) done / total);
+		}
+	}
 
-		rows: while (rowIterator.hasNext()) {
-			int iColumn = 0;
-			Row row = rowIterator.next();
-			if (iRow == 0) {
-				// header, create a map from column to the appropriate setter.
-				Iterator<Cell> cellIterator = row.cellIterator();
-				while (cellIterator.hasNext()) {
-					Cell cell = cellIterator.next();
-					String cellValue = cell.getStringCellValue();
-					String trimmedCellValue = cellValue.trim();
-
-					if (checkTranslation(trimmedCellValue, "Membership")) {
-						this.setterForColumn[iColumn] = (a, s, c) -> {
-							a.setMembership(s);
-						};
-					} else if (checkTranslation(trimmedCellValue, "Card.lotNumber")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setLotNumber(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "LastName")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setLastName(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "FirstName")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setFirstName(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "Scoreboard.Team")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setTeam(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "Registration.birth")) {
-						this.delayedSetterColumns[DelayedSetter.BIRTHDATE.ordinal()] = iColumn;
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setFullBirthDate(s);
-							} catch (Exception e) {
-								processException(a, s, c, e, errorConsumer);
-							}
-						});
-					} else if (trimmedCellValue.contentEquals("M/F")) {
-						this.delayedSetterColumns[DelayedSetter.GENDER.ordinal()] = iColumn;
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								if (s != null && s.length() > 0) {
-									s = s.substring(0, 1).toUpperCase();
-								}
-								a.setGender(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalGender",s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Card.category")) {
-						this.delayedSetterColumns[DelayedSetter.CATEGORY.ordinal()] = iColumn;
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setCategory(s);
-							} catch (Exception e) {
-								processException(a, s, c, e, errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Scoreboard.BodyWeight")) {
-						this.delayedSetterColumns[DelayedSetter.BODYWEIGHT.ordinal()] = iColumn;
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								if (s == null || s.isBlank()) {
-									return;
-								}
-								double d = Double.parseDouble(s);
-								a.setBodyWeight(d);
-							} catch (Exception e) {
-								processException(a, s, c, e, errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Results.Snatch", "Results.Declaration_abbrev")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setSnatch1Declaration(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Results.CJ_abbrev", "Results.Declaration_abbrev")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setCleanJerk1Declaration(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Group")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
+	private void mapHeaderColumns(SheetRow row, RCompetition rComp, Consumer<String> errorConsumer) {
+		for (SheetCell cell : row.cells()) {
+			int iColumn = cell.column();
+			if (iColumn >= this.setterForColumn.length) {
+				continue;
+			}
+			String trimmedCellValue = cell.value().trim();
+
+			if (checkTranslation(trimmedCellValue, "Membership")) {
+				this.setterForColumn[iColumn] = (a, s, c) -> {
+					a.setMembership(s);
+				};
+			} else if (checkTranslation(trimmedCellValue, "Card.lotNumber")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setLotNumber(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "LastName")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setLastName(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "FirstName")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setFirstName(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Scoreboard.Team")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setTeam(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Registration.birth")) {
+				this.delayedSetterColumns[DelayedSetter.BIRTHDATE.ordinal()] = iColumn;
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setFullBirthDate(s);
+					} catch (Exception e) {
+						processException(a, s, c, e, errorConsumer);
+					}
+				});
+			} else if (trimmedCellValue.contentEquals("M/F")) {
+				this.delayedSetterColumns[DelayedSetter.GENDER.ordinal()] = iColumn;
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						if (s != null && s.length() > 0) {
+							s = s.substring(0, 1).toUpperCase();
+						}
+						a.setGender(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalGender",s)), errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "Card.category")) {
+				this.delayedSetterColumns[DelayedSetter.CATEGORY.ordinal()] = iColumn;
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setCategory(s);
+					} catch (Exception e) {
+						processException(a, s, c, e, errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "Scoreboard.BodyWeight")) {
+				this.delayedSetterColumns[DelayedSetter.BODYWEIGHT.ordinal()] = iColumn;
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						if (s == null || s.isBlank()) {
+							return;
+						}
+						double d = Double.parseDouble(s);
+						a.setBodyWeight(d);
+					} catch (Exception e) {
+						processException(a, s, c, e, errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "Results.Snatch", "Results.Declaration_abbrev")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setSnatch1Declaration(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "Results.CJ_abbrev", "Results.Declaration_abbrev")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setCleanJerk1Declaration(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "Group")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setGroup(s);
+					} catch (Exception e) {
+						if (isCreateMissingGroups()) {
+							Group g = GroupRepository.add(new Group(s));
+							rComp.addGroup(g);
 							try {
 								a.setGroup(s);
-							} catch (Exception e) {
-								if (isCreateMissingGroups()) {
-									Group g = GroupRepository.add(new Group(s));
-									rComp.addGroup(g);
-									try {
-										a.setGroup(s);
-									} catch (Exception e1) {
-										processException(a, s, c, e, errorConsumer);
-									}
-								} else {
-									processException(a, s, c, e, errorConsumer);
-								}
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Card.entryTotal")) {
-						this.delayedSetterColumns[DelayedSetter.QUALIFYING_TOTAL.ordinal()] = iColumn;
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								if (s != null && !s.isBlank()) {
-									int i = Integer.parseInt(s);
-									a.setQualifyingTotal(i);
-								}
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "Coach")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setCoach(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "Custom1.Title")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setCustom1(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "Custom2.Title")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setCustom2(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "Registration.FederationCodesShort")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setFederationCodes(s);
-						});
-					} else if (checkTranslation(trimmedCellValue, "PersonalBestSnatch")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setPersonalBestSnatch(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "PersonalBestCleanJerk")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setPersonalBestCleanJerk(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
-							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "PersonalBestTotal")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							try {
-								a.setPersonalBestTotal(s);
-							} catch (Exception e) {
-								processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
+							} catch (Exception e1) {
+								processException(a, s, c, e, errorConsumer);
 							}
-						});
-					} else if (checkTranslation(trimmedCellValue, "SubCategory")) {
-						this.setterForColumn[iColumn] = ((a, s, c) -> {
-							a.setSubCategory(s);
-						});
-					} else {
-						errorConsumer
-						        .accept(Translator.translate("Registration.UnknownColumnHeader", trimmedCellValue) + " "
-						                + trimmedCellValue);
-					}
-					iColumn++;
-				}
-			} else {
-				// process the values
-				RAthlete ra = new RAthlete();
-				Iterator<Cell> cellIterator = row.cellIterator();
-
-				// first pass, memorize cell values for setters that need to be called in a specific order
-				// setters that can be called immediately are invoked in this pass
-				String[] delayedSetterValues = new String[DelayedSetter.values().length];
-				Cell[] delayedSetterCells = new Cell[DelayedSetter.values().length];
-
-				boolean curRowEmpty = true;
-				while (cellIterator.hasNext()) {
-					Cell cell = cellIterator.next();
-					String cellValue = cellToString(cell);
-					String trim = cellValue.trim();
-					if (trim.isBlank()) {
-						continue;
+						} else {
+							processException(a, s, c, e, errorConsumer);
+						}
 					}
-
-					iColumn = cell.getColumnIndex();
-					curRowEmpty = false;
-					int delayedOrder = ArrayUtils.indexOf(this.delayedSetterColumns, iColumn);
-					if (delayedOrder < 0) {
-						if (iColumn < this.setterForColumn.length && this.setterForColumn[iColumn] != null
-						        && cell != null) {
-							this.logger.debug("setting column {} {}", iColumn, cell.getAddress());
-							this.setterForColumn[iColumn].accept(ra, cellValue.trim(), cell);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Card.entryTotal")) {
+				this.delayedSetterColumns[DelayedSetter.QUALIFYING_TOTAL.ordinal()] = iColumn;
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						if (s != null && !s.isBlank()) {
+							int i = Integer.parseInt(s);
+							a.setQualifyingTotal(i);
 						}
-					} else {
-						delayedSetterValues[delayedOrder] = cellValue.trim();
-						delayedSetterCells[delayedOrder] = cell;
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
 					}
-				}
-				if (curRowEmpty) {
-					break rows;
-				}
-
-				// second pass, call the delayed setters in the correct order.
-				for (int delayedOrder = 0; delayedOrder < DelayedSetter.values().length; delayedOrder++) {
-					Integer setterColumn = this.delayedSetterColumns[delayedOrder];
-					this.logger.debug("delayed setter [{}] {} {}", delayedOrder, DelayedSetter.values()[delayedOrder],
-					        setterColumn);
-					if (setterColumn != null && delayedSetterCells[delayedOrder] != null) {
-						this.setterForColumn[setterColumn].accept(ra, delayedSetterValues[delayedOrder],
-						        delayedSetterCells[delayedOrder]);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Coach")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setCoach(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Custom1.Title")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setCustom1(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Custom2.Title")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setCustom2(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "Registration.FederationCodesShort")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setFederationCodes(s);
+				});
+			} else if (checkTranslation(trimmedCellValue, "PersonalBestSnatch")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setPersonalBestSnatch(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
 					}
-				}
-				athletes.add(ra);
+				});
+			} else if (checkTranslation(trimmedCellValue, "PersonalBestCleanJerk")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setPersonalBestCleanJerk(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "PersonalBestTotal")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					try {
+						a.setPersonalBestTotal(s);
+					} catch (Exception e) {
+						processException(a, s, c, new Exception(Translator.translate("Registration.IllegalInteger", s)), errorConsumer);
+					}
+				});
+			} else if (checkTranslation(trimmedCellValue, "SubCategory")) {
+				this.setterForColumn[iColumn] = ((a, s, c) -> {
+					a.setSubCategory(s);
+				});
+			} else {
+				errorConsumer
+				        .accept(Translator.translate("Registration.UnknownColumnHeader", trimmedCellValue) + " "
+				                + trimmedCellValue);
 			}
-
-			iRow++;
 		}
-		return new AthleteInput(athletes);
 	}
 
 	private boolean checkTranslation(String valueRead, String string, String string2) {
@@ -29,7 +29,6 @@ import app.owlcms.data.platform.Platform;
 import app.owlcms.data.platform.PlatformRepository;
 import app.owlcms.i18n.Translator;
 import app.owlcms.init.OwlcmsFactory;
-import app.owlcms.init.OwlcmsSession;
 import app.owlcms.utils.LoggerUtils;
 import app.owlcms.utils.ResourceWalker;
 import ch.qos.logback.classic.Logger;
@@ -44,6 +43,7 @@ public class ORegistrationFileProcessor implements IRegistrationFileProcessor {
 	static final String REGISTRATION_READER_SPEC = "/templates/registration/RegistrationReader.xml";
 	Logger logger = (Logger) LoggerFactory.getLogger(ORegistrationFileProcessor.class);
 	public boolean keepParticipations;
+	private boolean sessionInvalidationNeeded;
 
 	public ORegistrationFileProcessor() {
 	}
@@ -55,6 +55,11 @@ public class ORegistrationFileProcessor implements IRegistrationFileProcessor {
 		}
 	}
 
+	@Override
+	public boolean isSessionInvalidationNeeded() {
+		return this.sessionInvalidationNeeded;
+	}
+
 	@Override
 	public String cleanMessage(String localizedMessage) {
 		localizedMessage = localizedMessage.replace("Can't read cell ", "");
@@ -119,7 +124,7 @@ public class ORegistrationFileProcessor implements IRegistrationFileProcessor {
 				}
 				if (status.getReadMessages().isEmpty()) {
 					// TODO: add UI Event to invalidate all sessions.
-					OwlcmsSession.invalidate();
+					this.sessionInvalidationNeeded = true;
 				}
 				return athletes.size();
 			} catch (InvalidFormatException | IOException e) {
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.spreadsheet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Reads the first sheet of a workbook one row at a time, without building the POI object model.
+ *
+ * Excel 2007+ files are parsed with the POI event (SAX) API, so memory use does not depend on the number of rows.
+ * Legacy .xls files go through the usermodel, since they are small in practice and the HSSF event API does not
+ * provide formatted values.
+ *
+ * Cell values are formatted the way Excel displays them (the same as {@link DataFormatter}), formulas give their
+ * cached result.
+ *
+ * @author Jean-François Lamy
+ */
+public class StreamingSheetReader {
+
+	/**
+	 * A non-blank cell.
+	 *
+	 * @param column  zero-based column index
+	 * @param address Excel-style address (e.g. B12), for error messages
+	 * @param value   formatted value
+	 */
+	public record SheetCell(int column, String address, String value) {
+	}
+
+	/**
+	 * A row as present in the sheet. Blank cells are omitted, so an empty list denotes an empty row.
+	 *
+	 * @param rowNum zero-based row index
+	 * @param cells  non-blank cells in column order
+	 */
+	public record SheetRow(int rowNum, List<SheetCell> cells) {
+		public boolean isEmpty() {
+			return this.cells.isEmpty();
+		}
+	}
+
+	private final static Logger logger = (Logger) LoggerFactory.getLogger(StreamingSheetReader.class);
+
+	/**
+	 * Feed the rows of the first sheet to a consumer.
+	 *
+	 * @param inputStream  the workbook, .xls or .xlsx
+	 * @param rowProcessor called for each row present in the sheet; returns false to stop reading.
+	 * @return the number of rows given to the processor
+	 * @throws IOException if the file cannot be read or is not a workbook
+	 */
+	public static int readFirstSheet(InputStream inputStream, Predicate<SheetRow> rowProcessor) throws IOException {
+		InputStream is = FileMagic.prepareToCheckMagic(inputStream);
+		if (FileMagic.valueOf(is) == FileMagic.OOXML) {
+			return readXlsx(is, rowProcessor);
+		} else {
+			return readWithUserModel(is, rowProcessor);
+		}
+	}
+
+	private static int readWithUserModel(InputStream is, Predicate<SheetRow> rowProcessor) throws IOException {
+		int nbRows = 0;
+		try (Workbook workbook = WorkbookFactory.create(is)) {
+			FormulaEvaluator formulaEvaluator = workbook.getCreationHelper().createFormulaEvaluator();
+			DataFormatter formatter = new DataFormatter();
+			Sheet sheet = workbook.getSheetAt(0);
+			Iterator<Row> rowIterator = sheet.rowIterator();
+			while (rowIterator.hasNext()) {
+				Row row = rowIterator.next();
+				List<SheetCell> cells = new ArrayList<>();
+				Iterator<Cell> cellIterator = row.cellIterator();
+				while (cellIterator.hasNext()) {
+					Cell cell = cellIterator.next();
+					String value = formatter.formatCellValue(cell, formulaEvaluator);
+					if (value != null && !value.isBlank()) {
+						cells.add(new SheetCell(cell.getColumnIndex(), cell.getAddress().formatAsString(), value));
+					}
+				}
+				nbRows++;
+				if (!rowProcessor.test(new SheetRow(row.getRowNum(), cells))) {
+					break;
+				}
+			}
+		}
+		return nbRows;
+	}
+
+	private static int readXlsx(InputStream is, Predicate<SheetRow> rowProcessor) throws IOException {
+		int[] nbRows = new int[1];
+		SheetContentsHandler handler = new SheetContentsHandler() {
+			private List<SheetCell> cells;
+			private int rowNum;
+
+			@Override
+			public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+				if (formattedValue == null || formattedValue.isBlank()) {
+					return;
+				}
+				if (cellReference == null) {
+					// POI omits the reference in some generated files; cells are then contiguous
+					cellReference = new CellReference(this.rowNum, this.cells.size()).formatAsString();
+				}
+				int column = new CellReference(cellReference).getCol();
+				this.cells.add(new SheetCell(column, cellReference, formattedValue));
+			}
+
+			@Override
+			public void endRow(int rowNum) {
+				nbRows[0]++;
+				if (!rowProcessor.test(new SheetRow(rowNum, this.cells))) {
+					// SheetContentsHandler cannot throw checked exceptions
+					throw new StopReadingRuntimeException();
+				}
+			}
+
+			@Override
+			public void startRow(int rowNum) {
+				this.rowNum = rowNum;
+				this.cells = new ArrayList<>();
+			}
+		};
+
+		OPCPackage pkg = null;
+		try {
+			pkg = OPCPackage.open(is);
+			XSSFReader xssfReader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			StylesTable styles = xssfReader.getStylesTable();
+			Iterator<InputStream> sheets = xssfReader.getSheetsData();
+			if (!sheets.hasNext()) {
+				return 0;
+			}
+			try (InputStream sheet = sheets.next()) {
+				XMLReader parser = XMLHelper.newXMLReader();
+				parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new DataFormatter(), false));
+				parser.parse(new InputSource(sheet));
+			} catch (StopReadingRuntimeException e) {
+				logger.trace("stopped reading after {} rows", nbRows[0]);
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException(e);
+		} finally {
+			if (pkg != null) {
+				// read-only use, do not attempt to save the package
+				pkg.revert();
+			}
+		}
+		return nbRows[0];
+	}
+
+	/**
+	 * Thrown from inside the SAX handler to stop parsing when the row processor has had enough.
+	 */
+	@SuppressWarnings("serial")
+	private static class StopReadingRuntimeException extends RuntimeException {
+		StopReadingRuntimeException() {
+			super(null, null, false, false);
+		}
+	}
+
+}
@@ -30,6 +30,7 @@ import app.owlcms.fieldofplay.FOPState;
 import app.owlcms.fieldofplay.FieldOfPlay;
 import app.owlcms.i18n.Translator;
 import app.owlcms.utils.LoggerUtils;
+import app.owlcms.utils.ServerClock;
 import app.owlcms.utils.StartupUtils;
 import ch.qos.logback.classic.Logger;
 
@@ -1091,7 +1092,7 @@ public class UIEvent {
 		 */
 		public StartTime(Integer timeRemaining, Object origin, boolean serverSound, FieldOfPlay fop) {
 			super(origin, fop);
-			this.start = System.currentTimeMillis();
+			this.start = getServerTime();
 			this.end = this.start + timeRemaining;
 			this.timeRemaining = timeRemaining;
 			this.serverSound = serverSound;
@@ -1104,6 +1105,9 @@ public class UIEvent {
 			this(timeRemaining, origin, serverSound, fop);
 		}
 
+		/**
+		 * @return the instant the time will be over, on the {@link ServerClock}
+		 */
 		public long getEnd() {
 			return this.end;
 		}
@@ -1292,6 +1296,7 @@ public class UIEvent {
 	private Athlete athlete;
 	private Object origin;
 	private FieldOfPlay fop;
+	private final long serverTime = ServerClock.now();
 
 	private UIEvent(Athlete athlete, Object origin, FieldOfPlay fop) {
 		this(origin, fop);
@@ -1321,6 +1326,13 @@ public class UIEvent {
 		return this.origin;
 	}
 
+	/**
+	 * @return creation time of the event on the {@link ServerClock}, used to compute timer deadlines
+	 */
+	public long getServerTime() {
+		return this.serverTime;
+	}
+
 	public String getTrace() {
 		return this.trace;
 	}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import app.owlcms.Main;
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.athlete.AthleteWriteBehind;
+import app.owlcms.data.athlete.LiftJournal;
+import app.owlcms.data.athlete.LiftResults;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.jpa.JPAService;
+
+/**
+ * Write-behind persistence of lift results: ordering, recovery, and edits made while results are pending.
+ */
+public class AthleteWriteBehindTest {
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+        TestData.insertInitialData(5, true);
+    }
+
+    @AfterClass
+    public static void tearDownTests() {
+        JPAService.close();
+    }
+
+    private Path dir;
+
+    @Test
+    public void latestResultsWin() {
+        Athlete a = AthleteRepository.findAll().get(0);
+        a.setValidation(false);
+        for (int i = 1; i <= 20; i++) {
+            a.setSnatch1Declaration(Integer.toString(100 + i));
+            AthleteRepository.saveLiftResults(a);
+        }
+        // pending results are visible before they are written
+        assertEquals("120", find(a.getId()).getSnatch1Declaration());
+
+        AthleteWriteBehind.barrier();
+        assertEquals("120", AthleteRepository.findById(a.getId()).getSnatch1Declaration());
+    }
+
+    @Test
+    public void newerSaveWins() {
+        Athlete a = AthleteRepository.findAll().get(1);
+        a.setValidation(false);
+        a.setSnatch1Declaration("100");
+        a.setSnatch1ActualLift("100");
+        AthleteRepository.saveLiftResults(a);
+
+        // the secretary corrects the lift on a copy read while the result is pending
+        Athlete edited = find(a.getId());
+        assertEquals("100", edited.getSnatch1ActualLift());
+        edited.setValidation(false);
+        edited.setSnatch1ActualLift("-100");
+        edited.setLastName("Edited");
+        AthleteRepository.save(edited);
+
+        assertEquals("-100", find(a.getId()).getSnatch1ActualLift());
+        AthleteWriteBehind.barrier();
+        Athlete stored = AthleteRepository.findById(a.getId());
+        assertEquals("-100", stored.getSnatch1ActualLift());
+        assertEquals("Edited", stored.getLastName());
+    }
+
+    @Test
+    public void recoveryAfterFailedWrite() throws Exception {
+        List<Athlete> athletes = AthleteRepository.findAll();
+        Long good = athletes.get(2).getId();
+        Long bad = athletes.get(3).getId();
+
+        LiftJournal previousRun = new LiftJournal(this.dir.resolve("lifts.journal"));
+        previousRun.append(1, new LiftResults(good, Map.of("snatch1Declaration", "77")));
+        // cannot be applied, so the batch as a whole fails
+        previousRun.append(2, new LiftResults(bad, Map.of("snatch1LiftTime", "not a time")));
+        previousRun.close();
+
+        AthleteWriteBehind.recover();
+        AthleteWriteBehind.barrier();
+
+        assertEquals("77", AthleteRepository.findById(good).getSnatch1Declaration());
+        assertEquals(0, new LiftJournal(this.dir.resolve("lifts.journal")).readAll().size());
+        List<LiftJournal.Entry> rejected = new LiftJournal(this.dir.resolve("lifts.rejected")).readAll();
+        assertEquals(1, rejected.size());
+        assertEquals(bad.longValue(), rejected.get(0).results().id());
+    }
+
+    @Before
+    public void setupTest() throws Exception {
+        this.dir = Files.createTempDirectory("writeBehind");
+        AthleteWriteBehind.setJournalDirectory(this.dir);
+        Config.getCurrent().setFeatureSwitches("writeBehind");
+    }
+
+    @After
+    public void tearDownTest() {
+        AthleteWriteBehind.barrier();
+        Config.getCurrent().setFeatureSwitches(null);
+    }
+
+    private Athlete find(Long id) {
+        return AthleteRepository.findAllByGroupAndWeighIn(null, null).stream()
+                .filter(x -> x.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import app.owlcms.Main;
+import app.owlcms.data.agegroup.AgeGroup;
+import app.owlcms.data.agegroup.Championship;
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.category.Category;
+import app.owlcms.data.category.CategoryIndex;
+import app.owlcms.data.category.CategoryRepository;
+import app.owlcms.data.category.RegistrationPreferenceComparator;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.jpa.JPAService;
+
+/**
+ * Check that the in-memory category index gives the same answers as the database queries it replaces.
+ */
+public class CategoryIndexTest {
+
+    private static final Double[] BODY_WEIGHTS = { null, 30.0D, 49.0D, 55.0D, 55.01D, 61.0D, 72.5D, 109.0D, 109.01D,
+            150.0D, 999.0D };
+    private static final Integer[] AGES = { null, 5, 13, 15, 17, 18, 20, 21, 30, 34, 35, 45, 60, 75, 90 };
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+        TestData.insertInitialData(5, true);
+    }
+
+    @AfterClass
+    public static void tearDownTests() {
+        JPAService.close();
+    }
+
+    @Test
+    public void sameAsDatabase() {
+        CategoryIndex.invalidate();
+        int nbNonEmpty = 0;
+        for (Gender gender : new Gender[] { null, Gender.M, Gender.F }) {
+            for (Integer age : AGES) {
+                for (Double bw : BODY_WEIGHTS) {
+                    List<Category> expected = CategoryRepository.findFiltered((String) null, gender,
+                            (Championship) null, (AgeGroup) null, age, bw, true, -1, -1);
+                    expected.sort(new RegistrationPreferenceComparator());
+                    List<Category> actual = CategoryIndex.get().find(gender, age, bw);
+                    String where = gender + " " + age + " " + bw;
+                    assertEquals(where, ids(expected), ids(actual));
+                    if (!actual.isEmpty()) {
+                        nbNonEmpty++;
+                    }
+                }
+            }
+        }
+        assertTrue("no categories found", nbNonEmpty > 0);
+    }
+
+    @Test
+    public void invalidatedOnSave() {
+        CategoryIndex first = CategoryIndex.get();
+        Category c = CategoryIndex.get().findAll().get(0);
+        CategoryRepository.save(c);
+        assertTrue("index should be rebuilt after a save", first != CategoryIndex.get());
+    }
+
+    private List<Long> ids(List<Category> categories) {
+        return categories.stream().map(Category::getId).collect(Collectors.toList());
+    }
+
+}
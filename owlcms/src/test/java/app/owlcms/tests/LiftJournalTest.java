@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import app.owlcms.data.athlete.LiftJournal;
+import app.owlcms.data.athlete.LiftResults;
+
+/**
+ * Journal used by write-behind persistence.
+ */
+public class LiftJournalTest {
+
+    @Test
+    public void appendReadTruncate() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        Path path = dir.resolve("lifts.journal");
+        LiftJournal journal = new LiftJournal(path);
+        journal.append(1, results(10L, "100"));
+        journal.append(2, results(11L, "-102"));
+        journal.append(3, results(10L, "105"));
+
+        List<LiftJournal.Entry> entries = new LiftJournal(path).readAll();
+        assertEquals(3, entries.size());
+        assertEquals(3L, entries.get(2).seq());
+        assertEquals(10L, entries.get(2).results().id());
+        assertEquals("105", entries.get(2).results().fields().get("snatch1ActualLift"));
+
+        // something appended after 2, must not be emptied
+        assertEquals(false, journal.truncateIfUpTo(2));
+        assertTrue(journal.truncateIfUpTo(3));
+        assertEquals(0, journal.readAll().size());
+
+        journal.append(4, results(12L, "90"));
+        assertEquals(1, journal.readAll().size());
+        journal.close();
+    }
+
+    @Test
+    public void tornLastLine() throws Exception {
+        Path path = Files.createTempDirectory("journal").resolve("lifts.journal");
+        LiftJournal journal = new LiftJournal(path);
+        journal.append(1, results(10L, "100"));
+        journal.close();
+        Files.write(path, "{\"seq\":2,\"id\":1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        List<LiftJournal.Entry> entries = journal.readAll();
+        assertEquals(1, entries.size());
+        assertEquals(1L, entries.get(0).seq());
+    }
+
+    private LiftResults results(long id, String snatch1) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("snatch1Declaration", "100");
+        fields.put("snatch1ActualLift", snatch1);
+        return new LiftResults(id, fields);
+    }
+
+}
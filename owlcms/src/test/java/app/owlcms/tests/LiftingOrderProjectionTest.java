@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import app.owlcms.Main;
+import app.owlcms.apputils.DebugUtils;
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.athleteSort.AthleteSorter;
+import app.owlcms.data.athleteSort.LiftingOrderProjection;
+import app.owlcms.data.athleteSort.LiftingOrderProjection.Projection;
+import app.owlcms.data.competition.Competition;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.jpa.JPAService;
+
+public class LiftingOrderProjectionTest {
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+        TestData.insertInitialData(5, true);
+    }
+
+    @AfterClass
+    public static void tearDownTests() {
+        JPAService.close();
+    }
+
+    List<Athlete> athletes = null;
+
+    @Test
+    public void sameOrderAsSorter() {
+        liftSession(new Random(0));
+    }
+
+    @Test
+    public void roundRobinOrder() {
+        Competition.getCurrent().setRoundRobinOrder(true);
+        liftSession(new Random(1));
+    }
+
+    @Test
+    public void genderOrder() {
+        Competition.getCurrent().setGenderOrder(true);
+        liftSession(new Random(2));
+    }
+
+    @Test
+    public void fixedOrder() {
+        Competition.getCurrent().setFixedOrder(true);
+        List<Athlete> shuffled = new ArrayList<>(athletes);
+        Collections.shuffle(shuffled, new Random(3));
+        for (int i = 0; i < shuffled.size(); i++) {
+            shuffled.get(i).setLotNumber(i + 1);
+        }
+        liftSession(new Random(3));
+    }
+
+    @Test
+    public void forcedAsCurrent() {
+        Random random = new Random(4);
+        declare(random);
+        LiftingOrderProjection projection = new LiftingOrderProjection();
+        List<Athlete> order = projection.update(athletes);
+
+        Athlete forced = order.get(order.size() - 1);
+        forced.setForcedAsCurrent(true);
+        order = projection.update(athletes);
+        assertEquals(forced, order.get(0));
+        assertSameOrder(order);
+
+        forced.setForcedAsCurrent(false);
+        assertSameOrder(projection.update(athletes));
+    }
+
+    @Test
+    public void tiesWithShiftingIndices() {
+        // everything equal: only the position in the list decides
+        for (Athlete a : athletes) {
+            a.setSnatch1Declaration("70");
+            a.setStartNumber(1);
+            a.setLotNumber(1);
+        }
+        LiftingOrderProjection projection = new LiftingOrderProjection();
+        assertSameOrder(projection.update(athletes));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 10; i++) {
+            if (i % 2 == 0) {
+                Collections.reverse(athletes);
+            } else {
+                Collections.shuffle(athletes, random);
+            }
+            List<Athlete> order = projection.update(athletes);
+            assertEquals(athletes.size(), order.stream().distinct().count());
+            assertSameOrder(order);
+        }
+
+        // ties on the requested weight are kept when one athlete moves
+        Athlete moved = athletes.get(0);
+        moved.setSnatch1Declaration("72");
+        Collections.reverse(athletes);
+        List<Athlete> order = projection.update(athletes);
+        assertEquals(athletes.size(), order.stream().distinct().count());
+        assertEquals(moved, order.get(order.size() - 1));
+        assertSameOrder(order);
+    }
+
+    @Test
+    public void projectedPosition() {
+        for (Athlete a : athletes) {
+            a.setSnatch1Declaration("70");
+        }
+        LiftingOrderProjection projection = new LiftingOrderProjection();
+        List<Athlete> order = projection.update(athletes);
+        Athlete last = order.get(order.size() - 1);
+
+        Projection same = projection.project(last.getId(), 70, null);
+        assertEquals(order.size() - 1, same.position());
+        assertEquals(order.get(0), same.next());
+
+        Projection lighter = projection.project(last.getId(), 65, null);
+        assertEquals(0, lighter.position());
+        assertEquals(last, lighter.next());
+
+        Athlete first = order.get(0);
+        Projection heavier = projection.project(first.getId(), 75, null);
+        assertEquals(order.size() - 1, heavier.position());
+        assertEquals(order.get(1), heavier.next());
+
+        // nothing changed
+        assertEquals(order, projection.getLiftingOrder());
+        assertNull(projection.project(-1L, 70, null));
+    }
+
+    @Before
+    public void setupTest() {
+        athletes = AthleteRepository.findAll();
+        for (Athlete a : athletes) {
+            a.setValidation(false);
+        }
+    }
+
+    @After
+    public void tearDownTest() {
+        Competition comp = Competition.getCurrent();
+        comp.setRoundRobinOrder(false);
+        comp.setGenderOrder(false);
+        comp.setFixedOrder(false);
+    }
+
+    private void assertSameOrder(List<Athlete> order) {
+        assertEquals(DebugUtils.shortDump(AthleteSorter.liftingOrderCopy(athletes)), DebugUtils.shortDump(order));
+    }
+
+    private void declare(Random random) {
+        for (Athlete a : athletes) {
+            a.setSnatch1Declaration(Integer.toString(60 + random.nextInt(20)));
+            a.setCleanJerk1Declaration(Integer.toString(80 + random.nextInt(20)));
+        }
+    }
+
+    /**
+     * Declare random weights, then lift all the attempts, checking the order against the sorter after each one.
+     */
+    private void liftSession(Random random) {
+        declare(random);
+        LiftingOrderProjection projection = new LiftingOrderProjection();
+        List<Athlete> order = projection.update(athletes);
+        assertSameOrder(order);
+
+        for (int i = 0; i < athletes.size() * 6; i++) {
+            Athlete current = order.get(0);
+            lift(current, random.nextBoolean());
+            order = projection.update(athletes);
+            assertSameOrder(order);
+        }
+    }
+
+    private void lift(Athlete a, boolean good) {
+        int weight = a.getNextAttemptRequestedWeight();
+        String actual = Integer.toString(good ? weight : -weight);
+        String next = Integer.toString(good ? weight + 1 : weight);
+        switch (a.getAttemptsDone()) {
+            case 0 -> {
+                a.setSnatch1ActualLift(actual);
+                a.setSnatch2Declaration(next);
+            }
+            case 1 -> {
+                a.setSnatch2ActualLift(actual);
+                a.setSnatch3Declaration(next);
+            }
+            case 2 -> a.setSnatch3ActualLift(actual);
+            case 3 -> {
+                a.setCleanJerk1ActualLift(actual);
+                a.setCleanJerk2Declaration(next);
+            }
+            case 4 -> {
+                a.setCleanJerk2ActualLift(actual);
+                a.setCleanJerk3Declaration(next);
+            }
+            default -> a.setCleanJerk3ActualLift(actual);
+        }
+    }
+
+}
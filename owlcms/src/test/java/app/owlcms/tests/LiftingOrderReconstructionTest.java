@@ -7,6 +7,7 @@
 package app.owlcms.tests;
 
 import static app.owlcms.tests.AllTests.assertEqualsToReferenceFile;
+import static org.junit.Assert.assertEquals;
 
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -54,6 +55,7 @@ public class LiftingOrderReconstructionTest {
         LiftOrderReconstruction liftOrderReconstruction = new LiftOrderReconstruction(fopState);
         final String actual = liftOrderReconstruction.shortDump();
         assertEqualsToReferenceFile("/reconstructedSequence3.txt", actual);
+        assertEquals(actual, fopState.getLiftOrderHistory().shortDump());
     }
 
     @Test
@@ -66,6 +68,7 @@ public class LiftingOrderReconstructionTest {
         LiftOrderReconstruction liftOrderReconstruction = new LiftOrderReconstruction(fopState);
         final String actual = liftOrderReconstruction.shortDump();
         assertEqualsToReferenceFile("/reconstructedSequence4.txt", actual);
+        assertEquals(actual, fopState.getLiftOrderHistory().shortDump());
     }
 
     @Before
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import app.owlcms.monitors.MQTTStateTopics;
+
+/**
+ * Only changed subtopics are republished, obsolete ones are cleared.
+ */
+public class MQTTStateTopicsTest {
+
+    @Test
+    public void onlyChangesArePublished() {
+        MQTTStateTopics topics = new MQTTStateTopics("A");
+        Map<String, Map<String, Object>> state = new LinkedHashMap<>();
+        state.put("current", Map.of("id", 1L));
+        state.put("athletes/1", Map.of("total", 100));
+        state.put("athletes/2", Map.of("total", 90));
+
+        Map<String, byte[]> changes = topics.changes(state);
+        assertEquals(3, changes.size());
+        String payload = new String(changes.get("owlcms/fop/state/A/athletes/1"), StandardCharsets.UTF_8);
+        assertEquals("{\"v\":1,\"seq\":1,\"total\":100}", payload);
+
+        // nothing changed
+        assertTrue(topics.changes(state).isEmpty());
+
+        // one athlete changes, the other leaves
+        state.put("athletes/1", Map.of("total", 105));
+        state.remove("athletes/2");
+        changes = topics.changes(state);
+        assertEquals(2, changes.size());
+        assertEquals("{\"v\":1,\"seq\":2,\"total\":105}",
+                new String(changes.get("owlcms/fop/state/A/athletes/1"), StandardCharsets.UTF_8));
+        assertEquals(0, changes.get("owlcms/fop/state/A/athletes/2").length);
+
+        // after a reset everything is sent again
+        topics.reset();
+        assertEquals(2, topics.changes(state).size());
+    }
+
+    @Test
+    public void obsoleteTopicsClearedAfterReset() {
+        MQTTStateTopics topics = new MQTTStateTopics("A");
+        Map<String, Map<String, Object>> state = new LinkedHashMap<>();
+        state.put("current", Map.of("id", 1L));
+        state.put("athletes/1", Map.of("total", 100));
+        topics.changes(state);
+
+        // reconnection, then a new group: the retained message of the previous athlete must still be cleared
+        topics.reset();
+        state.remove("athletes/1");
+        state.put("athletes/3", Map.of("total", 80));
+        Map<String, byte[]> changes = topics.changes(state);
+        assertEquals(3, changes.size());
+        assertEquals(0, changes.get("owlcms/fop/state/A/athletes/1").length);
+        assertTrue(changes.get("owlcms/fop/state/A/current").length > 0);
+
+        // cleared topics are forgotten
+        topics.reset();
+        assertFalse(topics.changes(state).containsKey("owlcms/fop/state/A/athletes/1"));
+    }
+
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import app.owlcms.monitors.LatencyStats;
+import app.owlcms.monitors.MQTTTopicTrie;
+
+/**
+ * Routing of MQTT topics and latency percentiles.
+ */
+public class MQTTTopicTrieTest {
+
+    @Test
+    public void exactTopics() {
+        MQTTTopicTrie<String> trie = new MQTTTopicTrie<>();
+        trie.put("owlcms/refbox/decision/A", "decision");
+        trie.put("owlcms/decision/A", "deprecated");
+        trie.put("owlcms/test/A", "test");
+        assertEquals(3, trie.size());
+        assertEquals("decision", trie.get("owlcms/refbox/decision/A"));
+        assertEquals("deprecated", trie.get("owlcms/decision/A"));
+        assertEquals("test", trie.get("owlcms/test/A"));
+        assertNull(trie.get("owlcms/test/B"));
+        assertNull(trie.get("owlcms/test"));
+        assertNull(trie.get("owlcms/test/A/extra"));
+    }
+
+    @Test
+    public void wildcards() {
+        MQTTTopicTrie<String> trie = new MQTTTopicTrie<>();
+        trie.put("owlcms/+/A", "single");
+        trie.put("owlcms/#", "multi");
+        trie.put("owlcms/clock/A", "exact");
+        assertEquals("exact", trie.get("owlcms/clock/A"));
+        assertEquals("single", trie.get("owlcms/jurybox/A"));
+        assertEquals("multi", trie.get("owlcms/jurybox/B"));
+        assertEquals("multi", trie.get("owlcms"));
+        assertNull(trie.get("other/clock/A"));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyStats stats = new LatencyStats(100);
+        assertEquals(0L, stats.percentile(50));
+        for (int i = 1; i <= 200; i++) {
+            stats.record(i);
+        }
+        // only the last 100 samples (101..200) are kept
+        assertEquals(200, stats.getCount());
+        assertEquals(150L, stats.percentile(50));
+        assertEquals(199L, stats.percentile(99));
+        assertEquals(200L, stats.percentile(100));
+        assertEquals(101L, stats.percentile(0));
+    }
+
+}
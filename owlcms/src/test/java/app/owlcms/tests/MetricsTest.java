@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import app.owlcms.monitors.Metrics;
+
+/**
+ * Metrics registry and Prometheus text output.
+ */
+public class MetricsTest {
+
+    @Test
+    public void counterAndGauge() {
+        Metrics.Counter c = Metrics.counter("test_requests_total", "Requests", "fop", "A");
+        assertSame(c, Metrics.counter("test_requests_total", "Requests", "fop", "A"));
+        c.inc();
+        c.inc(2);
+        Metrics.gauge("test_pool_active", "Active", () -> 4.0, "name", "a\"b");
+        String text = Metrics.toPrometheus();
+        assertTrue(text, text.contains("# TYPE test_requests_total counter\n"));
+        assertTrue(text, text.contains("test_requests_total{fop=\"A\"} 3\n"));
+        assertTrue(text, text.contains("test_pool_active{name=\"a\\\"b\"} 4\n"));
+    }
+
+    @Test
+    public void timerHistogram() {
+        Metrics.Timer t = Metrics.timer("test_work_seconds", "Work", "fop", "B");
+        t.record(500_000L); // 0.5 ms
+        t.record(3_000_000L); // 3 ms
+        t.record(20_000_000_000L); // 20 s, beyond the last bucket
+        assertEquals(3, t.getCount());
+        assertEquals(0.001, t.quantile(0.3), 0.0);
+        assertEquals(0.005, t.quantile(0.6), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, t.quantile(1.0), 0.0);
+
+        String text = Metrics.toPrometheus();
+        assertTrue(text, text.contains("# TYPE test_work_seconds histogram\n"));
+        assertTrue(text, text.contains("test_work_seconds_bucket{fop=\"B\",le=\"0.001\"} 1\n"));
+        assertTrue(text, text.contains("test_work_seconds_bucket{fop=\"B\",le=\"0.005\"} 2\n"));
+        assertTrue(text, text.contains("test_work_seconds_bucket{fop=\"B\",le=\"10\"} 2\n"));
+        assertTrue(text, text.contains("test_work_seconds_bucket{fop=\"B\",le=\"+Inf\"} 3\n"));
+        assertTrue(text, text.contains("test_work_seconds_count{fop=\"B\"} 3\n"));
+        assertTrue(text, text.contains("test_work_seconds_sum{fop=\"B\"} 20.0035\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typeClash() {
+        Metrics.counter("test_clash", "Clash");
+        Metrics.timer("test_clash", "Clash");
+    }
+
+}
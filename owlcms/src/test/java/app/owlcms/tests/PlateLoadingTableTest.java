@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.platform.PlateLoadingTable;
+import app.owlcms.data.platform.PlateLoadingTable.Equipment;
+import app.owlcms.data.platform.PlateLoadingTable.Loading;
+import app.owlcms.data.platform.Platform;
+
+public class PlateLoadingTableTest {
+
+    private Platform platform;
+
+    @Before
+    public void setupTest() {
+        platform = new Platform("plateLoadingTest");
+        platform.defaultPlates();
+    }
+
+    @Test
+    public void collarAfterSmallPlates() {
+        Loading loading = PlateLoadingTable.of(platform).getLoading(100, 20, true);
+        assertEquals(List.of("bar", "barInner", "L_25", "L_10", "S_2_5", "C_2_5", "barOuter"), loading.plates());
+        assertTrue(loading.reachable());
+
+        loading = PlateLoadingTable.of(platform).getLoading(100, 20, false);
+        assertEquals(List.of("bar", "barInner", "L_25", "L_15", "barOuter"), loading.plates());
+        assertTrue(loading.reachable());
+    }
+
+    @Test
+    public void unreachableWeights() {
+        PlateLoadingTable table = PlateLoadingTable.of(platform);
+        int max = table.getMaxWeight(20, true);
+        assertEquals(290, max);
+        assertTrue(table.getLoading(max, 20, true).reachable());
+        assertFalse(table.getLoading(max + 1, 20, true).reachable());
+        assertFalse(table.getLoading(19, 20, true).reachable());
+
+        platform.setNbS_0_5(0);
+        assertFalse(PlateLoadingTable.of(platform).getLoading(101, 20, true).reachable());
+        assertTrue(PlateLoadingTable.of(platform).getLoading(102, 20, true).reachable());
+    }
+
+    @Test
+    public void rebuiltWhenPlatesChange() {
+        PlateLoadingTable table = PlateLoadingTable.of(platform);
+        assertSame(table, PlateLoadingTable.of(platform));
+
+        platform.setNbL_5(1);
+        PlateLoadingTable changed = PlateLoadingTable.of(platform);
+        assertNotSame(table, changed);
+        assertEquals(List.of("bar", "barInner", "L_5", "barOuter"), changed.getLoading(20, 10, false).plates());
+    }
+
+    @Test
+    public void keptWhenRenamed() {
+        PlateLoadingTable table = PlateLoadingTable.of(platform);
+        platform.setName("renamed");
+        assertSame(table, PlateLoadingTable.of(platform));
+    }
+
+    @Test
+    public void barFollowsAthleteGender() {
+        // the gender of the athlete whose weight is loaded, not that of the current athlete
+        assertEquals(new Equipment(false, 20, true), PlateLoadingTable.equipmentFor(platform, Gender.M, false, 60));
+        assertEquals(new Equipment(true, 15, true), PlateLoadingTable.equipmentFor(platform, Gender.F, false, 60));
+        assertEquals(new Equipment(true, 15, false), PlateLoadingTable.equipmentFor(platform, Gender.F, false, 35));
+        // federation rule for the youngest age groups
+        assertEquals(new Equipment(true, 15, true), PlateLoadingTable.equipmentFor(platform, Gender.M, true, 60));
+    }
+
+    @Test
+    public void nonStandardBarCollarsFollowWeight() {
+        // collars depend on the weight being loaded, not on the weight of the current attempt
+        platform.setUseNonStandardBar(true);
+        platform.setNonStandardBarWeight(10);
+        assertEquals(new Equipment(true, 10, false), PlateLoadingTable.equipmentFor(platform, Gender.M, false, 39));
+        assertEquals(new Equipment(true, 10, true), PlateLoadingTable.equipmentFor(platform, Gender.M, false, 40));
+    }
+
+    @Test
+    public void childrenEquipment() {
+        // as set by the childrenEquipment feature switch
+        platform.setNbB_5(1);
+        platform.setNbB_10(1);
+        platform.setNbB_15(1);
+        platform.setNbB_20(1);
+        platform.setNbL_2_5(1);
+        platform.setNbL_5(1);
+        PlateLoadingTable table = PlateLoadingTable.of(platform);
+
+        Equipment e = PlateLoadingTable.equipmentFor(platform, Gender.M, false, 12);
+        assertEquals(new Equipment(true, 5, false), e);
+        Loading loading = table.getLoading(12, e.barWeight(), e.useCollars());
+        assertEquals(List.of("bar", "barInner", "L_2_5", "S_1", "barOuter"), loading.plates());
+        assertTrue(loading.reachable());
+
+        e = PlateLoadingTable.equipmentFor(platform, Gender.F, false, 18);
+        assertEquals(new Equipment(true, 10, false), e);
+        loading = table.getLoading(18, e.barWeight(), e.useCollars());
+        assertEquals(List.of("bar", "barInner", "L_2_5", "S_1_5", "barOuter"), loading.plates());
+
+        e = PlateLoadingTable.equipmentFor(platform, Gender.F, false, 30);
+        assertEquals(new Equipment(true, 15, false), e);
+        loading = table.getLoading(30, e.barWeight(), e.useCollars());
+        assertEquals(List.of("bar", "barInner", "L_5", "S_2_5", "barOuter"), loading.plates());
+
+        // large 5 on the men's bar: no collars
+        e = PlateLoadingTable.equipmentFor(platform, Gender.M, false, 30);
+        assertEquals(new Equipment(false, 20, true), e);
+        loading = table.getLoading(30, e.barWeight(), e.useCollars());
+        assertEquals(List.of("bar", "barInner", "L_5", "barOuter"), loading.plates());
+        assertTrue(loading.reachable());
+    }
+
+}
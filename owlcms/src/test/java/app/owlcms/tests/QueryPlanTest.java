@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import app.owlcms.Main;
+import app.owlcms.data.agegroup.AgeGroup;
+import app.owlcms.data.agegroup.Championship;
+import app.owlcms.data.agegroup.ChampionshipType;
+import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.athlete.Gender;
+import app.owlcms.data.category.Category;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.group.Group;
+import app.owlcms.data.jpa.BenchmarkData;
+import app.owlcms.data.jpa.JPAService;
+import app.owlcms.data.records.RecordRepository;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Check that the queries run on every lift use the indexes declared on the entities.
+ *
+ * The JPQL is obtained from the repositories themselves (the query constants and builders they use are public for
+ * this purpose), so a change to a repository query is checked here without having to copy it. The JPQL is translated
+ * to SQL by Hibernate and explained by H2 on the benchmark database. A full scan shows as "tableScan" in the plan.
+ */
+public class QueryPlanTest {
+
+    final static Logger logger = (Logger) LoggerFactory.getLogger(QueryPlanTest.class);
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+        ((Logger) LoggerFactory.getLogger(BenchmarkData.class)).setLevel(Level.WARN);
+        BenchmarkData.insertInitialData(EnumSet.of(ChampionshipType.IWF, ChampionshipType.MASTERS));
+        JPAService.runInTransaction(em -> {
+            em.unwrap(Session.class).doWork(c -> {
+                try (Statement s = c.createStatement()) {
+                    // selectivity statistics, as on a database that has been in use.
+                    s.execute("ANALYZE");
+                }
+            });
+            return null;
+        });
+    }
+
+    @AfterClass
+    public static void tearDownTests() {
+        JPAService.close();
+    }
+
+    /**
+     * AthleteRepository.doFindAllByGroupAndWeighIn
+     */
+    @Test
+    public void athletesByGroupAndWeighIn() {
+        // only the presence of the group is used to build the query
+        String plan = explain(AthleteRepository.filteredQuery((String) null, new Group("A"), (Category) null,
+                (AgeGroup) null, (Championship) null, (Gender) null, true, (String) null));
+        assertNoTableScan(plan, "ATHLETE");
+        assertTrue(plan, plan.contains("IX_ATHLETE_GROUP_BW"));
+    }
+
+    /**
+     * AthleteRepository.findAthletesForGlobalRanking. All the athletes are read, but the categories of the current
+     * session must be found through the indexes.
+     */
+    @Test
+    public void globalRanking() {
+        String plan = explain(AthleteRepository.globalRankingQuery(true));
+        assertTrue(plan, plan.contains("IX_ATHLETE_GROUP_BW"));
+        assertTrue(plan, plan.contains("IX_CATEGORY_CODE"));
+    }
+
+    /**
+     * AthleteRepository.findAthletesForCategory
+     */
+    @Test
+    public void participationsByCategory() {
+        String plan = explain(AthleteRepository.ATHLETES_FOR_CATEGORY_QUERY);
+        assertNoTableScan(plan, "ATHLETE", "PARTICIPATION");
+        assertTrue(plan, plan.contains("IX_PARTICIPATION_CATEGORY"));
+    }
+
+    /**
+     * RecordRepository.findFiltered
+     */
+    @Test
+    public void recordsByCategory() {
+        // only the presence of the values is used to build the query
+        String plan = explain(RecordRepository.filteredQuery(Gender.F, 30, 64.0, null, null));
+        assertNoTableScan(plan, "RECORDEVENT");
+    }
+
+    private void assertNoTableScan(String plan, String... tables) {
+        for (String table : tables) {
+            assertFalse(plan, plan.contains(table + ".tableScan"));
+        }
+    }
+
+    private String explain(String jpql) {
+        return JPAService.runInTransaction(em -> {
+            SessionFactoryImplementor sf = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+            QueryTranslator translator = new ASTQueryTranslatorFactory()
+                    .createQueryTranslator(jpql, jpql, Collections.emptyMap(), sf, null);
+            translator.compile(Collections.emptyMap(), false);
+            String sql = translator.getSQLString();
+            StringBuilder plan = new StringBuilder();
+            em.unwrap(Session.class).doWork(c -> {
+                // H2 explains a statement without its parameters
+                try (PreparedStatement ps = c.prepareStatement("EXPLAIN " + sql); ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1));
+                    }
+                }
+            });
+            logger.debug("{}", plan);
+            return plan.toString();
+        });
+    }
+
+}
@@ -7,10 +7,13 @@
 package app.owlcms.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static app.owlcms.tests.AllTests.assertEqualsToReferenceFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -213,4 +216,29 @@ public class RecordDefinitionReaderTest {
             }
         }
     }
+
+    @Test
+    public void _11_testUnchangedFolder() throws IOException {
+        Path folder = Files.createTempDirectory("records");
+        try (InputStream is = this.getClass().getResourceAsStream("/testData/records/EWFRecords.xlsx")) {
+            Files.copy(is, folder.resolve("EWFRecords.xlsx"));
+        }
+        RecordDefinitionReader.readFolder(folder);
+        assertEquals("expected size wrong", 180, RecordRepository.findAll().size());
+
+        // same content: the file is not read again, the change in the database stays.
+        JPAService.runInTransaction(em -> em
+                .createQuery("update RecordEvent rec set rec.recordValue = 0 where rec.fileName = :fn")
+                .setParameter("fn", "EWFRecords")
+                .executeUpdate());
+        RecordDefinitionReader.readFolder(folder);
+        assertTrue(RecordRepository.findAll().stream().allMatch(r -> r.getRecordValue() == 0.0D));
+
+        // records removed: the file is read again.
+        RecordRepository.clearLoadedRecords();
+        RecordDefinitionReader.readFolder(folder);
+        List<RecordEvent> all = RecordRepository.findAll();
+        assertEquals("expected size wrong", 180, all.size());
+        assertTrue(all.stream().anyMatch(r -> r.getRecordValue() != null && r.getRecordValue() > 0.0D));
+    }
 }
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import app.owlcms.Main;
+import app.owlcms.data.athlete.Athlete;
+import app.owlcms.data.athlete.AthleteRepository;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.jpa.JPAService;
+import app.owlcms.i18n.Translator;
+import app.owlcms.init.OwlcmsSession;
+import app.owlcms.spreadsheet.NRegistrationFileProcessor;
+
+/**
+ * The registration upload runs on a background thread that has no Vaadin session. The headers and dates of a
+ * translated template must still be read with the locale of the user who started the upload.
+ */
+public class RegistrationLocaleTest {
+
+    private static final String[] HEADERS = { "LastName", "FirstName", "Registration.birth", "Scoreboard.Team" };
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+        TestData.insertInitialData(5, true);
+    }
+
+    @AfterClass
+    public static void tearDownTests() {
+        JPAService.close();
+    }
+
+    @Test
+    public void frenchTemplateFromBackgroundThread() throws Exception {
+        // the French header must not also be accepted as the English fallback
+        assertNotEquals(Translator.translateExplicitLocale("Registration.birth", Locale.ENGLISH),
+                Translator.translateExplicitLocale("Registration.birth", Locale.FRENCH));
+        byte[] workbook = frenchWorkbook();
+
+        List<String> errors = new ArrayList<>();
+        Locale[] seen = new Locale[1];
+        Thread upload = new Thread(() -> OwlcmsSession.withLocale(Locale.FRENCH, () -> {
+            seen[0] = OwlcmsSession.getLocale();
+            new NRegistrationFileProcessor().doProcessAthletes(new ByteArrayInputStream(workbook), false,
+                    errors::add, () -> {
+                    }, false);
+        }), "registrationUpload");
+        upload.start();
+        upload.join();
+
+        assertEquals(Locale.FRENCH, seen[0]);
+        assertTrue(errors.toString(), errors.isEmpty());
+        Athlete dupont = AthleteRepository.findAll().stream()
+                .filter(a -> "Dupont".equals(a.getLastName()))
+                .findFirst().orElse(null);
+        assertNotNull(dupont);
+        // 25/12/2001 is only a valid date in the French day-first format
+        assertEquals(LocalDate.of(2001, 12, 25), dupont.getFullBirthDate());
+    }
+
+    private byte[] frenchWorkbook() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = wb.createSheet();
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(Translator.translateExplicitLocale(HEADERS[i], Locale.FRENCH));
+            }
+            Row athlete = sheet.createRow(1);
+            athlete.createCell(0).setCellValue("Dupont");
+            athlete.createCell(1).setCellValue("Marie");
+            athlete.createCell(2).setCellValue("25/12/2001");
+            athlete.createCell(3).setCellValue("CLUB");
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -9,6 +9,9 @@ package app.owlcms.tests;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
 
@@ -21,6 +24,7 @@ import app.owlcms.data.config.Config;
 import app.owlcms.data.jpa.JPAService;
 import app.owlcms.utils.Resource;
 import app.owlcms.utils.ResourceWalker;
+import app.owlcms.utils.ZipUtils;
 
 public class ResourceWalkerTest {
 
@@ -71,4 +75,33 @@ public class ResourceWalkerTest {
     	new ResourceWalker().getPRResourceMap(Locale.ENGLISH);
     }
 
+    @Test
+    public void testIndexedOverrides() throws IOException, InterruptedException {
+        Path previous = ResourceWalker.getLocalDirPath();
+        Path dir = Files.createTempDirectory("owlcmsIndexTest");
+        try {
+            Files.createDirectories(dir.resolve("flags"));
+            Files.writeString(dir.resolve("flags/AAA.svg"), "<svg/>");
+            ResourceWalker.setLocalDirPath(dir);
+
+            assertTrue(ResourceWalker.existsFileOrResource("flags/AAA.svg"));
+            assertTrue(ResourceWalker.existsFileOrResource("/flags"));
+            assertFalse(ResourceWalker.existsFileOrResource("flags/BBB.svg"));
+            // classpath lookups, present and absent
+            assertTrue(ResourceWalker.existsFileOrResource("/i18n/translation4.csv"));
+            assertFalse(ResourceWalker.existsFileOrResource("/i18n/noSuchFile.csv"));
+
+            // the directory watcher discards the index when a file is added
+            Files.writeString(dir.resolve("flags/BBB.svg"), "<svg/>");
+            long deadline = System.currentTimeMillis() + 15000;
+            while (!ResourceWalker.existsFileOrResource("flags/BBB.svg") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(ResourceWalker.existsFileOrResource("flags/BBB.svg"));
+        } finally {
+            ResourceWalker.setLocalDirPath(previous);
+            ZipUtils.deleteDirectoryRecursively(dir);
+        }
+    }
+
 }
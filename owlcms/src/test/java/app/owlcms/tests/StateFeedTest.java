@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import app.owlcms.monitors.StateFeed;
+import app.owlcms.monitors.StateFeedClient;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+
+/**
+ * Server-sent events of the JSON state feed, written without blocking the thread that produces them.
+ */
+public class StateFeedTest {
+
+    /**
+     * Output stream that accepts writes only when told to, like a connection whose client is not reading.
+     */
+    private static class FakeOutput extends ServletOutputStream {
+        boolean broken;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int flushes;
+        WriteListener listener;
+        boolean ready = true;
+
+        @Override
+        public void flush() throws IOException {
+            this.flushes++;
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.broken) {
+                throw new IOException("Broken pipe");
+            }
+            if (!this.ready) {
+                throw new IllegalStateException("not ready");
+            }
+            this.bytes.write(b);
+        }
+
+        String text() {
+            return this.bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private boolean[] completed = new boolean[1];
+
+    @Test
+    public void disconnectedClientIsClosed() throws IOException {
+        FakeOutput out = new FakeOutput();
+        StateFeedClient client = new StateFeedClient(context(out));
+        assertTrue(client.offer(StateFeed.event(1, "{}")));
+
+        out.broken = true;
+        assertFalse(client.offer(StateFeed.event(2, "{}")));
+        assertTrue(client.isClosed());
+        assertTrue(this.completed[0]);
+        assertFalse(client.offer(StateFeed.KEEPALIVE));
+    }
+
+    @Test
+    public void eventFormat() {
+        assertEquals("id: 7\ndata: {\"fop\":\"A\"}\n\n", StateFeed.event(7, "{\"fop\":\"A\"}"));
+        // a comment line, ignored by EventSource
+        assertTrue(StateFeed.KEEPALIVE.startsWith(":"));
+        assertTrue(StateFeed.KEEPALIVE.endsWith("\n\n"));
+    }
+
+    @Test
+    public void keepaliveIsWrittenAndFlushed() throws IOException {
+        FakeOutput out = new FakeOutput();
+        StateFeedClient client = new StateFeedClient(context(out));
+        assertTrue(client.offer(StateFeed.KEEPALIVE));
+        assertEquals(StateFeed.KEEPALIVE, out.text());
+        assertEquals(1, out.flushes);
+    }
+
+    @Test
+    public void messagesWaitUntilWritePossible() throws IOException {
+        FakeOutput out = new FakeOutput();
+        StateFeedClient client = new StateFeedClient(context(out));
+        out.ready = false;
+        assertTrue(client.offer(StateFeed.event(1, "{}")));
+        assertTrue(client.offer(StateFeed.KEEPALIVE));
+        assertEquals("", out.text());
+
+        out.ready = true;
+        out.listener.onWritePossible();
+        assertEquals(StateFeed.event(1, "{}") + StateFeed.KEEPALIVE, out.text());
+        assertFalse(client.isClosed());
+    }
+
+    @Test
+    public void stalledClientIsClosed() throws IOException {
+        FakeOutput out = new FakeOutput();
+        StateFeedClient client = new StateFeedClient(context(out));
+        out.ready = false;
+        for (int i = 0; i < StateFeedClient.MAX_PENDING; i++) {
+            assertTrue(client.offer(StateFeed.event(i, "{}")));
+        }
+        assertFalse(this.completed[0]);
+        assertFalse(client.offer(StateFeed.event(StateFeedClient.MAX_PENDING, "{}")));
+        assertTrue(client.isClosed());
+        assertTrue(this.completed[0]);
+    }
+
+    private AsyncContext context(ServletOutputStream out) {
+        ServletResponse response = (ServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ServletResponse.class }, (p, m, args) -> {
+                    if (m.getName().equals("getOutputStream")) {
+                        return out;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+        return (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { AsyncContext.class }, (p, m, args) -> {
+                    if (m.getName().equals("getResponse")) {
+                        return response;
+                    }
+                    if (m.getName().equals("complete")) {
+                        this.completed[0] = true;
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Locale;
+import java.util.Map.Entry;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import app.owlcms.Main;
+import app.owlcms.data.config.Config;
+import app.owlcms.data.jpa.JPAService;
+import app.owlcms.i18n.Translator;
+import app.owlcms.i18n.Translator.TranslationSubset;
+
+/**
+ * Check the compiled translation tables against the individual lookups.
+ */
+public class TranslatorTest {
+
+    @BeforeClass
+    public static void setupTests() {
+        Main.injectSuppliers();
+        JPAService.init(true, true);
+        Config.initConfig();
+    }
+
+    @Test
+    public void subsetMatchesLookups() {
+        for (Locale locale : new Locale[] { Locale.ENGLISH, Locale.FRENCH }) {
+            TranslationSubset subset = Translator.getTranslationSubset("Scoreboard.", locale);
+            assertFalse(subset.translations().isEmpty());
+            for (Entry<String, String> e : subset.translations().entrySet()) {
+                assertEquals(Translator.translateExplicitLocale("Scoreboard." + e.getKey(), locale), e.getValue());
+            }
+            assertSame("subset should be cached", subset, Translator.getTranslationSubset("Scoreboard.", locale));
+        }
+        assertNotEquals(Translator.getTranslationSubset("Scoreboard.", Locale.ENGLISH).hash(),
+                Translator.getTranslationSubset("Scoreboard.", Locale.FRENCH).hash());
+    }
+
+    @Test
+    public void resetRecompiles() {
+        TranslationSubset before = Translator.getTranslationSubset("Scoreboard.", Locale.ENGLISH);
+        Translator.reset();
+        TranslationSubset after = Translator.getTranslationSubset("Scoreboard.", Locale.ENGLISH);
+        assertFalse("tables should be rebuilt after a reset", before == after);
+        assertEquals("same files, same hash", before.hash(), after.hash());
+    }
+
+    @Test
+    public void missingKeys() {
+        assertEquals("!en: No.Such.Key", Translator.translateExplicitLocale("No.Such.Key", Locale.ENGLISH));
+        assertNull(Translator.translateNoOverrideOrElseNull("No.Such.Key", Locale.ENGLISH));
+        assertNull(Translator.translateNoInheritanceOrElseNull("No.Such.Key", Locale.FRENCH));
+    }
+
+}
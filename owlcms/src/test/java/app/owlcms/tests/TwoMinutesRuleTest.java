@@ -32,6 +32,7 @@ import app.owlcms.data.jpa.JPAService;
 import app.owlcms.fieldofplay.FOPEvent;
 import app.owlcms.fieldofplay.FOPState;
 import app.owlcms.fieldofplay.FieldOfPlay;
+import app.owlcms.fieldofplay.LiftOrderReconstruction;
 import app.owlcms.init.OwlcmsSession;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -356,6 +357,15 @@ public class TwoMinutesRuleTest {
         assertEquals(remainingTime, fopState.getTimeAllowed());
     }
 
+    /**
+     * The history kept by the field of play must match a full reconstruction.
+     */
+    private void checkLiftHistory(FieldOfPlay fopState) {
+        LiftOrderReconstruction reconstruction = new LiftOrderReconstruction(fopState);
+        assertEquals(reconstruction.shortDump(), fopState.getLiftOrderHistory().shortDump());
+        assertEquals(reconstruction.getLastLift(), fopState.getLiftOrderHistory().getLastLift());
+    }
+
     /**
      * @param lifter
      * @param weight
@@ -397,7 +407,7 @@ public class TwoMinutesRuleTest {
         logger.debug("failed lift for {}", curLifter);
 //        fopState.finalDecision(null);
         fopBus.post(new FOPEvent.DecisionReset(null));
-
+        checkLiftHistory(fopState);
     }
 
     private void successfulLift(EventBus fopBus, Athlete curLifter, FieldOfPlay fopState) {
@@ -408,6 +418,7 @@ public class TwoMinutesRuleTest {
         logger.debug("successful lift for {}", curLifter);
 //        fopState.finalDecision(null);
         fopBus.post(new FOPEvent.DecisionReset(null));
+        checkLiftHistory(fopState);
     }
 
 }
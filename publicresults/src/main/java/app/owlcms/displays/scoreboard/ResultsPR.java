@@ -520,8 +520,11 @@ public class ResultsPR extends LitTemplate
             getElement().setProperty("groupInfo", "");
         }
         
-       TimerReceiverServlet.syncAthleteTimer(fopName2, this.timer);
-       TimerReceiverServlet.syncBreakTimer(fopName2, this.breakTimer);
+        // run once the timer elements are attached as well
+        this.ui.access(() -> {
+            TimerReceiverServlet.syncAthleteTimer(fopName2, this.timer);
+            TimerReceiverServlet.syncBreakTimer(fopName2, this.breakTimer);
+        });
     }
 
     /**
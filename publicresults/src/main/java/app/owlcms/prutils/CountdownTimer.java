@@ -1,74 +1,67 @@
 package app.owlcms.prutils;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Server-side model of a countdown, used to bring newly connected displays in sync.
+ *
+ * No thread or timer is involved: a running countdown is the monotonic instant at which it was started plus its
+ * duration, and the time remaining is computed when asked. The browsers run the actual countdown from the start and
+ * stop events.
+ */
 public class CountdownTimer {
-    private Timer timer;
-    private long startTime;
     private long duration;
-    private TimerTask task;
     private boolean running;
+    private long startNanos;
 
     public CountdownTimer(long duration) {
         this.duration = duration;
-        this.timer = new Timer();
         this.running = false;
-        this.task = new TimerTask() {
-            @Override
-            public void run() {
-                // Task to be scheduled
-            }
-        };
     }
 
-    public void start() {
-        this.running = true;
-        this.startTime = System.currentTimeMillis();
-        this.timer.schedule(task, this.duration);
+    public synchronized long getTimeRemaining() {
+        if (!this.running) {
+            return this.duration;
+        }
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+        return this.duration - elapsedTime;
     }
-    
-    public void set(long duration) {
-        stop();
-        this.duration = duration;
+
+    public synchronized boolean isIndefinite() {
+        return this.duration < 0;
     }
 
-    public void stop() {
-        this.running = false;
-        this.timer.cancel();
-        this.timer.purge();
+    public synchronized boolean isRunning() {
+        return this.running;
     }
 
-    public void restart() {
-        this.timer = new Timer();
-        this.task = new TimerTask() {
-            @Override
-            public void run() {
-                // Task to be scheduled
-            }
-        };
+    public synchronized void restart() {
         start();
     }
 
-    public void restartAtValue(long duration) {
-        stop();
+    public synchronized void restartAtValue(long duration) {
         this.duration = duration;
-        restart();
+        start();
     }
 
-    public long getTimeRemaining() {
-        if (!running) {
-            return this.duration;
-        }
-        long elapsedTime = System.currentTimeMillis() - this.startTime;
-        return this.duration - elapsedTime;
+    public synchronized void set(long duration) {
+        this.running = false;
+        this.duration = duration;
     }
 
-    public boolean isRunning() {
-        return running;
+    public synchronized void start() {
+        this.running = true;
+        this.startNanos = System.nanoTime();
     }
 
-    public boolean isIndefinite() {
-        return duration < 0;
+    /**
+     * Freeze the countdown at its current value. An indefinite countdown stays indefinite; a finite one that ran past
+     * zero stops at zero.
+     */
+    public synchronized void stop() {
+        if (!isIndefinite()) {
+            this.duration = Math.max(0, getTimeRemaining());
+        }
+        this.running = false;
     }
 }
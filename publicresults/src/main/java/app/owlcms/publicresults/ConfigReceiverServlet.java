@@ -173,6 +173,7 @@ public class ConfigReceiverServlet extends HttpServlet {
             IOUtils.copy(uploadedStream, out);
             out.close();
         }
+        ResourceWalker.refreshIndex();
     }
 
     private void deny(HttpServletRequest req, HttpServletResponse resp, String string) throws IOException {
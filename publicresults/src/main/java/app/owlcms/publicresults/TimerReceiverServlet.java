@@ -8,10 +8,10 @@ package app.owlcms.publicresults;
 
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +36,9 @@ import jakarta.servlet.http.HttpServletResponse;
 public class TimerReceiverServlet extends HttpServlet implements Traceable {
 
     private static String defaultFopName;
-    private static Map<String, CountdownTimer> athleteTimerCache = new HashMap<>();
-    private static Map<String, CountdownTimer> breakTimerCache = new HashMap<>();
+    // one countdown model per field of play, updated by the timer requests and read by displays that attach
+    private static Map<String, CountdownTimer> athleteTimerCache = new ConcurrentHashMap<>();
+    private static Map<String, CountdownTimer> breakTimerCache = new ConcurrentHashMap<>();
 
     public static EventBus getEventBus() {
         return UpdateReceiverServlet.getEventBus();
@@ -164,21 +165,11 @@ public class TimerReceiverServlet extends HttpServlet implements Traceable {
     }
 
     private static CountdownTimer getAthleteTimerFromCache(String fopName) {
-        CountdownTimer t = athleteTimerCache.get(fopName);
-        if (t == null) {
-            t = new CountdownTimer(-1);
-            athleteTimerCache.put(fopName, t);
-        }
-        return t;
+        return athleteTimerCache.computeIfAbsent(fopName, (n) -> new CountdownTimer(-1));
     }
-    
+
     private static CountdownTimer getBreakTimerFromCache(String fopName) {
-        CountdownTimer t = breakTimerCache.get(fopName);
-        if (t == null) {
-            t = new CountdownTimer(0);
-            breakTimerCache.put(fopName, t);
-        }
-        return t;
+        return breakTimerCache.computeIfAbsent(fopName, (n) -> new CountdownTimer(0));
     }
 
     private static int computeAthleteTargetDuration(HttpServletRequest req) {
@@ -216,40 +207,38 @@ public class TimerReceiverServlet extends HttpServlet implements Traceable {
     public static void syncAthleteTimer(String fopName2, AthleteTimerElementPR timer) {
         CountdownTimer t = getAthleteTimerFromCache(fopName2);
         long athleteMillis = t.getTimeRemaining();
-        TimerEvent timerEvent = null;
-        if (athleteMillis >= 0) {
-            if (t.isRunning()) {
-                timerEvent = new TimerEvent.StartTime((int) athleteMillis, true);
-                
-            } else {
-                timerEvent = new TimerEvent.SetTime((int) athleteMillis);
-            }
+        if (athleteMillis < 0) {
+            return;
         }
-        if (timerEvent != null) {
+        // only the display being attached needs to catch up, the others are already running.
+        if (t.isRunning()) {
+            TimerEvent.StartTime timerEvent = new TimerEvent.StartTime((int) athleteMillis, true);
             timerEvent.setFopName(fopName2);
-            getEventBus().post(timerEvent);
-        } 
+            timer.slaveStartTimer(timerEvent);
+        } else {
+            TimerEvent.SetTime timerEvent = new TimerEvent.SetTime((int) athleteMillis);
+            timerEvent.setFopName(fopName2);
+            timer.slaveSetTimer(timerEvent);
+        }
     }
 
     public static void syncBreakTimer(String fopName2, BreakTimerElementPR breakTimer) {
         CountdownTimer t = getBreakTimerFromCache(fopName2);
-        @SuppressWarnings("unused")
-        var logger = (Logger) LoggerFactory.getLogger(TimerReceiverServlet.class);
-        //logger.debug("getBreakTimerFromCache {} {}",System.identityHashCode(t),t.getTimeRemaining());
         long athleteMillis = t.getTimeRemaining();
-        BreakTimerEvent timerEvent = null;
-        if (athleteMillis >= 0) {
-            //logger.debug("t.isRunning() {}",t.isRunning());
-            if (t.isRunning()) {
-                timerEvent = new BreakTimerEvent.BreakStart((int) athleteMillis, t.isIndefinite());    
-            } else {
-                timerEvent = new BreakTimerEvent.BreakSetTime((int) athleteMillis, t.isIndefinite());
-            }
+        if (athleteMillis < 0) {
+            return;
         }
-        if (timerEvent != null) {
+        if (t.isRunning()) {
+            BreakTimerEvent.BreakStart timerEvent = new BreakTimerEvent.BreakStart((int) athleteMillis,
+                    t.isIndefinite());
             timerEvent.setFopName(fopName2);
-            getEventBus().post(timerEvent);
-        } 
+            breakTimer.slaveBreakStart(timerEvent);
+        } else {
+            BreakTimerEvent.BreakSetTime timerEvent = new BreakTimerEvent.BreakSetTime((int) athleteMillis,
+                    t.isIndefinite());
+            timerEvent.setFopName(fopName2);
+            breakTimer.slaveBreakSet(timerEvent);
+        }
     }
 
 }
\ No newline at end of file
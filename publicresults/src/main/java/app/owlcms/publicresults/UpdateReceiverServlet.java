@@ -11,6 +11,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,12 @@ public class UpdateReceiverServlet extends HttpServlet implements Traceable {
     static EventBus eventBus = new AsyncEventBus(UpdateReceiverServlet.class.getSimpleName(),
             Executors.newCachedThreadPool());
     private static Map<String, UpdateEvent> updateCache = new HashMap<>();
+    /**
+     * translation maps received, by content hash. owlcms only sends a map again when its hash changes.
+     */
+    private static Map<String, String> translationMaps = new ConcurrentHashMap<>();
+    private static final int MAX_TRANSLATION_MAPS = 16;
+    private static final String TRANSLATION_HASH_HEADER = "X-Translation-Hash";
     static long lastUpdate = 0;
 
     public static EventBus getEventBus() {
@@ -158,7 +165,25 @@ public class UpdateReceiverServlet extends HttpServlet implements Traceable {
             String timeAllowed = req.getParameter("timeAllowed");
             updateEvent.setTimeAllowed(timeAllowed != null ? Integer.parseInt(req.getParameter("timeAllowed")) : null);
 
-            updateEvent.setTranslationMap(req.getParameter("translationMap"));
+            String translationMapHash = req.getParameter("translationMapHash");
+            String translationMap = req.getParameter("translationMap");
+            if (translationMapHash != null) {
+                if (translationMap != null) {
+                    if (translationMaps.size() >= MAX_TRANSLATION_MAPS) {
+                        // language changes are rare, old maps are not worth keeping
+                        translationMaps.clear();
+                    }
+                    translationMaps.put(translationMapHash, translationMap);
+                } else {
+                    translationMap = translationMaps.get(translationMapHash);
+                    if (translationMap == null) {
+                        this.getLogger().info("unknown translation map, requesting it");
+                        resp.sendError(409, "Missing translation map.");
+                        return;
+                    }
+                }
+            }
+            updateEvent.setTranslationMap(translationMap);
 
             String mode = req.getParameter("mode");
             updateEvent.setMode(mode);
@@ -210,7 +235,10 @@ public class UpdateReceiverServlet extends HttpServlet implements Traceable {
                 defaultFopName = fopName;
             }
 
-            resp.sendError(200);
+            if (translationMapHash != null) {
+                resp.setHeader(TRANSLATION_HASH_HEADER, translationMapHash);
+            }
+            resp.setStatus(200);
         } catch (Exception e) {
             this.getLogger().error(LoggerUtils.stackTrace(e));
         }
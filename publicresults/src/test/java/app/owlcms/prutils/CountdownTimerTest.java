@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.prutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CountdownTimerTest {
+
+    @Test
+    public void finiteCountdownStopsAtZero() throws InterruptedException {
+        CountdownTimer timer = new CountdownTimer(0);
+        timer.restartAtValue(5);
+        Thread.sleep(20);
+        timer.stop();
+        assertFalse(timer.isRunning());
+        assertFalse(timer.isIndefinite());
+        assertEquals(0, timer.getTimeRemaining());
+    }
+
+    @Test
+    public void finiteCountdownKeepsRemainingTime() {
+        CountdownTimer timer = new CountdownTimer(0);
+        timer.restartAtValue(60_000);
+        timer.stop();
+        long remaining = timer.getTimeRemaining();
+        assertTrue(remaining > 0 && remaining <= 60_000);
+    }
+
+    @Test
+    public void indefiniteBreakStaysIndefinite() throws InterruptedException {
+        CountdownTimer timer = new CountdownTimer(0);
+        timer.restartAtValue(-1);
+        Thread.sleep(20);
+        timer.stop();
+        assertFalse(timer.isRunning());
+        assertTrue(timer.isIndefinite());
+        assertEquals(-1, timer.getTimeRemaining());
+    }
+}
@@ -14,18 +14,23 @@ import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.MissingResourceException;
 import java.util.Properties;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -48,10 +53,33 @@ import ch.qos.logback.classic.Logger;
  *
  * Static variations of the translation routines are also provided for translations that do not take place inside Vaadin components (e.g. spreadsheets).
  *
+ * The bundle for a locale is only used once, to compile immutable translation tables. Lookups read the tables without
+ * locking; {@link #reset()} discards them.
+ *
  */
 
 public class Translator implements I18NProvider {
 
+	/**
+	 * The translations whose key starts with a prefix, with the prefix removed, as sent to the browsers.
+	 *
+	 * @param translations immutable, sorted by key
+	 * @param hash         content hash, changes whenever a translation changes
+	 */
+	public record TranslationSubset(Map<String, String> translations, String hash) {
+	}
+
+	/**
+	 * Translations for one locale, resolved through the bundle hierarchy.
+	 *
+	 * @param translations    all the translations, inherited ones included
+	 * @param ownTranslations the translations present in the locale's own bundle
+	 * @param subsets         cache of the subsets computed from this table, by prefix
+	 */
+	private record CompiledLocale(Map<String, String> translations, Map<String, String> ownTranslations,
+	        Map<String, TranslationSubset> subsets) {
+	}
+
 	private static final long serialVersionUID = 687252956819191905L;
 	private static final Logger logger = (Logger) LoggerFactory.getLogger(Translator.class);
 	private static Translator helper = new Translator();
@@ -63,6 +91,7 @@ public class Translator implements I18NProvider {
 	private static int line;
 	private static long resetTimeStamp = System.currentTimeMillis();
 	private static Supplier<Locale> localeSupplier;
+	private static volatile Map<Locale, CompiledLocale> compiledLocales = Map.of();
 
 	public static Locale createLocale(String localeString) {
 		if (localeString == null) {
@@ -106,7 +135,7 @@ public class Translator implements I18NProvider {
 	}
 
 	public static Enumeration<String> getKeys() {
-		return Translator.getBundleFromCSV(Locale.ENGLISH).getKeys();
+		return Collections.enumeration(getCompiled(Locale.ENGLISH).translations().keySet());
 	}
 
 	/**
@@ -116,22 +145,36 @@ public class Translator implements I18NProvider {
 		return localeSupplier;
 	}
 
+	/**
+	 * @return all the translations for the current locale, immutable.
+	 */
 	public static Map<String, String> getMap() {
-		final PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(getLocaleSupplier().get());
-		Map<String, String> translations = new HashMap<>();
-		Enumeration<String> keys = bundle.getKeys();
-		String key;
-		while (keys.hasMoreElements()) {
-			key = keys.nextElement();
-			translations.put(key, bundle.getString(key));
-		}
-		return translations;
+		return getCompiled(getLocaleSupplier().get()).translations();
 	}
 
 	public static long getResetTimeStamp() {
 		return resetTimeStamp;
 	}
 
+	/**
+	 * The translations for the keys that start with a prefix (e.g. "Scoreboard."), in the current locale, with the
+	 * prefix removed. Computed once per locale and prefix.
+	 *
+	 * @param prefix
+	 * @return the translations and their content hash
+	 */
+	public static TranslationSubset getTranslationSubset(String prefix) {
+		return getTranslationSubset(prefix, helper.overrideLocale(getLocaleSupplier().get()));
+	}
+
+	/**
+	 * @see #getTranslationSubset(String)
+	 */
+	public static TranslationSubset getTranslationSubset(String prefix, Locale locale) {
+		CompiledLocale compiled = getCompiled(locale);
+		return compiled.subsets().computeIfAbsent(prefix, (p) -> computeSubset(p, locale, compiled));
+	}
+
 	public static List<String> readLine(ICsvListReader listReader) throws IOException {
 		line++;
 		return listReader.read();
@@ -140,10 +183,11 @@ public class Translator implements I18NProvider {
 	/**
 	 * Force a reload of the translation files
 	 */
-	public static void reset() {
+	public static synchronized void reset() {
 		resetTimeStamp = System.currentTimeMillis();
 		locales = null;
 		i18nloader = null;
+		compiledLocales = Map.of();
 		helper = new Translator();
 		logger.debug("cleared translation class loader");
 	}
@@ -358,6 +402,76 @@ public class Translator implements I18NProvider {
 		}
 	}
 
+	/**
+	 * Build the translation tables for a locale from its resource bundle. Synchronized with {@link #reset()} so that
+	 * tables built from outdated files are not published.
+	 */
+	private static synchronized CompiledLocale compile(Locale locale) {
+		CompiledLocale compiled = compiledLocales.get(locale);
+		if (compiled != null) {
+			return compiled;
+		}
+		long start = System.currentTimeMillis();
+		PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(locale);
+		Map<String, String> translations = new HashMap<>();
+		Map<String, String> ownTranslations = new HashMap<>();
+		for (String key : bundle.keySet()) {
+			translations.put(key, bundle.getString(key));
+			Object own = bundle.handleGetObject(key);
+			if (own != null) {
+				ownTranslations.put(key, (String) own);
+			}
+		}
+		compiled = new CompiledLocale(Collections.unmodifiableMap(translations),
+		        Collections.unmodifiableMap(ownTranslations), new ConcurrentHashMap<>());
+
+		// copy on write, readers never lock
+		Map<Locale, CompiledLocale> newCompiledLocales = new HashMap<>(compiledLocales);
+		newCompiledLocales.put(locale, compiled);
+		compiledLocales = Collections.unmodifiableMap(newCompiledLocales);
+		logger.debug("compiled {} translations for {} in {} ms", translations.size(), locale,
+		        System.currentTimeMillis() - start);
+		return compiled;
+	}
+
+	private static TranslationSubset computeSubset(String prefix, Locale locale, CompiledLocale compiled) {
+		// the keys are those of the English file, same as getKeys()
+		Map<String, String> translations = new TreeMap<>();
+		for (String key : getCompiled(Locale.ENGLISH).translations().keySet()) {
+			if (key.startsWith(prefix)) {
+				String value = compiled.translations().get(key);
+				translations.put(key.substring(prefix.length()),
+				        value != null ? value : missingTranslation(key, locale));
+			}
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (Map.Entry<String, String> e : translations.entrySet()) {
+				digest.update(e.getKey().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				digest.update(e.getValue().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return new TranslationSubset(Collections.unmodifiableMap(translations),
+			        HexFormat.of().formatHex(digest.digest()));
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is required on all Java platforms
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static CompiledLocale getCompiled(Locale locale) {
+		CompiledLocale compiled = compiledLocales.get(locale);
+		if (compiled == null) {
+			compiled = compile(locale);
+		}
+		return compiled;
+	}
+
+	private static String missingTranslation(String key, Locale locale) {
+		return "!" + locale.getLanguage() + ": " + key;
+	}
+
 	private static void throwInvalidLocale(String localeString) {
 		String message = MessageFormat.format("invalid locale: {0}", localeString);
 		logger.error(message);
@@ -396,13 +510,9 @@ public class Translator implements I18NProvider {
 			return "";
 		}
 
-		final PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(locale);
-
-		String value;
-		try {
-			value = bundle.getString(key);
-		} catch (final MissingResourceException e) {
-			return "!" + locale.getLanguage() + ": " + key;
+		String value = getCompiled(locale).translations().get(key);
+		if (value == null) {
+			return missingTranslation(key, locale);
 		}
 		if (params.length > 0) {
 			value = format(value, params);
@@ -415,14 +525,8 @@ public class Translator implements I18NProvider {
 			nullTranslationKey();
 			return "";
 		}
-		final PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(locale);
-
-		String value;
-
-		// value = (String) bundle.handleGetObject(key);
-		try {
-			value = bundle.getString(key);
-		} catch (final MissingResourceException e) {
+		String value = getCompiled(locale).translations().get(key);
+		if (value == null) {
 			return null;
 		}
 		if (params.length > 0) {
@@ -436,12 +540,8 @@ public class Translator implements I18NProvider {
 			nullTranslationKey();
 			return "";
 		}
-		final PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(locale);
-
-		String value;
-
-		value = (String) bundle.handleGetObject(key);
-		if (params.length > 0) {
+		String value = getCompiled(locale).ownTranslations().get(key);
+		if (params.length > 0 && value != null) {
 			value = format(value, params);
 		}
 		return value;
@@ -454,14 +554,9 @@ public class Translator implements I18NProvider {
 			nullTranslationKey();
 			return "";
 		}
-		final PropertyResourceBundle bundle = (PropertyResourceBundle) getBundleFromCSV(locale);
-
-		String value;
-		try {
-			value = bundle.getString(key);
-		} catch (final MissingResourceException e) {
-			PropertyResourceBundle enBundle = (PropertyResourceBundle) getBundleFromCSV(Locale.ENGLISH);
-			value = (String) enBundle.handleGetObject(key);
+		String value = getCompiled(locale).translations().get(key);
+		if (value == null) {
+			value = getCompiled(Locale.ENGLISH).ownTranslations().get(key);
 		}
 		if (params.length > 0 && value != null) {
 			value = format(value, params);
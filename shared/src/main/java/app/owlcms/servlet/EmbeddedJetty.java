@@ -1,6 +1,14 @@
 package app.owlcms.servlet;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jetty.ee10.webapp.WebAppContext;
 import org.slf4j.LoggerFactory;
@@ -15,6 +23,8 @@ public class EmbeddedJetty extends com.github.mvysny.vaadinboot.VaadinBoot {
 	private Runnable initConfig;
 	private Runnable initData;
 	private CountDownLatch latch;
+	private boolean parallelInit;
+	private Map<String, Runnable> warmUps = new LinkedHashMap<>();
 
 	public EmbeddedJetty(CountDownLatch countDownLatch, String appName) {
 		this.setLatch(countDownLatch);
@@ -25,11 +35,60 @@ public class EmbeddedJetty extends com.github.mvysny.vaadinboot.VaadinBoot {
 		return latch;
 	}
 
+	/**
+	 * Start the web server, then initialize the configuration and the data.
+	 *
+	 * With parallel initialization, the configuration (database) and the warm-up steps run while the web server
+	 * starts; the data is initialized when they are done. Pages must wait for the data to be ready.
+	 */
 	public void run(Integer serverPort, String string) throws Exception {
+		long start = System.currentTimeMillis();
 		this.setPort(serverPort);
-		this.run();
-		initConfig.run();
-		initData.run();
+		if (parallelInit) {
+			ExecutorService executor = Executors.newFixedThreadPool(1 + warmUps.size(), r -> {
+				Thread t = new Thread(r, "startup");
+				t.setDaemon(true);
+				return t;
+			});
+			List<Future<?>> steps = new ArrayList<>();
+			steps.add(executor.submit(() -> {
+				timed("configuration", initConfig::run);
+				return null;
+			}));
+			for (Map.Entry<String, Runnable> warmUp : warmUps.entrySet()) {
+				executor.submit(() -> warmUp(warmUp.getKey(), warmUp.getValue()));
+			}
+			executor.shutdown();
+			timed("web server", this::run);
+			for (Future<?> step : steps) {
+				try {
+					step.get();
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+			}
+		} else {
+			timed("web server", this::run);
+			timed("configuration", initConfig::run);
+			for (Map.Entry<String, Runnable> warmUp : warmUps.entrySet()) {
+				warmUp(warmUp.getKey(), warmUp.getValue());
+			}
+		}
+		timed("data", initData::run);
+		startLogger.info("startup completed ({} ms)", System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * A step that fills caches used by the first pages (e.g. translations). Failures are logged and ignored, the
+	 * caches are filled on first use.
+	 *
+	 * @param name   for the timing log
+	 * @param warmUp the step
+	 * @return this
+	 */
+	public EmbeddedJetty addWarmUp(String name, Runnable warmUp) {
+		this.warmUps.put(name, warmUp);
+		return this;
 	}
 
 	public EmbeddedJetty setInitConfig(Runnable initConfig) {
@@ -46,6 +105,16 @@ public class EmbeddedJetty extends com.github.mvysny.vaadinboot.VaadinBoot {
 		this.latch = latch;
 	}
 
+	/**
+	 * @param parallelInit if true, initialize the configuration and run the warm-up steps while the web server
+	 *                     starts
+	 * @return this
+	 */
+	public EmbeddedJetty setParallelInit(boolean parallelInit) {
+		this.parallelInit = parallelInit;
+		return this;
+	}
+
 	public EmbeddedJetty setStartLogger(Logger startLogger) {
 		EmbeddedJetty.startLogger = startLogger;
 		return this;
@@ -68,4 +137,23 @@ public class EmbeddedJetty extends com.github.mvysny.vaadinboot.VaadinBoot {
 
     }
 
+	@FunctionalInterface
+	private interface Step {
+		void run() throws Exception;
+	}
+
+	private void timed(String phase, Step step) throws Exception {
+		long start = System.currentTimeMillis();
+		step.run();
+		startLogger.info("{} initialized ({} ms)", phase, System.currentTimeMillis() - start);
+	}
+
+	private void warmUp(String name, Runnable warmUp) {
+		try {
+			timed(name, warmUp::run);
+		} catch (Exception e) {
+			startLogger.warn("{} not preloaded: {}", name, e.toString());
+		}
+	}
+
 }
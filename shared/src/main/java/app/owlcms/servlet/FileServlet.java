@@ -26,8 +26,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -35,10 +36,12 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.LoggerFactory;
 
+import app.owlcms.servlet.StaticAssetCache.Asset;
 import app.owlcms.utils.LoggerUtils;
 import app.owlcms.utils.ResourceWalker;
 import ch.qos.logback.classic.Level;
@@ -62,6 +65,12 @@ import jakarta.servlet.http.HttpServletResponse;
  * Modified to fetch files under the ./local directory relative to the startup
  * directory and, failing that, as a resource on the classpath.
  *
+ * The content hash and the gzip variant of each file version are computed once
+ * and small files are served from memory (see {@link StaticAssetCache}). Other
+ * files are sent with {@link FileChannel#transferTo}. A precompressed
+ * <code>.br</code> file next to the requested one is sent to browsers that
+ * accept Brotli. Versioned names (with a timestamp suffix) are marked immutable.
+ *
  * @author Jean-François Lamy
  *
  */
@@ -100,6 +109,9 @@ public class FileServlet extends HttpServlet {
 
 	private static final int DEFAULT_BUFFER_SIZE = 10240; // ..bytes = 10KB.
 	private static final long DEFAULT_EXPIRE_TIME = 604800000L; // ..ms = 1 week.
+	private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable"; // 1 year.
+	private static final Pattern VERSIONED_NAME = Pattern.compile("_[0-9]{12,14}([.][a-z]{1,4})$");
+	private static final StaticAssetCache assetCache = new StaticAssetCache();
 
 	// Properties
 	// ---------------------------------------------------------------------------------
@@ -175,27 +187,37 @@ public class FileServlet extends HttpServlet {
 	 */
 	private static void copy(FileChannel input, OutputStream output, long start, long length)
 	        throws IOException {
-		byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-		int read;
-		ByteBuffer buffer2 = ByteBuffer.wrap(buffer);
-
-		// Write partial range.
-		input.position(start);
-		long toRead = length;
-
-		read = input.read(buffer2);
-		while (read > 0) {
-			if ((toRead -= read) > 0) {
-				output.write(buffer, 0, read);
-			} else {
-				output.write(buffer, 0, (int) toRead + read);
+		// let the channel move the bytes, no intermediate copy buffer
+		WritableByteChannel target = Channels.newChannel(output);
+		long position = start;
+		long end = start + length;
+		while (position < end) {
+			long transferred = input.transferTo(position, end - position, target);
+			if (transferred <= 0) {
 				break;
 			}
-			buffer2.clear();
-			read = input.read(buffer2);
+			position += transferred;
+		}
+	}
+
+	/**
+	 * Copy the given byte range of the asset, from memory if available.
+	 */
+	private static void copy(Asset asset, FileChannel input, OutputStream output, long start, long length)
+	        throws IOException {
+		byte[] content = asset.getContent();
+		if (content != null) {
+			output.write(content, (int) start, (int) length);
+		} else {
+			copy(input, output, start, length);
 		}
 	}
 
+	private static boolean isCompressible(String contentType) {
+		return contentType.startsWith("text") || contentType.startsWith("image/svg")
+		        || contentType.equals("application/javascript") || contentType.equals("application/json");
+	}
+
 	/**
 	 * Returns true if the given match header matches the given value.
 	 *
@@ -317,8 +339,7 @@ public class FileServlet extends HttpServlet {
 			// logger.debug("requestedFile {}", requestedFile);
 			String relativeFileName = URLDecoder.decode(requestedFile, "UTF-8");
 
-			String target = "_[0-9]{12,14}([.][a-z]{1,4})$";
-			String unversionedName = relativeFileName.replaceFirst(target, "$1");
+			String unversionedName = VERSIONED_NAME.matcher(relativeFileName).replaceFirst("$1");
 			// logger.debug("relativeFileName = {} fixed = {} regex={}", relativeFileName,
 			// unversionedName, target);
 
@@ -342,6 +363,26 @@ public class FileServlet extends HttpServlet {
 		}
 	}
 
+	/**
+	 * @return the precompressed Brotli file for the requested file, null if there is none.
+	 */
+	private Path getBrotliVariant(String requestedFileName, Path file) {
+		try {
+			String relativeFileName = URLDecoder.decode(requestedFileName, "UTF-8");
+			String brotliName = VERSIONED_NAME.matcher(relativeFileName).replaceFirst("$1") + ".br";
+			if (!ResourceWalker.existsFileOrResource(brotliName)) {
+				return null;
+			}
+			Path brotliFile = ResourceWalker.getFileOrResourcePath(brotliName);
+			// ignore a leftover from an older version of the file
+			BasicFileAttributes brAttr = Files.readAttributes(brotliFile, BasicFileAttributes.class);
+			BasicFileAttributes attr = Files.readAttributes(file, BasicFileAttributes.class);
+			return brAttr.lastModifiedTime().compareTo(attr.lastModifiedTime()) >= 0 ? brotliFile : null;
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	private Path getPathForResource(HttpServletResponse response, String resourceName)
 	        throws IOException, FileNotFoundException {
 		Path target = ResourceWalker.getFileOrResourcePath(resourceName);
@@ -377,13 +418,15 @@ public class FileServlet extends HttpServlet {
 			return;
 		}
 
-		// Prepare some variables. The ETag is an unique identifier of the file.
+		// Prepare some variables. The ETag is an unique identifier of the file content.
 		String fileName = file.getFileName().toString();
 		BasicFileAttributes attr = Files.readAttributes(file, BasicFileAttributes.class);
+		Asset asset = assetCache.get(file, attr);
 
-		long length = attr.size();
+		long length = asset.getContent() != null ? asset.getContent().length : attr.size();
 		long lastModified = attr.lastModifiedTime().toMillis();
-		String eTag = fileName + "_" + length + "_" + lastModified;
+		String eTag = "\"" + asset.getHash() + "\"";
+		boolean versioned = requestedFileName != null && VERSIONED_NAME.matcher(requestedFileName).find();
 		long expires;
 		if (isIgnoreCaching()) {
 			expires = System.currentTimeMillis() - 2000; // already expired to force reload
@@ -509,6 +552,7 @@ public class FileServlet extends HttpServlet {
 		// disposition.
 		String contentType = getServletContext().getMimeType(fileName);
 		boolean acceptsGzip = false;
+		boolean acceptsBrotli = false;
 		String disposition = "inline";
 
 		// If content type is unknown, then set the default value.
@@ -522,9 +566,12 @@ public class FileServlet extends HttpServlet {
 		// supported by
 		// the browser and expand content type with the one and right character
 		// encoding.
-		if (contentType.startsWith("text")) {
+		if (isCompressible(contentType)) {
 			String acceptEncoding = request.getHeader("Accept-Encoding");
 			acceptsGzip = acceptEncoding != null && accepts(acceptEncoding, "gzip");
+			acceptsBrotli = acceptEncoding != null && accepts(acceptEncoding, "br");
+		}
+		if (contentType.startsWith("text")) {
 			contentType += ";charset=UTF-8";
 		}
 
@@ -545,6 +592,12 @@ public class FileServlet extends HttpServlet {
 		response.setHeader("ETag", eTag);
 		response.setDateHeader("Last-Modified", lastModified);
 		response.setDateHeader("Expires", expires);
+		if (versioned && !isIgnoreCaching()) {
+			response.setHeader("Cache-Control", IMMUTABLE_CACHE_CONTROL);
+		}
+		if (isCompressible(contentType)) {
+			response.setHeader("Vary", "Accept-Encoding");
+		}
 
 		// Send requested file (part(s)) to client
 		// ------------------------------------------------
@@ -556,7 +609,9 @@ public class FileServlet extends HttpServlet {
 		try {
 			// Open streams.
 			// input = new RandomAccessFile(file, "r");
-			in = FileChannel.open(file, StandardOpenOption.READ);
+			if (asset.getContent() == null) {
+				in = FileChannel.open(file, StandardOpenOption.READ);
+			}
 			output = response.getOutputStream();
 
 			if (ranges.isEmpty() || ranges.get(0) == full) {
@@ -566,19 +621,38 @@ public class FileServlet extends HttpServlet {
 				response.setContentType(contentType);
 
 				if (content) {
-					if (acceptsGzip) {
-						// The browser accepts GZIP, so GZIP the content.
+					Path brotliFile = acceptsBrotli ? getBrotliVariant(requestedFileName, file) : null;
+					byte[] gzipped = acceptsGzip && brotliFile == null ? assetCache.getGzipped(file, asset) : null;
+					if (brotliFile != null) {
+						// precompressed Brotli file provided next to the original.
+						response.setHeader("Content-Encoding", "br");
+						try (FileChannel brIn = FileChannel.open(brotliFile, StandardOpenOption.READ)) {
+							long brLength = brIn.size();
+							response.setHeader("Content-Length", String.valueOf(brLength));
+							response.setStatus(HttpServletResponse.SC_OK);
+							copy(brIn, output, 0, brLength);
+						}
+					} else if (gzipped != null) {
+						// compressed once per file version.
+						response.setHeader("Content-Encoding", "gzip");
+						response.setHeader("Content-Length", String.valueOf(gzipped.length));
+						response.setStatus(HttpServletResponse.SC_OK);
+						output.write(gzipped);
+					} else if (acceptsGzip) {
+						// Too large to keep, GZIP the content as it is sent.
 						response.setHeader("Content-Encoding", "gzip");
 						output = new GZIPOutputStream(output, DEFAULT_BUFFER_SIZE);
+						response.setStatus(HttpServletResponse.SC_OK);
+						copy(asset, in, output, r.start, r.length);
 					} else {
 						// Content length is not directly predictable in case of GZIP.
 						// So only add it if there is no means of GZIP, else browser will hang.
 						response.setHeader("Content-Length", String.valueOf(r.length));
-					}
-					response.setStatus(HttpServletResponse.SC_OK);
+						response.setStatus(HttpServletResponse.SC_OK);
 
-					// Copy full range.
-					copy(in, output, r.start, r.length);
+						// Copy full range.
+						copy(asset, in, output, r.start, r.length);
+					}
 				}
 
 			} else if (ranges.size() == 1) {
@@ -592,7 +666,7 @@ public class FileServlet extends HttpServlet {
 
 				if (content) {
 					// Copy single part range.
-					copy(in, output, r.start, r.length);
+					copy(asset, in, output, r.start, r.length);
 				}
 
 			} else {
@@ -614,7 +688,7 @@ public class FileServlet extends HttpServlet {
 						sos.println("Content-Range: bytes " + r.start + "-" + r.end + "/" + r.total);
 
 						// Copy single part range of multi part range.
-						copy(in, output, r.start, r.length);
+						copy(asset, in, output, r.start, r.length);
 					}
 
 					// End with multipart boundary.
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Per-version information about the files served by {@link FileServlet}.
+ *
+ * A version is identified by the path, size and modification time. For each version the content hash (used as ETag)
+ * and the gzip-compressed variant are computed once. Small files are also kept in memory, so the displays reloading
+ * at the start of a session do not each read and compress the same style sheets and flags.
+ *
+ * The cache is bounded, least recently used entries are dropped first.
+ *
+ * @author Jean-François Lamy
+ */
+class StaticAssetCache {
+
+	/**
+	 * One version of a file.
+	 */
+	static class Asset {
+		private final byte[] content;
+		private volatile byte[] gzipped;
+		private final String hash;
+		private final long lastModified;
+		private final long size;
+
+		private Asset(long size, long lastModified, String hash, byte[] content) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.hash = hash;
+			this.content = content;
+		}
+
+		/**
+		 * @return the file content, null if the file is too large to be kept in memory.
+		 */
+		byte[] getContent() {
+			return this.content;
+		}
+
+		/**
+		 * @return hexadecimal content hash
+		 */
+		String getHash() {
+			return this.hash;
+		}
+
+		private long weight() {
+			return (this.content != null ? this.content.length : 0) + (this.gzipped != null ? this.gzipped.length : 0);
+		}
+	}
+
+	private static final int MAX_ENTRIES = 2048;
+	private static final long MAX_CACHED_BYTES = 32 * 1024 * 1024;
+	private static final int MAX_CACHED_FILE_SIZE = 256 * 1024;
+	private static final int MAX_GZIP_FILE_SIZE = 4 * 1024 * 1024;
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(StaticAssetCache.class);
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	private final LinkedHashMap<Path, Asset> assets = new LinkedHashMap<>(64, 0.75f, true);
+	private long cachedBytes;
+
+	/**
+	 * @param path the file
+	 * @param attr the current attributes of the file
+	 * @return the cached information, recomputed if the file has changed
+	 * @throws IOException
+	 */
+	Asset get(Path path, BasicFileAttributes attr) throws IOException {
+		long size = attr.size();
+		long lastModified = attr.lastModifiedTime().toMillis();
+		synchronized (this) {
+			Asset asset = this.assets.get(path);
+			if (asset != null && asset.size == size && asset.lastModified == lastModified) {
+				return asset;
+			}
+		}
+
+		// read outside the lock, another request may be doing the same, the last one wins.
+		Asset asset = load(path, size, lastModified);
+		synchronized (this) {
+			Asset previous = this.assets.put(path, asset);
+			if (previous != null) {
+				this.cachedBytes -= previous.weight();
+			}
+			this.cachedBytes += asset.weight();
+			evict();
+		}
+		return asset;
+	}
+
+	/**
+	 * @param path  the file for the asset
+	 * @param asset the asset
+	 * @return the gzip-compressed content, computed on first use; null if the file is too large.
+	 * @throws IOException
+	 */
+	byte[] getGzipped(Path path, Asset asset) throws IOException {
+		byte[] gzipped = asset.gzipped;
+		if (gzipped != null || asset.size > MAX_GZIP_FILE_SIZE) {
+			return gzipped;
+		}
+		ByteArrayOutputStream bos = new ByteArrayOutputStream((int) Math.max(asset.size / 3, 512));
+		try (GZIPOutputStream gzos = new GZIPOutputStream(bos)) {
+			if (asset.content != null) {
+				gzos.write(asset.content);
+			} else {
+				Files.copy(path, gzos);
+			}
+		}
+		gzipped = bos.toByteArray();
+		synchronized (this) {
+			if (asset.gzipped == null) {
+				asset.gzipped = gzipped;
+				if (this.assets.get(path) == asset) {
+					this.cachedBytes += gzipped.length;
+					evict();
+				}
+			}
+		}
+		logger.debug("compressed {} {} -> {}", path, asset.size, gzipped.length);
+		return gzipped;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Path, Asset>> it = this.assets.entrySet().iterator();
+		while ((this.cachedBytes > MAX_CACHED_BYTES || this.assets.size() > MAX_ENTRIES) && it.hasNext()) {
+			Asset eldest = it.next().getValue();
+			this.cachedBytes -= eldest.weight();
+			it.remove();
+		}
+	}
+
+	private Asset load(Path path, long size, long lastModified) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is required on all Java platforms
+			throw new RuntimeException(e);
+		}
+		byte[] content = null;
+		if (size <= MAX_CACHED_FILE_SIZE) {
+			content = Files.readAllBytes(path);
+			digest.update(content);
+		} else {
+			try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+				is.transferTo(OutputStream.nullOutputStream());
+			}
+		}
+		// 16 bytes are plenty to tell versions apart
+		String hash = HexFormat.of().formatHex(digest.digest(), 0, 16);
+		return new Asset(size, lastModified, hash, content);
+	}
+
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Index of the files present in the local override directory, and cache of the classpath lookups.
+ *
+ * The local directory is walked once and the relative names of its files and folders are kept in a set, so that
+ * checking whether an override exists (flags, pictures, templates) does not touch the file system. A
+ * {@link WatchService} discards the index whenever something changes in the directory; the next lookup walks it
+ * again. Classpath resources do not change while running, so lookups are cached forever, including the misses.
+ *
+ * If the directory cannot be watched, the index is not used and every lookup goes to the file system as before.
+ *
+ * @author Jean-François Lamy
+ */
+class ResourceIndex {
+
+	private static final Logger logger = (Logger) LoggerFactory.getLogger(ResourceIndex.class);
+	private static final Map<String, Optional<URL>> classPathCache = new ConcurrentHashMap<>();
+	private static volatile ResourceIndex current;
+	private static final AtomicLong version = new AtomicLong();
+
+	static {
+		logger.setLevel(Level.INFO);
+	}
+
+	/**
+	 * @param localDir the local override directory, possibly null
+	 * @return an index for the directory, built if needed.
+	 */
+	static ResourceIndex get(Path localDir) {
+		ResourceIndex index = current;
+		if (index == null || !Objects.equals(index.localDir, localDir)) {
+			synchronized (ResourceIndex.class) {
+				index = current;
+				if (index == null || !Objects.equals(index.localDir, localDir)) {
+					if (index != null) {
+						index.close();
+					}
+					index = new ResourceIndex(localDir);
+					current = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return a number that changes each time the index of the local directory is discarded
+	 */
+	static long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Discard the index of the local directory. Called when files are written to the directory by the program, so
+	 * they are visible without waiting for the watch service.
+	 */
+	static void invalidate() {
+		synchronized (ResourceIndex.class) {
+			if (current != null) {
+				current.close();
+				current = null;
+			}
+			version.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @param absoluteName a resource name starting with /
+	 * @return the URL for the resource, null if not on the classpath
+	 */
+	static URL getClassPathURL(String absoluteName) {
+		return classPathCache
+		        .computeIfAbsent(absoluteName, (n) -> Optional.ofNullable(ResourceIndex.class.getResource(n)))
+		        .orElse(null);
+	}
+
+	private static void invalidate(ResourceIndex index) {
+		synchronized (ResourceIndex.class) {
+			if (current == index) {
+				current = null;
+				version.incrementAndGet();
+			}
+			index.close();
+		}
+	}
+
+	private boolean caseInsensitive;
+	private final Path localDir;
+	private Set<String> localNames;
+	private WatchService watchService;
+
+	private ResourceIndex(Path localDir) {
+		this.localDir = localDir;
+		if (localDir == null || !Files.isDirectory(localDir)) {
+			this.localNames = Set.of();
+			return;
+		}
+		long start = System.currentTimeMillis();
+		try {
+			this.watchService = localDir.getFileSystem().newWatchService();
+			this.localNames = walk(localDir);
+			Thread watcher = new Thread(() -> watch(), "resourceIndexWatcher");
+			watcher.setDaemon(true);
+			watcher.start();
+			logger.debug("indexed {} local resources in {} ms", this.localNames.size(),
+			        System.currentTimeMillis() - start);
+		} catch (IOException | UnsupportedOperationException e) {
+			logger.warn("cannot watch {}, local resources not indexed: {}", localDir, e.getMessage());
+			close();
+			this.localNames = null;
+		}
+	}
+
+	/**
+	 * @param relativeName a name relative to the local directory, using / as separator
+	 * @return the path to the file or folder in the local directory, null if absent.
+	 */
+	Path findLocal(String relativeName) {
+		if (this.localDir == null) {
+			return null;
+		}
+		Path target = this.localDir.resolve(relativeName);
+		if (this.localNames == null) {
+			// not indexed
+			return Files.exists(target) ? target : null;
+		}
+		return this.localNames.contains(key(target)) ? target : null;
+	}
+
+	private void close() {
+		if (this.watchService != null) {
+			try {
+				this.watchService.close();
+			} catch (IOException e) {
+				// ignored
+			}
+		}
+	}
+
+	private String key(Path target) {
+		Path relative = this.localDir.normalize().relativize(target.normalize());
+		String name = relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+		return this.caseInsensitive ? name.toLowerCase(Locale.ROOT) : name;
+	}
+
+	private Set<String> walk(Path root) throws IOException {
+		Path normalizedRoot = root.normalize();
+		Set<String> names = new HashSet<>();
+		Files.walkFileTree(normalizedRoot, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+		        new SimpleFileVisitor<Path>() {
+			        @Override
+			        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				        dir.register(ResourceIndex.this.watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+				        names.add(normalizedRoot.relativize(dir).toString());
+				        return FileVisitResult.CONTINUE;
+			        }
+
+			        @Override
+			        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				        names.add(normalizedRoot.relativize(file).toString());
+				        return FileVisitResult.CONTINUE;
+			        }
+		        });
+
+		String separator = root.getFileSystem().getSeparator();
+		Set<String> keys = new HashSet<>();
+		for (String name : names) {
+			keys.add(name.replace(separator, "/"));
+		}
+		this.caseInsensitive = isCaseInsensitive(normalizedRoot, keys);
+		if (this.caseInsensitive) {
+			Set<String> lowerCaseKeys = new HashSet<>();
+			for (String name : keys) {
+				lowerCaseKeys.add(name.toLowerCase(Locale.ROOT));
+			}
+			keys = lowerCaseKeys;
+		}
+		return Set.copyOf(keys);
+	}
+
+	/**
+	 * Windows and macOS file systems ignore case; a file named USA.svg must be found when looking for usa.svg.
+	 */
+	private boolean isCaseInsensitive(Path root, Set<String> names) {
+		for (String name : names) {
+			String swapped = name.toUpperCase(Locale.ROOT);
+			if (swapped.equals(name)) {
+				swapped = name.toLowerCase(Locale.ROOT);
+			}
+			if (!swapped.equals(name)) {
+				return Files.exists(root.resolve(swapped));
+			}
+		}
+		return false;
+	}
+
+	private void watch() {
+		try {
+			// any change invalidates the whole index; changes are rare (configuration uploads, new pictures).
+			this.watchService.take();
+			logger.debug("local directory {} changed, index discarded", this.localDir);
+			invalidate(this);
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// index replaced
+		}
+	}
+
+}
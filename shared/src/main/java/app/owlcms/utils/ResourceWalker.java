@@ -132,15 +132,8 @@ public class ResourceWalker {
 		} else {
 			relativeName = name;
 		}
-		Path localDirPath2 = getLocalDirPath();
-		Path target = null;
-		if (localDirPath2 != null) {
-			target = localDirPath2.resolve(relativeName);
-			if (logger.isEnabledFor(Level.DEBUG)) {
-				logger.debug("{} target={} exists={}", name, target.toAbsolutePath(), Files.exists(target));
-			}
-		}
-		if (target != null && Files.exists(target)) {
+		Path target = ResourceIndex.get(getLocalDirPath()).findLocal(relativeName);
+		if (target != null) {
 			try {
 				if (logger.isEnabledFor(Level.DEBUG)) {
 					logger.debug("found overridden resource {} at {} {}", name, target.toAbsolutePath(),
@@ -156,7 +149,9 @@ public class ResourceWalker {
 				}
 			}
 		} else {
-			is = ResourceWalker.class.getResourceAsStream(name.startsWith("/") ? name : "/" + name);
+			String resName = "/" + relativeName;
+			is = ResourceIndex.getClassPathURL(resName) != null ? ResourceWalker.class.getResourceAsStream(resName)
+			        : null;
 			if (is != null) {
 				if (logger.isEnabledFor(Level.DEBUG)) {
 					logger.debug("found classpath resource {} {}", name, LoggerUtils.whereFrom(1));
@@ -186,12 +181,8 @@ public class ResourceWalker {
 		} else {
 			relativeName = name;
 		}
-		Path localDirPath2 = getLocalDirPath();
-		Path target = null;
-		if (localDirPath2 != null) {
-			target = localDirPath2.resolve(relativeName);
-		}
-		if (target != null && Files.exists(target)) {
+		Path target = ResourceIndex.get(getLocalDirPath()).findLocal(relativeName);
+		if (target != null) {
 			if (logger.isEnabledFor(Level.DEBUG)) {
 				logger.debug("found overridden resource {} at {} {}", name, target.toAbsolutePath(),
 				        LoggerUtils.whereFrom(1));
@@ -215,6 +206,20 @@ public class ResourceWalker {
 		return target;
 	}
 
+	/**
+	 * Check whether a file is present in the local override directory or on the classpath. Same logic as
+	 * {@link #getFileOrResourcePath(String)}, without opening anything: the local directory and the classpath lookups
+	 * are indexed, so repeated checks (flags, pictures) do not touch the file system.
+	 *
+	 * @param name
+	 * @return true if {@link #getFileOrResourcePath(String)} would find the file
+	 */
+	public static boolean existsFileOrResource(String name) {
+		String relativeName = name.startsWith("/") ? name.substring(1) : name;
+		return ResourceIndex.get(getLocalDirPath()).findLocal(relativeName) != null
+		        || ResourceIndex.getClassPathURL("/" + relativeName) != null;
+	}
+
 	public static Path getLocalDirPath() {
 		if (!initializedLocalDir || localDirPath == null) {
 			initLocalDir();
@@ -222,6 +227,16 @@ public class ResourceWalker {
 		return localDirPath;
 	}
 
+	/**
+	 * Changes whenever files are added, removed or modified in the local override directory, so that values derived
+	 * from the presence of files (flag and picture tags) can be cached.
+	 *
+	 * @return the version of the local override directory
+	 */
+	public static long getLocalResourcesVersion() {
+		return ResourceIndex.getVersion();
+	}
+
 	/**
 	 * @return the localeSupplier
 	 */
@@ -349,7 +364,7 @@ public class ResourceWalker {
 	}
 
 	public static Path getResourcePath(String resourcePathString) {
-		URL resourceURL = ResourceWalker.class.getResource(resourcePathString);
+		URL resourceURL = ResourceIndex.getClassPathURL(resourcePathString);
 		if (resourceURL == null) {
 			logger.debug(resourcePathString + " not found *");
 			// throw new RuntimeException(resourcePathString + " not found");
@@ -404,6 +419,8 @@ public class ResourceWalker {
 			checkForLocalOverrideDirectory();
 		}
 		setInitializedLocalDir(true);
+		// index the local files now rather than on the first display
+		ResourceIndex.get(localDirPath);
 	}
 
 	public static void zipPublicResultsConfig(OutputStream os) throws IOException {
@@ -483,6 +500,15 @@ public class ResourceWalker {
 
 	public static void setLocalDirPath(Path curDir) {
 		localDirPath = curDir;
+		ResourceIndex.invalidate();
+	}
+
+	/**
+	 * Make files just written to the local override directory visible immediately, without waiting for the
+	 * directory watcher.
+	 */
+	public static void refreshIndex() {
+		ResourceIndex.invalidate();
 	}
 
 	/**
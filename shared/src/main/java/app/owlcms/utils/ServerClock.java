@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2009-2023 Jean-François Lamy
+ *
+ * Licensed under the Non-Profit Open Software License version 3.0  ("NPOSL-3.0")
+ * License text at https://opensource.org/licenses/NPOSL-3.0
+ *******************************************************************************/
+package app.owlcms.utils;
+
+/**
+ * Monotonic server clock shared with the browsers.
+ *
+ * Timer deadlines sent to the displays are expressed on this clock. It never goes backwards when the system time is
+ * adjusted, and starts at the wall-clock time of startup so values are comparable to epoch milliseconds. The browsers
+ * estimate their offset to this clock by pinging the server and keeping the sample with the shortest round trip.
+ *
+ * @author Jean-François Lamy
+ */
+public class ServerClock {
+
+	private static final long ORIGIN_MILLIS = System.currentTimeMillis();
+	private static final long ORIGIN_NANOS = System.nanoTime();
+
+	/**
+	 * @param millisRemaining time remaining, null if indefinite
+	 * @return the instant at which the time will be over, 0 if indefinite
+	 */
+	public static long deadline(Integer millisRemaining) {
+		return millisRemaining != null ? now() + millisRemaining : 0L;
+	}
+
+	/**
+	 * @return current time in milliseconds
+	 */
+	public static long now() {
+		return ORIGIN_MILLIS + (System.nanoTime() - ORIGIN_NANOS) / 1_000_000L;
+	}
+
+}
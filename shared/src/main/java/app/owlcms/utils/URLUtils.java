@@ -6,7 +6,6 @@
  *******************************************************************************/
 package app.owlcms.utils;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
@@ -42,6 +41,11 @@ import jakarta.servlet.http.HttpServletRequest;
 
 public class URLUtils {
     final private static Logger logger = (Logger) LoggerFactory.getLogger(URLUtils.class);
+    private static volatile Pictures pictures;
+
+    /* result of the last pictures check, with the version of the local override directory it was computed for */
+    private record Pictures(long version, boolean present) {
+    }
 
     public static String buildAbsoluteURL(HttpServletRequest request, String resourcePath) {
         int port = URLUtils.getServerPort(request);
@@ -185,7 +189,18 @@ public class URLUtils {
 		return CharMatcher.javaIsoControl().removeFrom(replaceAll);
     }
 
+    /**
+     * Whether there are athlete pictures. The pictures folder is walked again only when the local override directory
+     * has changed.
+     *
+     * @return true if the pictures folder has a jpg file
+     */
     public static boolean checkPictures() {
+        long version = ResourceWalker.getLocalResourcesVersion();
+        Pictures cached = pictures;
+        if (cached != null && cached.version() == version) {
+            return cached.present();
+        }
         boolean athletePictures;
         try {
             Path f = ResourceWalker.getFileOrResourcePath("pictures");
@@ -194,44 +209,34 @@ public class URLUtils {
         } catch (IOException e) {
             athletePictures = false;
         }
+        pictures = new Pictures(version, athletePictures);
         return athletePictures;
     }
 
     public static boolean checkFlags() {
-        boolean teamFlags;
-        try {
-            ResourceWalker.getFileOrResourcePath("flags");
-            teamFlags = true;
-        } catch (FileNotFoundException e) {
-            teamFlags = false;
-        }
-        return teamFlags;
+        return ResourceWalker.existsFileOrResource("flags");
     }
 
     public static boolean setImgProp(String propertyName, String prefix, String name, String suffix, Component component) {
-        boolean found;
-        try {
-            ResourceWalker.getFileOrResourcePath(prefix + name + suffix);
-            found = true;
-        } catch (FileNotFoundException e) {
-            found = false;
-        }
+        String tag = getImgTag(prefix, name, suffix);
+        component.getElement().setProperty(propertyName, tag != null ? tag : "");
+        return tag != null;
+    }
+
+    /**
+     * @return the tag used by the attempt boards for a local image, null if the file does not exist
+     */
+    public static String getImgTag(String prefix, String name, String suffix) {
+        boolean found = ResourceWalker.existsFileOrResource(prefix + name + suffix);
         if (found) {
-            component.getElement().setProperty(propertyName, "<img src='local/" + prefix + name + suffix + "'></img>");
+            return "<img src='local/" + prefix + name + suffix + "'></img>";
         } else {
-            component.getElement().setProperty(propertyName, "");
+            return null;
         }
-        return found;
     }
 
     public static String getImgTag(String prefix, String name, String suffix, String style) {
-        boolean found;
-        try {
-            ResourceWalker.getFileOrResourcePath(prefix + name + suffix);
-            found = true;
-        } catch (FileNotFoundException e) {
-            found = false;
-        }
+        boolean found = ResourceWalker.existsFileOrResource(prefix + name + suffix);
         if (found) {
             return "<img "+style+" src='local/" + prefix + name + suffix + "'></img>";
         } else {
@@ -81,6 +81,8 @@ public class ZipUtils {
 			// ignore
 		}catch (ArchiveException e) {
 			throw new IOException(e);
+		} finally {
+			ResourceIndex.invalidate();
 		}
 	}
 